@@ -3,8 +3,12 @@
  * games won, and games drawn counts, and win and draw ratios. 
  */
 
+import java.util.HashMap;
+
 public class AIPlayer extends Player {
 
+	//the value computed for the first version of the class, so older player files still load
+	private static final long serialVersionUID = -7494980574253114243L;
 	private static final char EMPTY_SYMBOL = ' ';
 	
 	/* Constructors */ 
@@ -38,6 +42,27 @@ public class AIPlayer extends Player {
 		return null; 
 	}
 
+	/* Returns the calling AI player's next move for each of the input boards, which are in the 
+	 * compact form produced by BoardEncoding. Identical boards are only decoded once.
+	 */ 
+	public Move[] makeMoves(long[] encodedBoards, int gridSize) {
+
+		HashMap<Long, Move> movesByBoard = new HashMap<Long, Move>();
+		Move[] moves = new Move[encodedBoards.length];
+
+		for (int i = 0; i < encodedBoards.length; i++) {
+
+			Move move = movesByBoard.get(encodedBoards[i]);
+			if (move == null) {
+				move = makeMove(BoardEncoding.decode(encodedBoards[i], gridSize));
+				movesByBoard.put(encodedBoards[i], move);
+			}
+			moves[i] = move;
+		}
+
+		return moves; 
+	}
+
 	/* Makes a copy of the calling AI player and returns a reference to the copy */
 	public AIPlayer makeCopy() {
 		
@@ -45,6 +70,8 @@ public class AIPlayer extends Player {
 			this.gamesPlayedCount, this.gamesWonCount, this.gamesDrawnCount, this.winRatio, 
 			this.drawRatio);
 
+		playerCopy.setPlayerId(this.playerId);
+
 		return playerCopy;
 	}
 }
\ No newline at end of file
@@ -3,15 +3,41 @@
  * games won, and games drawn counts, and win and draw ratios. 
  */
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
 public class AdvancedAIPlayer extends Player {
 	
-	private static final int GRID_SIZE = 3; 
-	private static final char PLAYER_O_SYMBOL = 'O';
-	private static final char PLAYER_X_SYMBOL = 'X';
-	private static final char EMPTY_SYMBOL = ' ';
-	private static final int MAX_AVAILABLE_MOVES = GRID_SIZE*GRID_SIZE;  
+	//the value computed for the first version of the class, so older player files still load
+	private static final long serialVersionUID = -6310195044839536652L;
+
+	//best move (as a row-major cell index) for each position searched so far, keyed by Zobrist 
+	//hash and shared by all advanced AI players
+	private static final ConcurrentHashMap<Long, Integer> bestMoveCache = 
+		new ConcurrentHashMap<Long, Integer>();
+
+	//best moves saved by earlier runs of the program, mapped rather than read in
+	private static final String MOVE_CACHE_FILE_NAME = "aimoves.dat"; 
+	private static final MoveCacheFile savedMoves = MoveCacheFile.open(MOVE_CACHE_FILE_NAME);
+
+	//pondering runs on one thread of its own, so it never holds up the searches for real moves, 
+	//and only on boards small enough for the search of every reply to finish
+	private static final int MAX_PONDER_EMPTY_CELLS = 9; 
+	private static final ExecutorService ponderExecutor = Executors.newSingleThreadExecutor(
+		runnable -> {
+			Thread ponderThread = new Thread(runnable); 
+			ponderThread.setDaemon(true); 
+			return ponderThread; 
+		}); 
+
+	private transient SearchContext ponderContext; //context of the background search, if any
 	
-	private enum Outcome {
+	public enum Outcome {
 		WIN, LOSE, DRAW
 	}
 
@@ -36,278 +62,445 @@ public class AdvancedAIPlayer extends Player {
 	}
 
 	/* Returns the best possible move for the AI player from the available moves by calling a method
-	 * that implements a Minimax algorithm. 
+	 * that implements a Minimax algorithm. A line across the whole grid is needed to win. 
 	 */ 
 	public Move makeMove(char[][] gameBoard) {
 
-		Move bestMove = new Move(); 
+		return makeMove(Board.fromGrid(gameBoard, gameBoard.length)); 
+	}
 
-		minimax(gameBoard, bestMove, Turn.AI);
+	/* Returns the best possible move for the AI player on the input board */ 
+	protected Move makeMove(Board board) {
 
-		return bestMove; 
+		return findBestMove(new Board(board), new SearchContext()); 
 	}
 
-	/* Implements the Minimax algorithm that recursively determines the (equal) best possible
-	 * outcome for any given turn, returns this outcome, and updates the bestMove variable with the 
-	 * available move that leads to this outcome. 
-	 * 
-	 * The Minimax algorithm chooses moves that maximize the outcome of the AI player, and minimize
-	 * the outcome of the Opposition player in any given recursion. Each recursion alternates the 
-	 * player who holds the current turn. So if the AI holds the current turn, the maximum outcome 
-	 * possible from this position will be returned, otherwise, the minimum outcome will be returned
+	/* Searches for the best move and returns a future for it. If the search has not finished 
+	 * within the time budget it is cancelled and the future completes with the best move found so 
+	 * far instead.
 	 */ 
-	private Outcome minimax(char[][] gameBoard, Move bestMove, Turn turn) {
+	protected CompletableFuture<Move> makeMoveAsync(Board board, long timeBudgetMillis) {
 
-		//check if win has occured 
-		if (isWin(gameBoard) && turn == Turn.OPPOSITION) {
+		return makeTimedMove(board, timeBudgetMillis, this::findBestMove); 
+	}
 
-			return Outcome.WIN;
-			
-		} else if (isWin(gameBoard) && turn == Turn.AI) {
-			printGrid(gameBoard);
-			System.out.println(); 
-			return Outcome.LOSE; 
-		} else if (isGameOver(gameBoard)) {
-			//must be draw
-			return Outcome.DRAW; 
-		} else {
-			if (gameBoard[0][1] == PLAYER_O_SYMBOL && 
-				gameBoard[1][1] == PLAYER_O_SYMBOL && 
-				gameBoard[2][1] == PLAYER_O_SYMBOL) {
-				return Outcome.LOSE; 
+	/* Saves the best moves found in this run, along with those saved by earlier runs, so that 
+	 * later runs can use them without searching 
+	 */ 
+	public static void saveMoveCache() {
+
+		if (!bestMoveCache.isEmpty()) {
+			savedMoves.save(MOVE_CACHE_FILE_NAME, bestMoveCache); 
+		}
+	}
+
+	/* Searches every reply available to the opposition in the background, so that the best 
+	 * response to whichever reply is actually played is already cached when it is the AI player's
+	 * turn again. The replies are searched one after another on the pondering thread, stopping as 
+	 * soon as pondering is stopped. Boards with too many empty cells for the searches to finish 
+	 * are not pondered. 
+	 */ 
+	protected void startPondering(Board board) {
+
+		stopPondering(); 
+
+		if (board.getCellCount() - board.getMoveCount() > MAX_PONDER_EMPTY_CELLS) {
+			return; 
+		}
+
+		//build the boards resulting from each reply now, as the game board will change
+		Board[] replyBoards = new Board[board.getCellCount()]; 
+		int replyCount = 0; 
+
+		int[] replies = new int[board.getCellCount()]; 
+		int emptyCount = board.findEmptyCells(replies); 
+
+		for (int i = 0; i < emptyCount; i++) {
+			Board replyBoard = new Board(board);
+			replyBoard.play(replies[i]); 
+
+			if (!replyBoard.hasWinner() && !replyBoard.isFull()) {
+				replyBoards[replyCount] = replyBoard; 
+				replyCount++; 
 			}
 		}
 
-		Move[] moves = new Move[MAX_AVAILABLE_MOVES];
-		int moveIndex = 0; 
-		int symbolOCount = 0; 
-		int symbolXcount = 0; 
+		SearchContext context = new SearchContext(); 
+		ponderContext = context; 
 
-		//get all available moves 
-		for (int row = 0; row < GRID_SIZE; row++) {
-			for (int column = 0; column < GRID_SIZE; column++) {
-
-				if (gameBoard[row][column] == EMPTY_SYMBOL) {
-					//empty, place into moves array
-					Move move = new Move(row,column);
-					moves[moveIndex] = move; 
-					moveIndex++; 
-				} else if (gameBoard[row][column] == PLAYER_O_SYMBOL) { 
-					symbolOCount++; 
-				} else {
-					symbolXcount++; 
-				}
+		int searchCount = replyCount; 
+		ponderExecutor.execute(() -> {
+			for (int i = 0; i < searchCount && !context.isCancelled(); i++) {
+				findBestCell(replyBoards[i], context); 
 			}
+		});
+	}
+
+	/* Cancels any background search started by startPondering. Replies that were fully searched 
+	 * remain cached. 
+	 */ 
+	protected void stopPondering() {
+
+		if (ponderContext != null) {
+			ponderContext.cancel(); 
+			ponderContext = null; 
 		}
+	}
 
-		//work out which symbol the current player should use
-		char symbol = PLAYER_O_SYMBOL;
-		if (symbolOCount > symbolXcount) {
-			symbol = PLAYER_X_SYMBOL;
-		} 
+	/* Returns the best move for the board, or null if there are no moves available. The board is 
+	 * used as working space by the search.
+	 */ 
+	private Move findBestMove(Board board, SearchContext context) {
 
-		//Min-Max calculation
+		return board.toMove(findBestCell(board, context)); 
+	}
 
-		Outcome outcome = null; 
-		Outcome bestOutcome = null; 
+	/* Searches the board for the best move of the player to move, always searching rather than 
+	 * using a cached move, so that the outcome is known. Returns the outcome of the best move 
+	 * with best play by both sides, and leaves the move in the context as the best move so far. 
+	 * Returns null if the search was cancelled or there are no moves available. The board is used 
+	 * as working space by the search.
+	 *
+	 * If the context has a depth limit, a win or loss is still certain, but a draw may just mean 
+	 * the outcome lies beyond the limit (in which case the context's cutoff count goes up). 
+	 */ 
+	public Outcome analyze(Board board, SearchContext context) {
 
-		if (turn == Turn.AI) {
-			bestOutcome = Outcome.LOSE; 
+		return analyze(board, context, true); 
+	}
 
-			for (int i = 0; i < moveIndex; i++) {
-				//generate the game board resulting from each possible move
-				char[][] possibleGameboard = makeGameBoardCopy(gameBoard);
-				possibleGameboard[moves[i].getRow()][moves[i].getColumn()] = symbol;
+	/* Searches the board as above, only sharing the best move with other advanced AI players if 
+	 * asked to. Searches of boards from outside the game, which may never be played, aren't 
+	 * shared, so they don't fill the cache of moves kept for the rest of the run. 
+	 */ 
+	public Outcome analyze(Board board, SearchContext context, boolean shareBestMove) {
 
-				//recurse
-				outcome = minimax(possibleGameboard, bestMove, Turn.OPPOSITION);
+		long cutoffsBefore = context.getCutoffCount(); 
+		int bestCell = searchRoot(board, null, context); 
 
-				//maximize outcome
-				if (outcome == Outcome.WIN) {
-					bestOutcome = outcome; 
-					bestMove.setRow(moves[i].getRow()); 
-					bestMove.setColumn(moves[i].getColumn());
-				} else if ((bestOutcome != Outcome.WIN) && (outcome == Outcome.DRAW)) {
-					bestOutcome = outcome; 
-					bestMove.setRow(moves[i].getRow()); 
-					bestMove.setColumn(moves[i].getColumn());
-				}	
-			}
+		if (context.isCancelled() || bestCell == Board.NO_CELL) {
+			return null; 
+		}
 
-			return bestOutcome; 
+		//only moves from a complete search are shared with other players
+		if (shareBestMove && context.getCutoffCount() == cutoffsBefore) {
+			bestMoveCache.put(board.getHash(), bestCell);
+		}
+		return context.getBestOutcome(); 
+	}
 
-		} else {
-			bestOutcome = Outcome.WIN; 
+	/* Rates every move available on the board in one search, returning an array indexed by cell 
+	 * that holds the outcome of each move for the player to move, with best play by both sides, 
+	 * and null for occupied cells. The moves share the outcomes of positions they have in common, 
+	 * so rating every move costs the same as finding the best one. Returns null if the search was 
+	 * cancelled. The board is used as working space by the search.
+	 */ 
+	public Outcome[] rateMoves(Board board, SearchContext context) {
 
-			for (int i = 0; i < moveIndex; i++) {
-				//generate the game board resulting from each possible move
-				char[][] possibleGameboard = makeGameBoardCopy(gameBoard);
-				possibleGameboard[moves[i].getRow()][moves[i].getColumn()] = symbol;
+		Outcome[] moveOutcomes = new Outcome[board.getCellCount()]; 
+		long cutoffsBefore = context.getCutoffCount(); 
+		int bestCell = searchRoot(board, moveOutcomes, context); 
 
-				//recurse
-				outcome = minimax(possibleGameboard, bestMove, Turn.AI);
+		if (context.isCancelled()) {
+			return null; 
+		}
 
-				//maximize outcome
-				if (outcome == Outcome.LOSE) {
-					bestOutcome = outcome; 
-					bestMove.setRow(moves[i].getRow()); 
-					bestMove.setColumn(moves[i].getColumn());
-				} else if ((bestOutcome != Outcome.LOSE) && (outcome == Outcome.DRAW)) {
-					bestOutcome = outcome; 
-					bestMove.setRow(moves[i].getRow()); 
-					bestMove.setColumn(moves[i].getColumn());
-				}	
+		if (bestCell != Board.NO_CELL && context.getCutoffCount() == cutoffsBefore) {
+			bestMoveCache.put(board.getHash(), bestCell);
+		}
+		return moveOutcomes; 
+	}
+
+	/* Stores the principal variation (the moves both players would make with best play) of the 
+	 * last search of the board in the context into the variation array, which must have room for 
+	 * every cell, and returns its length. The variation follows the outcomes the search stored, so 
+	 * it stops short where the search was cut off. 
+	 */ 
+	public int findPrincipalVariation(Board board, SearchContext context, int[] variation) {
+
+		int aiPlayer = board.getPlayerToMove(); 
+		Outcome outcome = context.getBestOutcome(); 
+		int cell = context.getBestCellSoFar(); 
+		int length = 0; 
+		int[] moves = new int[board.getCellCount()]; 
+
+		while (cell != Board.NO_CELL) {
+			board.play(cell); 
+			variation[length] = cell; 
+			length++; 
+
+			//find a reply that keeps the same outcome
+			cell = Board.NO_CELL; 
+			int moveCount = 0; 
+			if (!board.hasWinner()) {
+				moveCount = board.findEmptyCells(moves); 
+			}
+			for (int i = 0; i < moveCount && cell == Board.NO_CELL; i++) {
+				board.play(moves[i]); 
+				if (getKnownOutcome(board, aiPlayer, context) == outcome) {
+					cell = moves[i]; 
+				}
+				board.undo(moves[i]); 
 			}
+		}
 
-			return bestOutcome; 
+		//put the board back as it was
+		for (int i = length - 1; i >= 0; i--) {
+			board.undo(variation[i]); 
 		}
+
+		return length; 
 	}
 
-	private char switchSymbol(char symbol) { 
+	/* Returns the outcome of the board for the AI player if it is over or stored in the context, 
+	 * or null if not known 
+	 */ 
+	private Outcome getKnownOutcome(Board board, int aiPlayer, SearchContext context) {
 
-		if (symbol == EMPTY_SYMBOL) {
-			return EMPTY_SYMBOL; 
-		} else if (symbol == PLAYER_O_SYMBOL) {
-			return PLAYER_X_SYMBOL;
-		} else {
-			return PLAYER_O_SYMBOL;
+		if (board.hasWinner()) {
+			return board.getWinner() == aiPlayer ? Outcome.WIN : Outcome.LOSE; 
+		} else if (board.isFull()) {
+			return Outcome.DRAW; 
 		}
+		return context.getOutcome(board.getHash()); 
 	}
 
-	/* Makes a copy of the gameboard and returns the reference to the copy */ 
-	private char[][] makeGameBoardCopy(char[][] gameBoard) {
+	/* Returns the cell of the best move for the board, using a cached result if the position has 
+	 * been searched before. Results of cancelled searches are not cached. A cached cell that isn't 
+	 * an empty cell of the board (from a hash collision or a damaged move cache file) is ignored, 
+	 * and the board searched instead. 
+	 */ 
+	private int findBestCell(Board board, SearchContext context) {
 
-		char[][] gameBoardCopy = new char[GRID_SIZE][GRID_SIZE]; 
+		//reuse an earlier search of the same position if there is one
+		Integer cachedCell = bestMoveCache.get(board.getHash());
+		if (cachedCell != null && isEmptyCell(board, cachedCell)) {
+			return cachedCell; 
+		}
+		int savedCell = savedMoves.getCell(board.getHash()); 
+		if (savedCell != Board.NO_CELL && isEmptyCell(board, savedCell)) {
+			return savedCell; 
+		}
 
-		for (int row = 0; row < GRID_SIZE; row++) {
-			for (int column = 0; column < GRID_SIZE; column++) {
+		int bestCell = searchRoot(board, null, context); 
 
-				gameBoardCopy[row][column] = gameBoard[row][column];
-			}
+		if (!context.isCancelled() && bestCell != Board.NO_CELL) {
+			bestMoveCache.put(board.getHash(), bestCell);
 		}
 
-		return gameBoardCopy; 
+		return bestCell; 
 	}
 
-	/* Checks gameboard to see if the game has been completed. Returns true if game is over, false
-	 * otherwise.
+	/* Returns true if the cell is on the board and empty */ 
+	private static boolean isEmptyCell(Board board, int cell) {
+
+		return cell >= 0 && cell < board.getCellCount() && 
+			board.isEmpty(board.getRow(cell), board.getColumn(cell)); 
+	}
+
+	/* Runs the Minimax algorithm for each move available to the AI player and returns the cell 
+	 * of the move with the best outcome, publishing each improvement to the search context as 
+	 * the best move so far, and the best outcome once the search completes. Returns Board.NO_CELL 
+	 * if there are no moves available. If an array of move outcomes is given, the outcome of each 
+	 * move is stored at its cell.
 	 */ 
-	private boolean isGameOver(char[][] gameBoard) {
+	private int searchRoot(Board board, Outcome[] moveOutcomes, SearchContext context) {
 
-		//check each row and column to see if any moves still available
-		for (int row = 0; row < GRID_SIZE; row++) {
-			for (int column = 0; column < GRID_SIZE; column++) {
+		//one buffer of moves for each depth, reused by every node at that depth
+		int[][] moveBuffers = new int[board.getCellCount() + 1][board.getCellCount()]; 
+		int[] moves = moveBuffers[0]; 
+		int moveCount = board.findEmptyCells(moves); 
 
-				if (gameBoard[row][column] == EMPTY_SYMBOL) {
-					return false; 
-				}
+		if (moveCount == 0) {
+			//no moves available
+			return Board.NO_CELL; 
+		}
+
+		//any legal move will do until one has been searched
+		int bestCell = moves[0]; 
+		Outcome bestOutcome = Outcome.LOSE; 
+		context.setBestCellSoFar(bestCell); 
+
+		for (int i = 0; i < moveCount; i++) {
+
+			board.play(moves[i]); 
+			Outcome outcome = minimax(board, Turn.OPPOSITION, 1, moveBuffers, context);
+			context.trace(board, 1, outcome); 
+			board.undo(moves[i]); 
+
+			if (context.isCancelled()) {
+				//outcome is incomplete, keep the best move so far
+				return bestCell; 
+			}
+
+			if (moveOutcomes != null) {
+				moveOutcomes[moves[i]] = outcome; 
+			}
+
+			//maximize outcome
+			if (outcome == Outcome.WIN || 
+				((bestOutcome != Outcome.WIN) && (outcome == Outcome.DRAW))) {
+				bestOutcome = outcome; 
+				bestCell = moves[i]; 
+				context.setBestCellSoFar(bestCell); 
 			}
 		}
 
-		// no moves available, game must be over
-		return true; 
+		context.setBestOutcome(bestOutcome); 
+		return bestCell; 
 	}
 
-	/* Checks gameboard to see if a win has occured. Returns true if win has occured, false 
-	 * otherwise.
+	/* Returns the best move for each of the input 3x3 boards, which are in the compact form 
+	 * produced by BoardEncoding. Identical boards are only searched once, and the distinct boards 
+	 * are searched in parallel, sharing cached results with makeMove.
 	 */ 
-	private boolean isWin(char[][] gameBoard) {
-		
-		//check each row for win
-		for (int row = 0; row < GRID_SIZE; row++) {
-			if (isWinInRow(gameBoard, row) == true) {
-				return true; 
-			}
+	public Move[] makeMoves(long[] encodedBoards) {
+
+		//search each distinct position once, keeping the results as cells
+		long[] distinctBoards = Arrays.stream(encodedBoards).distinct().toArray();
+		int[] distinctCells = new int[distinctBoards.length]; 
+		IntStream.range(0, distinctBoards.length).parallel().forEach(i -> {
+			Board board = Board.fromGrid(BoardEncoding.decode(distinctBoards[i], 
+				GameManager.DEFAULT_GRID_SIZE), GameManager.DEFAULT_WIN_LENGTH); 
+			distinctCells[i] = findBestCell(board, new SearchContext()); 
+		});
+
+		HashMap<Long, Integer> cellsByBoard = new HashMap<Long, Integer>(); 
+		for (int i = 0; i < distinctBoards.length; i++) {
+			cellsByBoard.put(distinctBoards[i], distinctCells[i]); 
 		}
 
-		//check each column for win
-		for (int column = 0; column < GRID_SIZE; column++) {
-			if (isWinInColumn(gameBoard, column) == true) {
-				return true; 
-			}
+		//answer every board, giving each its own move
+		Board emptyBoard = new Board(GameManager.DEFAULT_GRID_SIZE, GameManager.DEFAULT_WIN_LENGTH); 
+		Move[] moves = new Move[encodedBoards.length];
+		for (int i = 0; i < encodedBoards.length; i++) {
+			moves[i] = emptyBoard.toMove(cellsByBoard.get(encodedBoards[i]));
 		}
-		
-		//check diagonals for win
-		if (isWinInLeftDiagonal(gameBoard) == true) {
-			return true; 
+
+		return moves; 
+	}
+
+	/* Implements the Minimax algorithm that recursively determines the (equal) best possible
+	 * outcome for any given turn and returns this outcome. Each move is played on the board and 
+	 * undone again once its outcome is known, so the board is unchanged on return. Moves are 
+	 * cells, generated into the buffer for the depth of the search, so no objects are created. 
+	 * 
+	 * The Minimax algorithm chooses moves that maximize the outcome of the AI player, and minimize
+	 * the outcome of the Opposition player in any given recursion. Each recursion alternates the 
+	 * player who holds the current turn. So if the AI holds the current turn, the maximum outcome 
+	 * possible from this position will be returned, otherwise, the minimum outcome will be returned
+	 */ 
+	private Outcome minimax(Board board, Turn turn, int depth, int[][] moveBuffers, 
+		SearchContext context) {
+
+		//abandon the search if cancelled, the outcome will be discarded
+		if (context.isCancelled()) {
+			return Outcome.DRAW; 
 		}
+		context.countNode(); 
 
-		if (isWinInRightDiagonal(gameBoard) == true) {
-			return true; 
+		//reuse the outcome if this position has been reached before by other moves
+		Outcome knownOutcome = context.getOutcome(board.getHash()); 
+		if (knownOutcome != null) {
+			return knownOutcome; 
 		}
-		
-		//no win
-		return false; 
-	}
 
-	/* Checks each row and returns true if a win has occured, false otherwise */
-	private boolean isWinInRow(char[][] gameBoard, int row) {
+		//check if win has occured 
+		if (board.hasWinner() && turn == Turn.OPPOSITION) {
 
-		for (int column = 0; column < GRID_SIZE-1; column++) {
+			return Outcome.WIN;
+			
+		} else if (board.hasWinner() && turn == Turn.AI) {
+			return Outcome.LOSE; 
+		} else if (board.isFull()) {
+			//must be draw
+			return Outcome.DRAW; 
+		}
 
-			if (gameBoard[row][column] == EMPTY_SYMBOL ||
-				gameBoard[row][column] != gameBoard[row][column+1]) {
-				
-				return false;
-			}
+		//the outcome beyond the depth limit is unknown, so count it as a draw
+		if (depth >= context.getDepthLimit()) {
+			context.countCutoff(); 
+			return Outcome.DRAW; 
 		}
+		long cutoffsBefore = context.getCutoffCount(); 
 
-		return true; 
-	}
+		//get all available moves 
+		int[] moves = moveBuffers[depth]; 
+		int moveCount = board.findEmptyCells(moves); 
+
+		//Min-Max calculation
+
+		Outcome outcome = null; 
+		Outcome bestOutcome = null; 
+
+		if (turn == Turn.AI) {
+			bestOutcome = Outcome.LOSE; 
 
-	/* Checks each column and returns true if a win has occured, false otherwise */
-	private boolean isWinInColumn(char[][] gameBoard, int column) {
+			for (int i = 0; i < moveCount; i++) {
+				//play each possible move, placing the symbol of the player to move
+				board.play(moves[i]);
 
-		for (int row = 0; row < GRID_SIZE-1; row++) {
+				//recurse
+				outcome = minimax(board, Turn.OPPOSITION, depth + 1, moveBuffers, context);
+				context.trace(board, depth + 1, outcome); 
 
-			if (gameBoard[row][column] == EMPTY_SYMBOL ||
-				gameBoard[row][column] != gameBoard[row+1][column]) {
+				board.undo(moves[i]);
 
-				return false;
+				//maximize outcome
+				if (outcome == Outcome.WIN) {
+					bestOutcome = outcome; 
+				} else if ((bestOutcome != Outcome.WIN) && (outcome == Outcome.DRAW)) {
+					bestOutcome = outcome; 
+				}	
 			}
-		}
 
-		return true; 
-	}
+			storeOutcome(board, bestOutcome, cutoffsBefore, context); 
+			return bestOutcome; 
+
+		} else {
+			bestOutcome = Outcome.WIN; 
+
+			for (int i = 0; i < moveCount; i++) {
+				//play each possible move, placing the symbol of the player to move
+				board.play(moves[i]);
 
-	/* Checks left diagonal (top left to bottom right) and returns true if a win has occured, 
-	 * false otherwise.
-	 */
-	private boolean isWinInLeftDiagonal(char[][] gameBoard) {
+				//recurse
+				outcome = minimax(board, Turn.AI, depth + 1, moveBuffers, context);
+				context.trace(board, depth + 1, outcome); 
 
-		int count = 1; 
-		for (int i = 0; i < GRID_SIZE-1; i++) {
+				board.undo(moves[i]);
 
-			if (gameBoard[i][i] != EMPTY_SYMBOL && gameBoard[i][i] == gameBoard[i+1][i+1]) {
-				count++; 
+				//minimize outcome
+				if (outcome == Outcome.LOSE) {
+					bestOutcome = outcome; 
+				} else if ((bestOutcome != Outcome.LOSE) && (outcome == Outcome.DRAW)) {
+					bestOutcome = outcome; 
+				}	
 			}
-		}
 
-		if (count == GRID_SIZE) {
-			return true; 
-		} else {
-			return false; 
+			storeOutcome(board, bestOutcome, cutoffsBefore, context); 
+			return bestOutcome; 
 		}
 	}
 
-	/* Checks right diagonal (top right to bottom left) and returns true if a win has occured, 
-	 * false otherwise.
-	 */
-	private boolean isWinInRightDiagonal(char[][] gameBoard) {
- 
-		int count = 1; 
-		for (int i = 0, j = GRID_SIZE-1; i < GRID_SIZE-1; i++, j--) {
+	/* Stores the outcome of the position in the context's table, unless the search was cancelled
+	 * (in which case the outcome may be incomplete), or the outcome is a draw that may only be due 
+	 * to positions after it being cut off at the depth limit. Wins and losses are never due to 
+	 * cutoffs, as cutoffs count as draws. 
+	 */ 
+	private void storeOutcome(Board board, Outcome outcome, long cutoffsBefore, 
+		SearchContext context) {
 
-			if (gameBoard[i][j] != EMPTY_SYMBOL && gameBoard[i][j] == gameBoard[i+1][j-1]) {
-				count++; 
-			}
+		if (!context.isCancelled() && 
+			(outcome != Outcome.DRAW || context.getCutoffCount() == cutoffsBefore)) {
+			context.putOutcome(board.getHash(), outcome); 
 		}
+	}
 
-		if (count == GRID_SIZE) {
-			return true; 
-		} else {
-			return false; 
-		}
+	/* Returns the cell of the best move found for a game of Qubic within the time budget */ 
+	protected int makeQubicMove(QubicBoard board, long timeBudgetMillis) {
+
+		return new QubicSearch(board, timeBudgetMillis).findBestCell(); 
 	}
 
 	/* Makes a copy of the calling Advanced AI Player and returns a reference to the copy */ 
@@ -317,30 +510,8 @@ public class AdvancedAIPlayer extends Player {
 			this.givenName, this.gamesPlayedCount, this.gamesWonCount, this.gamesDrawnCount, 
 			this.winRatio, this.drawRatio);
 
-		return playerCopy;
-	}	
-
-	/* Prints the game grid, formatted as a TicTacToe board */ 
-	private void printGrid(char[][] grid) {
+		playerCopy.setPlayerId(this.playerId);
 
-		for (int row = 0; row < GRID_SIZE; row++) {
-			for (int column = 0; column < GRID_SIZE; column++) {
-
-				System.out.print(grid[row][column]);
-
-				if (column < GRID_SIZE-1) {
-					System.out.print("|");
-				}
-			}
-
-			System.out.println();
-
-			if (row < GRID_SIZE-1) {
-				for (int i = 0; i < 2*GRID_SIZE-1; i++) {
-					System.out.print("-");
-				}
-				System.out.println(); 
-			}
-		}
+		return playerCopy;
 	}
-}
+}
\ No newline at end of file
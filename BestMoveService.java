@@ -0,0 +1,284 @@
+/*
+ * Class that answers "what is the best move for this board?" over HTTP, so other programs can use 
+ * the advanced AI without running a game. It is served by the JDK's built-in HTTP server, with a 
+ * thread for each core handling requests, as the searches are bound by the processor. It listens 
+ * on the address it is started with, which the program sets to the loopback address unless told 
+ * otherwise.
+ *
+ * GET /bestmove?board=XO.X.....&win=3 searches the board, given row by row with 'X', 'O', and '.' 
+ * (or '-') for an empty cell, and returns the best move for the player to move and its outcome 
+ * with best play ("win", "loss" or "draw", or "unknown" if the search ran out of time). The win 
+ * length defaults to the grid size. Boards of up to BoardEncoding.MAX_CELL_COUNT cells are 
+ * accepted.
+ *
+ * Answers are cached in a bounded PositionCache keyed by the canonical form of the position: the 
+ * lowest encoding of the board under any of its 8 symmetries. The cached move is stored as it 
+ * appears on the canonical board, and is moved back onto each board that asks for it. Searches 
+ * for the service don't add to the cache of moves shared by the advanced AI players, and each has 
+ * a table of outcomes of limited size, so requests can't grow the memory used without bound.
+ *
+ * GET /stats returns the number of requests, the recent and overall throughput, the median and 
+ * 99th percentile latency, and how well the cache is doing.
+ */
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class BestMoveService {
+
+	public static final int DEFAULT_PORT = 8080;
+
+	private static final int CACHE_CAPACITY = 100000; //positions
+	private static final long SEARCH_TIME_BUDGET_MILLIS = 2000;
+	private static final int OUTCOME_TABLE_CAPACITY = 200000; //positions stored by each search
+	private static final int SYMMETRY_COUNT = 8;
+	private static final int SIZE_SHIFT = 4; //key bits below the board encoding
+	private static final int WIN_LENGTH_BITS = 4;
+	private static final int OUTCOME_SHIFT = 16; //answer bits above the cell
+	private static final int CELL_MASK = (1 << OUTCOME_SHIFT) - 1;
+	private static final int HTTP_OK = 200;
+	private static final int HTTP_BAD_REQUEST = 400;
+	private static final int HTTP_BAD_METHOD = 405;
+	private static final String[] OUTCOME_NAMES = {"win", "loss", "draw", "unknown"};
+	private static final int UNKNOWN_OUTCOME = 3;
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final PositionCache positionCache = new PositionCache(CACHE_CAPACITY);
+	private final ServiceStats stats = new ServiceStats();
+	private final AdvancedAIPlayer searcher = new AdvancedAIPlayer();
+
+	/* Constructor */
+	private BestMoveService(HttpServer server, ExecutorService executor) {
+
+		this.server = server;
+		this.executor = executor;
+	}
+
+	/* Starts serving on the input port of the input address and returns the service */
+	public static BestMoveService start(int port, InetAddress bindAddress) throws IOException {
+
+		HttpServer server = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+		ExecutorService executor = Executors.newFixedThreadPool(
+			Runtime.getRuntime().availableProcessors());
+		server.setExecutor(executor);
+
+		BestMoveService service = new BestMoveService(server, executor);
+		server.createContext("/bestmove", exchange -> service.handleBestMove(exchange));
+		server.createContext("/stats", exchange -> service.handleStats(exchange));
+		server.start();
+
+		return service;
+	}
+
+	/* Accessors */
+	public int getPort() {
+
+		return this.server.getAddress().getPort();
+	}
+
+	/* Stops serving, letting requests in progress finish */
+	public void stop() {
+
+		server.stop(0);
+		executor.shutdown();
+	}
+
+	private void handleBestMove(HttpExchange exchange) throws IOException {
+
+		long startTime = System.nanoTime();
+
+		if (!exchange.getRequestMethod().equals("GET")) {
+			respond(exchange, HTTP_BAD_METHOD, "{\"error\":\"Only GET is supported.\"}");
+			return;
+		}
+
+		String boardText = getParameter(exchange.getRequestURI(), "board");
+		String winLengthText = getParameter(exchange.getRequestURI(), "win");
+
+		//check for erroneous input
+		if (boardText == null) {
+			respond(exchange, HTTP_BAD_REQUEST, "{\"error\":\"A board must be given.\"}");
+			return;
+		}
+		int size = (int) Math.round(Math.sqrt(boardText.length()));
+		if (size*size != boardText.length() || size < Board.MIN_SIZE || 
+			size*size > BoardEncoding.MAX_CELL_COUNT) {
+			respond(exchange, HTTP_BAD_REQUEST, "{\"error\":\"The board must be square, from " + 
+				Board.MIN_SIZE + "x" + Board.MIN_SIZE + " to " + 
+				BoardEncoding.MAX_CELL_COUNT + " cells.\"}");
+			return;
+		}
+		int winLength = size;
+		if (winLengthText != null) {
+			try {
+				winLength = Integer.parseInt(winLengthText);
+			}
+			catch (NumberFormatException e) {
+				winLength = 0;
+			}
+		}
+		if (winLength < Board.MIN_SIZE || winLength > size) {
+			respond(exchange, HTTP_BAD_REQUEST, "{\"error\":\"The win length must be from " + 
+				Board.MIN_SIZE + " to the grid size.\"}");
+			return;
+		}
+
+		char[][] grid = Board.parseGrid(boardText);
+		if (grid == null) {
+			respond(exchange, HTTP_BAD_REQUEST, "{\"error\":\"Cells must be X, O, . or -.\"}");
+			return;
+		}
+		Board board = Board.fromGrid(grid, winLength);
+		if (!board.hasValidMoveCounts()) {
+			respond(exchange, HTTP_BAD_REQUEST, 
+				"{\"error\":\"O moves first, so O must have as many moves as X or one more.\"}");
+			return;
+		}
+		if (board.hasWinner() || board.isFull()) {
+			respond(exchange, HTTP_BAD_REQUEST, "{\"error\":\"The game is over.\"}");
+			return;
+		}
+
+		//look up the canonical position, then search it if it isn't cached
+		int[] symmetry = new int[1];
+		long positionKey = getCanonicalKey(board, symmetry);
+		int[] symmetryCells = Tablebase.createSymmetries(size)[symmetry[0]];
+
+		int answer = positionCache.get(positionKey);
+		boolean cached = answer != PositionCache.NOT_FOUND;
+		if (!cached) {
+			answer = search(board, symmetryCells);
+			if (answer >>> OUTCOME_SHIFT != UNKNOWN_OUTCOME) {
+				positionCache.put(positionKey, answer);
+			}
+		}
+
+		//move the canonical cell back onto the board that was asked about
+		int canonicalCell = answer & CELL_MASK;
+		int cell = 0;
+		while (symmetryCells[cell] != canonicalCell) {
+			cell++;
+		}
+
+		long latencyNanos = System.nanoTime() - startTime;
+		stats.record(latencyNanos);
+
+		respond(exchange, HTTP_OK, "{\"cell\":" + cell + ",\"row\":" + board.getRow(cell) + 
+			",\"column\":" + board.getColumn(cell) + ",\"evaluation\":\"" + 
+			OUTCOME_NAMES[answer >>> OUTCOME_SHIFT] + "\",\"cached\":" + cached + 
+			",\"micros\":" + latencyNanos/1000 + "}");
+	}
+
+	private void handleStats(HttpExchange exchange) throws IOException {
+
+		long hitCount = positionCache.getHitCount();
+		long lookupCount = hitCount + positionCache.getMissCount();
+
+		respond(exchange, HTTP_OK, "{\"requests\":" + stats.getRequestCount() + 
+			",\"recentRequestsPerSecond\":" + Math.round(stats.getRecentThroughput()) + 
+			",\"overallRequestsPerSecond\":" + Math.round(stats.getOverallThroughput()) + 
+			",\"p50Micros\":" + stats.getLatencyPercentile(50)/1000 + 
+			",\"p99Micros\":" + stats.getLatencyPercentile(99)/1000 + 
+			",\"cachedPositions\":" + positionCache.getSize() + 
+			",\"cacheCapacity\":" + positionCache.getCapacity() + 
+			",\"cacheHitRate\":" + (lookupCount == 0 ? 0 : 
+				Math.round(100.0*hitCount/lookupCount)/100.0) + "}");
+	}
+
+	/* Searches the board within the time budget and returns the answer to cache: the best cell as 
+	 * it appears on the canonical board, with the outcome in the bits above it. 
+	 */
+	private int search(Board board, int[] symmetryCells) {
+
+		SearchContext context = new SearchContext(OUTCOME_TABLE_CAPACITY);
+		CompletableFuture.delayedExecutor(SEARCH_TIME_BUDGET_MILLIS, TimeUnit.MILLISECONDS)
+			.execute(() -> context.cancel());
+
+		AdvancedAIPlayer.Outcome outcome = searcher.analyze(board, context, false);
+		context.cancel(); //the timer has nothing left to stop
+
+		int outcomeIndex = UNKNOWN_OUTCOME;
+		if (outcome == AdvancedAIPlayer.Outcome.WIN) {
+			outcomeIndex = 0;
+		} else if (outcome == AdvancedAIPlayer.Outcome.LOSE) {
+			outcomeIndex = 1;
+		} else if (outcome == AdvancedAIPlayer.Outcome.DRAW) {
+			outcomeIndex = 2;
+		}
+
+		//fall back to the first empty cell if the search was stopped before finding any move
+		int bestCell = context.getBestCellSoFar();
+		if (bestCell == Board.NO_CELL) {
+			int[] emptyCells = new int[board.getCellCount()];
+			board.findEmptyCells(emptyCells);
+			bestCell = emptyCells[0];
+		}
+
+		return symmetryCells[bestCell] | (outcomeIndex << OUTCOME_SHIFT);
+	}
+
+	/* Returns the key of the canonical form of the position, made up of the lowest encoding of 
+	 * the board under any symmetry, the grid size, and the win length. The number of the symmetry 
+	 * that gives the lowest encoding is stored in the first element of the symmetry array. 
+	 */
+	private long getCanonicalKey(Board board, int[] symmetry) {
+
+		int size = board.getSize();
+		int[][] symmetries = Tablebase.createSymmetries(size);
+		long lowestEncoding = Long.MAX_VALUE;
+
+		for (int i = 0; i < SYMMETRY_COUNT; i++) {
+			long encoding = 0;
+			for (int cell = 0; cell < size*size; cell++) {
+				long digit = Tablebase.getDigit(board.getPlayer(board.getRow(cell), 
+					board.getColumn(cell)));
+				encoding |= digit << (2*symmetries[i][cell]);
+			}
+
+			if (Long.compareUnsigned(encoding, lowestEncoding) < 0) {
+				lowestEncoding = encoding;
+				symmetry[0] = i;
+			}
+		}
+
+		return (((lowestEncoding << SIZE_SHIFT) | size) << WIN_LENGTH_BITS) | board.getWinLength();
+	}
+
+	/* Returns the value of the named parameter in the query of the URI, or null if not given */
+	private String getParameter(URI uri, String name) {
+
+		String query = uri.getQuery();
+		if (query == null) {
+			return null;
+		}
+
+		for (String parameter : query.split("&")) {
+			if (parameter.startsWith(name + "=")) {
+				return parameter.substring(name.length() + 1);
+			}
+		}
+
+		return null;
+	}
+
+	private void respond(HttpExchange exchange, int status, String body) throws IOException {
+
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		OutputStream outputStream = exchange.getResponseBody();
+		outputStream.write(bytes);
+		outputStream.close();
+	}
+}
\ No newline at end of file
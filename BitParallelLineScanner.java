@@ -0,0 +1,82 @@
+/*
+ * Class that scans a board for lines and candidate moves a whole row at a time. A packed row holds
+ * one bit per column, so shifting and combining rows tests the window starting at every column of
+ * a row in a handful of bitwise operations instead of a loop over the cells: the window of the
+ * cells (row + i*rowStep, column + i*columnStep) is lined up on bit "column" by shifting row
+ * + i*rowStep right by i*columnStep.
+ */
+
+public class BitParallelLineScanner extends LineScanner {
+
+	private static final int MAX_SIZE = Long.SIZE/2; //room to shift a row a full width
+
+	private final ScalarLineScanner scalarScanner = new ScalarLineScanner();
+
+	public boolean hasLine(long[] rows, int size, int winLength) {
+
+		if (size > MAX_SIZE) {
+			return scalarScanner.hasLine(rows, size, winLength);
+		}
+
+		for (int[] direction : DIRECTIONS) {
+			int lastStartRow = size - 1 - (winLength-1)*direction[0];
+
+			for (int row = 0; row <= lastStartRow; row++) {
+				long windows = rows[row];
+				for (int i = 1; i < winLength && windows != 0; i++) {
+					windows &= shift(rows[row + i*direction[0]], i*direction[1]);
+				}
+				if (windows != 0) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	public int findNeighbouringCells(long[] occupiedRows, int size, int distance, int[] cells) {
+
+		if (size > MAX_SIZE) {
+			return scalarScanner.findNeighbouringCells(occupiedRows, size, distance, cells);
+		}
+
+		long fullRow = (1L << size) - 1;
+		int cellsFound = 0;
+
+		for (int row = 0; row < size; row++) {
+
+			//columns with a symbol in any nearby row, then spread sideways
+			long nearby = 0;
+			for (int r = Math.max(0, row - distance); r <= Math.min(size-1, row + distance); r++) {
+				nearby |= occupiedRows[r];
+			}
+			long spread = nearby;
+			for (int i = 1; i <= distance; i++) {
+				spread |= (nearby << i) | (nearby >>> i);
+			}
+
+			for (long remaining = spread & fullRow & ~occupiedRows[row]; remaining != 0;
+				remaining &= remaining - 1) {
+				cells[cellsFound] = row*size + Long.numberOfTrailingZeros(remaining);
+				cellsFound++;
+			}
+		}
+
+		return cellsFound;
+	}
+
+	public String getName() {
+
+		return BIT_PARALLEL_SCANNER;
+	}
+
+	/* Returns the row moved so that the cell columnShift columns along is on each column's bit */
+	private long shift(long row, int columnShift) {
+
+		if (columnShift >= 0) {
+			return row >>> columnShift;
+		}
+		return row << -columnShift;
+	}
+}
\ No newline at end of file
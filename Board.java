@@ -0,0 +1,455 @@
+/*
+ * Class that stores a square game board of any size up to 19x19, where a player wins by placing a
+ * configurable number of symbols in a row (horizontally, vertically or diagonally). Each player's
+ * symbols are packed into one bit per cell, one long per row, and a win is detected incrementally
+ * as each move is played by only examining the lines through the cell just played.
+ *
+ * Player O always moves first, so the player to move is worked out from the number of symbols
+ * each player has on the board.
+ *
+ * A Zobrist hash of the position is kept up to date as moves are played and undone, so it can be
+ * used as a cache key without examining the cells. The random keys come from a fixed seed, so a
+ * position has the same hash in every run of the program.
+ *
+ * Boards of up to BoardEncoding.MAX_CELL_COUNT cells also keep their cells packed into a long in 
+ * the form produced by BoardEncoding, so a snapshot of the position can be taken without copying 
+ * or examining the cells.
+ */
+
+import java.util.SplittableRandom;
+
+public class Board {
+
+	public static final int MIN_SIZE = 3;
+	public static final int MAX_SIZE = 19;
+	public static final int PLAYER_O = 0;
+	public static final int PLAYER_X = 1;
+	public static final int NO_PLAYER = -1;
+	public static final int NO_CELL = -1;
+	public static final char PLAYER_O_SYMBOL = 'O';
+	public static final char PLAYER_X_SYMBOL = 'X';
+	public static final char EMPTY_SYMBOL = ' ';
+
+	private static final int PLAYER_COUNT = 2;
+	private static final int SNAPSHOT_BITS_PER_CELL = 2;
+	private static final long SNAPSHOT_CELL_MASK = 3L;
+	private static final long ZOBRIST_SEED = 0x5DEECE66DL;
+	private static final long[][] CELL_KEYS = new long[PLAYER_COUNT][MAX_SIZE*MAX_SIZE];
+	private static final long[] SIZE_KEYS = new long[MAX_SIZE + 1];
+	private static final long[] WIN_LENGTH_KEYS = new long[MAX_SIZE + 1];
+
+	static {
+		SplittableRandom random = new SplittableRandom(ZOBRIST_SEED);
+
+		for (int player = 0; player < PLAYER_COUNT; player++) {
+			for (int cell = 0; cell < MAX_SIZE*MAX_SIZE; cell++) {
+				CELL_KEYS[player][cell] = random.nextLong();
+			}
+		}
+
+		for (int i = 0; i <= MAX_SIZE; i++) {
+			SIZE_KEYS[i] = random.nextLong();
+			WIN_LENGTH_KEYS[i] = random.nextLong();
+		}
+	}
+
+	private int size;
+	private int winLength; //number of symbols in a row needed to win
+	private long[][] rowBits; //indexed by player then row, bit n of a row is column n
+	private int[] symbolCounts = new int[PLAYER_COUNT];
+	private int winner;
+	private long hash; //Zobrist hash of the position
+	private boolean packed; //whether the board is small enough to keep a snapshot
+	private long snapshot; //cells packed as by BoardEncoding, if the board is packed
+
+	/* Constructors */
+	public Board(int size, int winLength) {
+
+		this.size = size;
+		this.winLength = winLength;
+		this.rowBits = new long[PLAYER_COUNT][size];
+		this.winner = NO_PLAYER;
+		this.packed = size*size <= BoardEncoding.MAX_CELL_COUNT;
+
+		//boards of different shapes never share a hash, even when empty
+		this.hash = SIZE_KEYS[size] ^ WIN_LENGTH_KEYS[winLength];
+	}
+
+	public Board(Board other) {
+
+		this.size = other.size;
+		this.winLength = other.winLength;
+		this.rowBits = new long[PLAYER_COUNT][];
+		this.rowBits[PLAYER_O] = other.rowBits[PLAYER_O].clone();
+		this.rowBits[PLAYER_X] = other.rowBits[PLAYER_X].clone();
+		this.symbolCounts = other.symbolCounts.clone();
+		this.winner = other.winner;
+		this.hash = other.hash;
+		this.packed = other.packed;
+		this.snapshot = other.snapshot;
+	}
+
+	/* Creates a board holding the symbols of the input game grid, and returns the board */
+	public static Board fromGrid(char[][] gameBoard, int winLength) {
+
+		Board board = new Board(gameBoard.length, winLength);
+
+		for (int row = 0; row < board.size; row++) {
+			for (int column = 0; column < board.size; column++) {
+
+				if (gameBoard[row][column] == PLAYER_O_SYMBOL) {
+					board.addSymbol(row, column, PLAYER_O);
+				} else if (gameBoard[row][column] == PLAYER_X_SYMBOL) {
+					board.addSymbol(row, column, PLAYER_X);
+				}
+			}
+		}
+
+		//one scan of the whole board rather than checking the lines through every symbol
+		LineScanner scanner = LineScanner.getInstance();
+		if (scanner.hasLine(board.rowBits[PLAYER_O], board.size, winLength)) {
+			board.winner = PLAYER_O;
+		} else if (scanner.hasLine(board.rowBits[PLAYER_X], board.size, winLength)) {
+			board.winner = PLAYER_X;
+		}
+
+		return board;
+	}
+
+	/* Returns the grid described by a line of text holding the cells row by row, with 'X', 'O', and
+	 * '.' or '-' for an empty cell (in either case). Returns null if the text is not square or holds 
+	 * any other symbol. 
+	 */
+	public static char[][] parseGrid(String boardText) {
+
+		int size = (int) Math.round(Math.sqrt(boardText.length()));
+		if (size*size != boardText.length()) {
+			return null;
+		}
+
+		char[][] gameBoard = new char[size][size];
+		for (int i = 0; i < boardText.length(); i++) {
+			char symbol = Character.toUpperCase(boardText.charAt(i));
+			if (symbol == '.' || symbol == '-') {
+				symbol = EMPTY_SYMBOL;
+			} else if (symbol != PLAYER_O_SYMBOL && symbol != PLAYER_X_SYMBOL) {
+				return null;
+			}
+			gameBoard[i/size][i%size] = symbol;
+		}
+
+		return gameBoard;
+	}
+
+	/* Creates a board holding the position of a snapshot taken by getSnapshot, and returns the 
+	 * board 
+	 */
+	public static Board fromSnapshot(long snapshot, int size, int winLength) {
+
+		return fromGrid(BoardEncoding.decode(snapshot, size), winLength);
+	}
+
+	/* Accessors */
+	public int getSize() {
+
+		return this.size;
+	}
+
+	public int getWinLength() {
+
+		return this.winLength;
+	}
+
+	public int getCellCount() {
+
+		return this.size*this.size;
+	}
+
+	public int getMoveCount() {
+
+		return this.symbolCounts[PLAYER_O] + this.symbolCounts[PLAYER_X];
+	}
+
+	/* Returns the Zobrist hash of the position, which identifies it (with a negligible chance of 
+	 * collisions) among positions on boards of any size. 
+	 */
+	public long getHash() {
+
+		return this.hash;
+	}
+
+	/* Returns the cells of the position packed into a long in the form produced by BoardEncoding,
+	 * which is immutable and can be kept as a record of the position. Only boards of up to 
+	 * BoardEncoding.MAX_CELL_COUNT cells have snapshots; larger boards always return 0. 
+	 */
+	public long getSnapshot() {
+
+		return this.snapshot;
+	}
+
+	/* Returns the player who has won, or NO_PLAYER if neither player has */
+	public int getWinner() {
+
+		return this.winner;
+	}
+
+	public boolean hasWinner() {
+
+		return this.winner != NO_PLAYER;
+	}
+
+	public boolean isFull() {
+
+		return getMoveCount() == getCellCount();
+	}
+
+	/* Returns true if the board could have been reached by the players taking turns, with player O
+	 * moving first 
+	 */
+	public boolean hasValidMoveCounts() {
+
+		return symbolCounts[PLAYER_O] == symbolCounts[PLAYER_X] || 
+			symbolCounts[PLAYER_O] == symbolCounts[PLAYER_X] + 1;
+	}
+
+	public int getPlayerToMove() {
+
+		if (symbolCounts[PLAYER_O] > symbolCounts[PLAYER_X]) {
+			return PLAYER_X;
+		}
+		return PLAYER_O;
+	}
+
+	/* Returns the number of the cell in row-major order, which identifies a move as a single int */
+	public int getCell(int row, int column) {
+
+		return row*size + column;
+	}
+
+	public int getRow(int cell) {
+
+		return cell/size;
+	}
+
+	public int getColumn(int cell) {
+
+		return cell%size;
+	}
+
+	/* Returns a new Move for the cell, or null if the cell is NO_CELL */
+	public Move toMove(int cell) {
+
+		if (cell == NO_CELL) {
+			return null;
+		}
+		return new Move(getRow(cell), getColumn(cell));
+	}
+
+	/* Stores the empty cells in row-major order in the cells array, which must have room for every
+	 * cell, and returns how many there are.
+	 */
+	public int findEmptyCells(int[] cells) {
+
+		long fullRow = (1L << size) - 1;
+		int cellCount = 0;
+
+		for (int row = 0; row < size; row++) {
+			long emptyColumns = ~(rowBits[PLAYER_O][row] | rowBits[PLAYER_X][row]) & fullRow;
+			for (; emptyColumns != 0; emptyColumns &= emptyColumns - 1) {
+				cells[cellCount] = row*size + Long.numberOfTrailingZeros(emptyColumns);
+				cellCount++;
+			}
+		}
+
+		return cellCount;
+	}
+
+	public boolean isInside(int row, int column) {
+
+		return row >= 0 && row < size && column >= 0 && column < size;
+	}
+
+	public boolean isEmpty(int row, int column) {
+
+		long bit = 1L << column;
+		return ((rowBits[PLAYER_O][row] | rowBits[PLAYER_X][row]) & bit) == 0;
+	}
+
+	/* Returns the player whose symbol is in the cell, or NO_PLAYER if the cell is empty */
+	public int getPlayer(int row, int column) {
+
+		long bit = 1L << column;
+		if ((rowBits[PLAYER_O][row] & bit) != 0) {
+			return PLAYER_O;
+		} else if ((rowBits[PLAYER_X][row] & bit) != 0) {
+			return PLAYER_X;
+		}
+		return NO_PLAYER;
+	}
+
+	public char getSymbol(int row, int column) {
+
+		return getSymbol(getPlayer(row, column));
+	}
+
+	/* Returns the symbol used by the input player */
+	public static char getSymbol(int player) {
+
+		if (player == PLAYER_O) {
+			return PLAYER_O_SYMBOL;
+		} else if (player == PLAYER_X) {
+			return PLAYER_X_SYMBOL;
+		}
+		return EMPTY_SYMBOL;
+	}
+
+	/* Places the symbol of the player to move in the (empty) cell, and records a win if the move
+	 * completes a line. Returns true if the move wins the game.
+	 */
+	public boolean play(int row, int column) {
+
+		return place(row, column, getPlayerToMove());
+	}
+
+	/* Plays a move given as a cell number. Returns true if the move wins the game. */
+	public boolean play(int cell) {
+
+		return play(getRow(cell), getColumn(cell));
+	}
+
+	/* Removes the symbol from the cell, undoing the last move played there. As no moves are played
+	 * once a game is won, undoing any move clears the winner.
+	 */
+	public void undo(int row, int column) {
+
+		int player = getPlayer(row, column);
+
+		rowBits[player][row] &= ~(1L << column);
+		symbolCounts[player]--;
+		hash ^= CELL_KEYS[player][row*MAX_SIZE + column];
+		if (packed) {
+			snapshot &= ~(SNAPSHOT_CELL_MASK << (SNAPSHOT_BITS_PER_CELL*(row*size + column)));
+		}
+		winner = NO_PLAYER;
+	}
+
+	/* Undoes a move given as a cell number */
+	public void undo(int cell) {
+
+		undo(getRow(cell), getColumn(cell));
+	}
+
+	/* Returns a new game grid holding the symbols on the board */
+	public char[][] toGrid() {
+
+		char[][] gameBoard = new char[size][size];
+
+		for (int row = 0; row < size; row++) {
+			for (int column = 0; column < size; column++) {
+
+				gameBoard[row][column] = getSymbol(row, column);
+			}
+		}
+
+		return gameBoard;
+	}
+
+	/* Prints the board, formatted as a TicTacToe board */
+	public void print() {
+
+		for (int row = 0; row < size; row++) {
+			for (int column = 0; column < size; column++) {
+
+				System.out.print(getSymbol(row, column));
+
+				if (column < size-1) {
+					System.out.print("|");
+				}
+			}
+
+			System.out.println();
+
+			if (row < size-1) {
+				for (int i = 0; i < 2*size-1; i++) {
+					System.out.print("-");
+				}
+				System.out.println();
+			}
+		}
+	}
+
+	private boolean place(int row, int column, int player) {
+
+		addSymbol(row, column, player);
+
+		if (isWinThrough(row, column, player)) {
+			winner = player;
+			return true;
+		}
+		return false;
+	}
+
+	private void addSymbol(int row, int column, int player) {
+
+		rowBits[player][row] |= 1L << column;
+		symbolCounts[player]++;
+		hash ^= CELL_KEYS[player][row*MAX_SIZE + column];
+		if (packed) {
+			//BoardEncoding codes are 1 for O and 2 for X
+			snapshot |= (player + 1L) << (SNAPSHOT_BITS_PER_CELL*(row*size + column));
+		}
+	}
+
+	/* Checks the four lines through the cell and returns true if any of them holds winLength or
+	 * more of the player's symbols in a row, false otherwise.
+	 */
+	private boolean isWinThrough(int row, int column, int player) {
+
+		return getHorizontalRunLength(row, column, player) >= winLength ||
+			getRunLength(row, column, player, 1, 0) >= winLength ||
+			getRunLength(row, column, player, 1, 1) >= winLength ||
+			getRunLength(row, column, player, 1, -1) >= winLength;
+	}
+
+	/* Returns the length of the horizontal run of the player's symbols through the cell, found
+	 * directly from the packed row.
+	 */
+	private int getHorizontalRunLength(int row, int column, int player) {
+
+		long bits = rowBits[player][row];
+
+		//count the set bits running up from the column and down from the column
+		int runRight = Long.numberOfTrailingZeros(~(bits >>> (column + 1)));
+		int runLeft = 0;
+		if (column > 0) {
+			runLeft = Long.numberOfLeadingZeros(~(bits << (Long.SIZE - column)));
+		}
+
+		return runLeft + 1 + runRight;
+	}
+
+	/* Returns the length of the run of the player's symbols through the cell, in the direction
+	 * given by the row and column steps (and the opposite direction).
+	 */
+	private int getRunLength(int row, int column, int player, int rowStep, int columnStep) {
+
+		int runLength = 1;
+
+		for (int i = 1; i < winLength && hasPlayer(row + i*rowStep, column + i*columnStep, player);
+			i++) {
+			runLength++;
+		}
+
+		for (int i = 1; i < winLength && hasPlayer(row - i*rowStep, column - i*columnStep, player);
+			i++) {
+			runLength++;
+		}
+
+		return runLength;
+	}
+
+	private boolean hasPlayer(int row, int column, int player) {
+
+		return isInside(row, column) && (rowBits[player][row] & (1L << column)) != 0;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+/*
+ * Class that converts between a game grid of chars and a compact encoded form. Each cell is
+ * packed into two bits of a long in row-major order (0 for empty, 1 for O, 2 for X), so any board
+ * of up to 32 cells fits in a single long.
+ */
+
+public class BoardEncoding {
+
+	public static final int MAX_CELL_COUNT = Long.SIZE/2;
+
+	private static final int BITS_PER_CELL = 2;
+	private static final long CELL_MASK = 3L;
+	private static final long EMPTY_CODE = 0L;
+	private static final long PLAYER_O_CODE = 1L;
+	private static final long PLAYER_X_CODE = 2L;
+	private static final char PLAYER_O_SYMBOL = 'O';
+	private static final char PLAYER_X_SYMBOL = 'X';
+	private static final char EMPTY_SYMBOL = ' ';
+
+	/* Constructor */
+	private BoardEncoding() {}
+
+	/* Encodes the input game board and returns the encoded form */
+	public static long encode(char[][] gameBoard) {
+
+		long encodedBoard = 0L;
+		int cell = 0;
+
+		for (int row = 0; row < gameBoard.length; row++) {
+			for (int column = 0; column < gameBoard[row].length; column++) {
+
+				encodedBoard |= encodeSymbol(gameBoard[row][column]) << (cell*BITS_PER_CELL);
+				cell++;
+			}
+		}
+
+		return encodedBoard;
+	}
+
+	/* Encodes the input board, which must have no more than MAX_CELL_COUNT cells, and returns 
+	 * the encoded form 
+	 */
+	public static long encode(Board board) {
+
+		long encodedBoard = 0L;
+		int cell = 0;
+
+		for (int row = 0; row < board.getSize(); row++) {
+			for (int column = 0; column < board.getSize(); column++) {
+
+				encodedBoard |= encodeSymbol(board.getSymbol(row, column)) << 
+					(cell*BITS_PER_CELL);
+				cell++;
+			}
+		}
+
+		return encodedBoard;
+	}
+
+	/* Decodes the input encoded board into a new game grid with the given number of rows and
+	 * columns, and returns the grid.
+	 */
+	public static char[][] decode(long encodedBoard, int gridSize) {
+
+		char[][] gameBoard = new char[gridSize][gridSize];
+		int cell = 0;
+
+		for (int row = 0; row < gridSize; row++) {
+			for (int column = 0; column < gridSize; column++) {
+
+				gameBoard[row][column] = decodeSymbol(
+					(encodedBoard >>> (cell*BITS_PER_CELL)) & CELL_MASK);
+				cell++;
+			}
+		}
+
+		return gameBoard;
+	}
+
+	private static long encodeSymbol(char symbol) {
+
+		if (symbol == PLAYER_O_SYMBOL) {
+			return PLAYER_O_CODE;
+		} else if (symbol == PLAYER_X_SYMBOL) {
+			return PLAYER_X_CODE;
+		} else {
+			return EMPTY_CODE;
+		}
+	}
+
+	private static char decodeSymbol(long code) {
+
+		if (code == PLAYER_O_CODE) {
+			return PLAYER_O_SYMBOL;
+		} else if (code == PLAYER_X_CODE) {
+			return PLAYER_X_SYMBOL;
+		} else {
+			return EMPTY_SYMBOL;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+/*
+ * Class that gathers GameStatistics over a range of records in the game history using fork/join
+ * parallelism. Ranges larger than a threshold are split in half and analysed in parallel, and the
+ * statistics of the two halves are merged.
+ */
+
+import java.util.concurrent.RecursiveTask;
+
+//never serialized, as it only runs in this process (and its GameHistory isn't serializable)
+@SuppressWarnings("serial")
+public class GameAnalysisTask extends RecursiveTask<GameStatistics> {
+
+	private static final long SPLIT_THRESHOLD = 1L << 20; //records analysed by a single task
+
+	private GameHistory gameHistory;
+	private long firstRecord;
+	private long endRecord; //one past the last record in the range
+	private long totalRecordCount; //size of the whole history, used to work out periods
+
+	/* Constructor */
+	public GameAnalysisTask(GameHistory gameHistory, long firstRecord, long endRecord,
+		long totalRecordCount) {
+
+		this.gameHistory = gameHistory;
+		this.firstRecord = firstRecord;
+		this.endRecord = endRecord;
+		this.totalRecordCount = totalRecordCount;
+	}
+
+	/* Analyses the range of records, splitting it if it is too large for a single task */
+	protected GameStatistics compute() {
+
+		if (endRecord - firstRecord > SPLIT_THRESHOLD) {
+			long middleRecord = firstRecord + (endRecord - firstRecord)/2;
+
+			GameAnalysisTask firstHalf = new GameAnalysisTask(gameHistory, firstRecord,
+				middleRecord, totalRecordCount);
+			GameAnalysisTask secondHalf = new GameAnalysisTask(gameHistory, middleRecord,
+				endRecord, totalRecordCount);
+
+			firstHalf.fork();
+			GameStatistics statistics = secondHalf.compute();
+			statistics.merge(firstHalf.join());
+			return statistics;
+		}
+
+		GameStatistics statistics = new GameStatistics();
+		for (long recordNumber = firstRecord; recordNumber < endRecord; recordNumber++) {
+
+			int period = (int) (recordNumber*GameStatistics.TREND_PERIOD_COUNT/totalRecordCount);
+			statistics.add(gameHistory.getRecord(recordNumber), period);
+		}
+
+		return statistics;
+	}
+}
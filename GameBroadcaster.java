@@ -0,0 +1,106 @@
+/*
+ * Class that sends the moves of a live game to any number of spectators. Each move (or takeback 
+ * of a move) is packed into a GameUpdate, added to the game's log of updates, and offered to every 
+ * spectator's small bounded queue. Offering never blocks or allocates: if a spectator's queue is 
+ * full, the update is dropped for that spectator, which is marked as lagging and later catches up 
+ * on everything it missed from the log in one go. So slow spectators cost the players no more 
+ * than fast ones, and the memory used by each spectator is fixed however far behind it falls.
+ *
+ * The log starts with room for a move in every cell, and only grows if moves are taken back.
+ *
+ * Only the thread playing the game publishes updates. Spectators can subscribe, read, and 
+ * unsubscribe on any threads.
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class GameBroadcaster {
+
+	private final int gridSize;
+	private final int winLength;
+	private volatile int[] updates; //log of every update published, indexed by update number
+	private volatile int updateCount;
+	private final CopyOnWriteArrayList<Spectator> spectators = 
+		new CopyOnWriteArrayList<Spectator>();
+
+	/* Constructor */
+	public GameBroadcaster(int gridSize, int winLength) {
+
+		this.gridSize = gridSize;
+		this.winLength = winLength;
+		this.updates = new int[gridSize*gridSize];
+		this.updateCount = 0;
+	}
+
+	/* Accessors */
+	public int getGridSize() {
+
+		return this.gridSize;
+	}
+
+	public int getWinLength() {
+
+		return this.winLength;
+	}
+
+	public int getUpdateCount() {
+
+		return this.updateCount;
+	}
+
+	public int getSpectatorCount() {
+
+		return this.spectators.size();
+	}
+
+	/* Returns the update with the input number, which must be less than the update count */
+	public int getUpdate(int updateNumber) {
+
+		return this.updates[updateNumber];
+	}
+
+	/* Returns a new spectator of the game, which will first receive all the moves made so far */
+	public Spectator subscribe() {
+
+		Spectator spectator = new Spectator(this);
+		spectators.add(spectator);
+		return spectator;
+	}
+
+	public void unsubscribe(Spectator spectator) {
+
+		spectators.remove(spectator);
+	}
+
+	/* Sends a move to all the spectators. The state is the GameUpdate state after the move. */
+	public void publish(int cell, int player, int state) {
+
+		send(GameUpdate.encode(updateCount, cell, player, state));
+	}
+
+	/* Sends the taking back of a move to all the spectators */
+	public void publishTakeback(int cell, int player) {
+
+		send(GameUpdate.encodeTakeback(updateCount, cell, player));
+	}
+
+	private void send(int update) {
+
+		int updateNumber = GameUpdate.getUpdateNumber(update);
+
+		//log first, so a spectator that misses the update can always find it. A full log is 
+		//copied into a larger one before it is published, so readers always see every update.
+		int[] log = updates;
+		if (updateNumber == log.length) {
+			log = Arrays.copyOf(log, 2*log.length);
+		}
+		log[updateNumber] = update;
+		updates = log;
+		updateCount = updateNumber + 1;
+
+		for (Spectator spectator : spectators) {
+			spectator.offer(update);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,139 @@
+/*
+ * Class that keeps an append-only history of every game played, stored as GameRecords in a
+ * memory-mapped file. Element 0 of the record file holds the number of records, and record n is
+ * stored at element n+1.
+ *
+ * A second memory-mapped file indexes the records by player. It starts with a table holding, for
+ * each player id, the latest index entry for that player plus one (0 if the player has no games).
+ * Entry 2n belongs to the first player of record n and entry 2n+1 to the second player, and each
+ * entry holds the player's previous entry plus one, so a player's games can be followed from
+ * newest to oldest without scanning the whole history.
+ *
+ * Several processes may share the files (e.g. a training run alongside the game system), so the 
+ * number of records is always read from the record file rather than kept in memory, and appends 
+ * hold a lock on the record file, continuing from whatever count is there.
+ */
+
+import java.io.IOException;
+import java.nio.channels.FileLock;
+import java.util.concurrent.ForkJoinPool;
+
+public class GameHistory {
+
+	private static final String RECORD_FILE_NAME = "games.dat";
+	private static final String INDEX_FILE_NAME = "games.idx";
+	private static final int RECORD_COUNT_ELEMENT = 0;
+	private static final int FIRST_RECORD_ELEMENT = 1;
+	private static final int FIRST_ENTRY_ELEMENT = GameRecord.MAX_PLAYER_ID + 1;
+	private static final long NO_ENTRY = -1;
+
+	private MappedLongArray records;
+	private MappedLongArray index;
+
+	/* Constructor */
+	public GameHistory() {
+
+		try {
+			records = new MappedLongArray(RECORD_FILE_NAME);
+			index = new MappedLongArray(INDEX_FILE_NAME);
+		}
+		catch (IOException e) {
+			System.out.println("Problems with game history file.");
+			System.exit(0);
+		}
+	}
+
+	/* Accessors */
+	public synchronized long getRecordCount() {
+
+		return records.get(RECORD_COUNT_ELEMENT);
+	}
+
+	public long getRecord(long recordNumber) {
+
+		return records.get(FIRST_RECORD_ELEMENT + recordNumber);
+	}
+
+	/* Appends a game record to the history and indexes it under both of its players */
+	public synchronized void append(long record) {
+
+		FileLock lock;
+		try {
+			lock = records.lock();
+		}
+		catch (IOException e) {
+			System.out.println("Problem writing to game history file.");
+			return;
+		}
+
+		try {
+			//another process may have appended since this one last did
+			long recordCount = records.get(RECORD_COUNT_ELEMENT);
+
+			records.set(FIRST_RECORD_ELEMENT + recordCount, record);
+			addEntry(2*recordCount, GameRecord.getPlayer1Id(record));
+			addEntry(2*recordCount + 1, GameRecord.getPlayer2Id(record));
+
+			//publish the record only once it is fully indexed
+			records.set(RECORD_COUNT_ELEMENT, recordCount + 1);
+		}
+		finally {
+			try {
+				lock.release();
+			}
+			catch (IOException e) {
+				//released when the file is closed
+			}
+		}
+	}
+
+	/* Returns up to maxGames of the input player's game records, newest first */
+	public synchronized long[] getPlayerRecords(int playerId, int maxGames) {
+
+		long[] playerRecords = new long[maxGames];
+		int gameCount = 0;
+		long recordCount = getRecordCount();
+		long entry = index.get(playerId) - 1;
+
+		while (entry != NO_ENTRY && gameCount < maxGames) {
+			//skip entries of a record that was never published (e.g. after a crash)
+			if (entry/2 < recordCount) {
+				playerRecords[gameCount] = getRecord(entry/2);
+				gameCount++;
+			}
+			entry = index.get(FIRST_ENTRY_ELEMENT + entry) - 1;
+		}
+
+		long[] result = new long[gameCount];
+		System.arraycopy(playerRecords, 0, result, 0, gameCount);
+		return result;
+	}
+
+	/* Gathers statistics over every record in the history, in parallel */ 
+	public GameStatistics analyze() {
+
+		long totalRecordCount = getRecordCount(); 
+
+		return ForkJoinPool.commonPool().invoke(
+			new GameAnalysisTask(this, 0, totalRecordCount, totalRecordCount));
+	}
+
+	/* Writes the history through to disk and closes it */
+	public synchronized void close() {
+
+		try {
+			records.close();
+			index.close();
+		}
+		catch (IOException e) {
+			System.out.println("Problem writing to file.");
+		}
+	}
+
+	/* Links a new index entry in front of the input player's previous latest entry */
+	private void addEntry(long entry, int playerId) {
+
+		index.set(FIRST_ENTRY_ELEMENT + entry, index.get(playerId));
+		index.set(playerId, entry + 1);
+	}
+}
\ No newline at end of file
@@ -1,75 +1,394 @@
 /*
- * Class that manages a single game of Tic Tac Toe between two players. Stores the game grid as 
- * an array of chars, where each char element is an empty space, or a symbol. Updates stats of 
- * each player upon completion of a game. 
+ * Class that manages a single game of Tic Tac Toe between two players. Stores the game board as 
+ * a Board of any size, where a player wins by getting a given number of symbols in a row. Updates 
+ * stats of each player upon completion of a game. 
+ *
+ * A quiet game manager prints nothing and doesn't let players ponder, so that many games can be 
+ * played at once, as in a Tournament. 
+ *
+ * Results of games played with playGame are added to the head to head records of the two players, 
+ * if the game manager has a HeadToHeadIndex. 
+ *
+ * Each move, and each takeback of a move, is sent to the spectators of the game through the 
+ * game's GameBroadcaster. 
+ *
+ * The moves of the game are kept in a MoveHistory, so a human player can take back their last 
+ * turn (their move and the reply to it) by entering "undo" instead of a move, and replay it by 
+ * entering "redo". Entering "hint" shows whether each move available wins, draws or loses. 
  */
 
-import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 
 public class GameManager {
 
-	private static final int GRID_SIZE = 3; 
-	private static final int MAX_MOVE_COUNT = GRID_SIZE*GRID_SIZE;
-	private static final char PLAYER_1_SYMBOL = 'O';
-	private static final char PLAYER_2_SYMBOL = 'X';
-	private static final char EMPTY_SYMBOL = ' ';
+	public static final int DEFAULT_GRID_SIZE = 3; 
+	public static final int DEFAULT_WIN_LENGTH = 3; 
+
+	private static final long MOVE_TIME_BUDGET_MILLIS = 2000; 
 
 	private enum GameState {
 		PLAYER_O_WON, PLAYER_X_WON, DRAW, GAME_CONTINUES
 	}
 
-	private char[][] grid = new char[GRID_SIZE][GRID_SIZE];
+	private Board board = new Board(DEFAULT_GRID_SIZE, DEFAULT_WIN_LENGTH);
+	private GameHistory gameHistory; //where completed games are recorded, if anywhere
+	private HeadToHeadIndex headToHead; //where results between pairs are kept, if anywhere
+	private boolean quiet; //whether to play without printing or pondering
+	private volatile GameBroadcaster broadcaster = 
+		new GameBroadcaster(DEFAULT_GRID_SIZE, DEFAULT_WIN_LENGTH); 
+	private MoveHistory moveHistory = new MoveHistory(DEFAULT_GRID_SIZE*DEFAULT_GRID_SIZE); 
 
-	/* Constructor */ 
+	/* Constructors */ 
 	public GameManager() {}
 
-	/* Accessor */ 
+	public GameManager(GameHistory gameHistory) {
+
+		this.gameHistory = gameHistory; 
+	}
+
+	public GameManager(GameHistory gameHistory, HeadToHeadIndex headToHead) {
+
+		this.gameHistory = gameHistory; 
+		this.headToHead = headToHead; 
+	}
+
+	public GameManager(GameHistory gameHistory, boolean quiet) {
+
+		this.gameHistory = gameHistory; 
+		this.quiet = quiet; 
+	}
+
+	public GameManager(GameHistory gameHistory, HeadToHeadIndex headToHead, boolean quiet) {
+
+		this.gameHistory = gameHistory; 
+		this.headToHead = headToHead; 
+		this.quiet = quiet; 
+	}
+
+	/* Accessors */ 
 	public char[][] getGrid() {
 
-		return Arrays.copyOf(this.grid, this.grid.length);
+		return board.toGrid();
 	}
 
-	/* Runs a single TicTacToe game betwen the two input players. Determines winner (or draw), 
-	 * and updates stats of each player. 
+	/* Returns the broadcaster of the game being played, or the last game if none is being played. 
+	 * Spectators subscribe to it to watch the game. 
+	 */ 
+	public GameBroadcaster getBroadcaster() {
+
+		return this.broadcaster;
+	}
+
+	/* Returns the Zobrist hash of the current position, for use as a cache key */ 
+	public long getPositionHash() {
+
+		return board.getHash();
+	}
+
+	/* Returns a snapshot of the current position (see Board.getSnapshot) */ 
+	public long getSnapshot() {
+
+		return board.getSnapshot();
+	}
+
+	/* Returns the moves of the game being played, or the last game if none is being played */ 
+	public MoveHistory getMoveHistory() {
+
+		return this.moveHistory;
+	}
+
+	/* Mutators */ 
+
+	/* Takes back the last move, and sends the takeback to the spectators. Returns boolean true if 
+	 * there was a move to take back. 
+	 */ 
+	public boolean undoMove() {
+
+		int cell = moveHistory.undo(); 
+		if (cell == Board.NO_CELL) {
+			return false; 
+		}
+
+		int player = board.getPlayer(board.getRow(cell), board.getColumn(cell)); 
+		board.undo(cell); 
+		broadcaster.publishTakeback(cell, player); 
+		return true; 
+	}
+
+	/* Replays the last move taken back, and sends it to the spectators as a new move. Returns 
+	 * boolean true if there was a move to replay. 
+	 */ 
+	public boolean redoMove() {
+
+		int cell = moveHistory.redo(); 
+		if (cell == Board.NO_CELL) {
+			return false; 
+		}
+
+		board.play(cell); 
+		broadcaster.publish(cell, board.getPlayer(board.getRow(cell), board.getColumn(cell)), 
+			getUpdateState(getGameState())); 
+		return true; 
+	}
+
+	/* Runs a single TicTacToe game betwen the two input players on the default 3x3 grid. 
+	 * Determines winner (or draw), and updates stats of each player. 
 	 */
 	public void playGame(Player player1, Player player2) {
 
-		//start with clean grid
-		resetGrid(); 
-		printGrid(); 
+		playGame(player1, player2, DEFAULT_GRID_SIZE, DEFAULT_WIN_LENGTH); 
+	}
+
+	/* Runs a single TicTacToe game betwen the two input players on a grid of the input size, where
+	 * winLength symbols in a row are needed to win. Determines winner (or draw), and updates stats 
+	 * of each player. 
+	 */
+	public void playGame(Player player1, Player player2, int gridSize, int winLength) {
+
+		GameState gameState = runGame(player1, player2, gridSize, winLength); 
+		updatePlayerStats(player1, player2, gameState); 
+
+		if (headToHead != null) {
+			headToHead.addGame(player1.getPlayerId(), player2.getPlayerId(), 
+				getRecordResult(gameState)); 
+		}
+	}
+
+	/* Runs a single TicTacToe game betwen the two input players on a grid of the input size, where
+	 * winLength symbols in a row are needed to win, without updating the stats of either player. 
+	 * Returns the result as a GameRecord result. 
+	 */
+	public int playTournamentGame(Player player1, Player player2, int gridSize, int winLength) {
+
+		int result = getRecordResult(runGame(player1, player2, gridSize, winLength)); 
+
+		//the index is shared by the games played at the same time, and synchronizes itself
+		if (headToHead != null) {
+			headToHead.addGame(player1.getPlayerId(), player2.getPlayerId(), result); 
+		}
+
+		return result; 
+	}
+
+	/* Runs a single game of Qubic (three dimensional Tic Tac Toe on a 4x4x4 cube) between the two
+	 * input players. Determines winner (or draw), and updates stats of each player. 
+	 */
+	public void playQubicGame(Player player1, Player player2) {
+
+		//start with clean board
+		QubicBoard qubicBoard = new QubicBoard(); 
+		qubicBoard.print(); 
+
+		Player currentPlayer = player1; //Player O gets the first move
+
+		while (!qubicBoard.hasWinner() && !qubicBoard.isFull()) {
+
+			System.out.println(currentPlayer.getGivenName() +"\'s move:");
+			int cell = currentPlayer.makeQubicMove(qubicBoard, MOVE_TIME_BUDGET_MILLIS);
+
+			while (isValidQubicMove(qubicBoard, cell) == false) {
+				//move not allowed, get new move
+				System.out.println(currentPlayer.getGivenName() +"\'s move:");
+				cell = currentPlayer.makeQubicMove(qubicBoard, MOVE_TIME_BUDGET_MILLIS);
+			}
+
+			qubicBoard.play(cell); 
+			qubicBoard.print(); 
+
+			//switch players
+			if (currentPlayer == player1) {
+				currentPlayer = player2; 
+			} else {
+				currentPlayer = player1; 
+			}
+		}
+
+		GameState gameState = GameState.DRAW; 
+		if (qubicBoard.getWinner() == Board.PLAYER_O) {
+			gameState = GameState.PLAYER_O_WON; 
+		} else if (qubicBoard.getWinner() == Board.PLAYER_X) {
+			gameState = GameState.PLAYER_X_WON; 
+		}
+
+		updatePlayerStats(player1, player2, gameState); 
+	}
+
+	/* Plays moves from the two players in turn until the game is over, records the game in the 
+	 * game history, and returns the final game state. 
+	 */
+	private GameState runGame(Player player1, Player player2, int gridSize, int winLength) {
+
+		//start with clean board
+		board = new Board(gridSize, winLength); 
+		broadcaster = new GameBroadcaster(gridSize, winLength); 
+		moveHistory = new MoveHistory(board.getCellCount()); 
+		if (!quiet) {
+			board.print(); 
+		}
 
 		GameState gameState = GameState.GAME_CONTINUES; 
 
 		Player currentPlayer = player1; //Player O gets the first move
 		Move move = null; //stores coordinates of each move
-		int moveCount = 0; 
 
 		while (gameState == GameState.GAME_CONTINUES) {
 
-			System.out.println(currentPlayer.getGivenName() +"\'s move:");
+			if (!quiet) {
+				System.out.println(currentPlayer.getGivenName() +"\'s move:");
+			}
 
-			//get move
-			move = currentPlayer.makeMove(grid);
+			currentPlayer.stopPondering(); 
 
-			while (isValidMove(move) == false) {
-				//move not allowed, get new move
+			//get move, waiting no longer than the time budget for AI players
+			move = currentPlayer.makeMoveAsync(board, MOVE_TIME_BUDGET_MILLIS).join();
+
+			while (move == Move.UNDO || move == Move.REDO || move == Move.HINT || 
+				isValidMove(move) == false) {
+				if (move == Move.UNDO) {
+					takeBackTurn(); 
+				} else if (move == Move.REDO) {
+					replayTurn(); 
+				} else if (move == Move.HINT) {
+					printMoveRatings(); 
+				}
+
+				//move not allowed or turn changed, get new move
 				System.out.println(currentPlayer.getGivenName() +"\'s move:");
-				move = currentPlayer.makeMove(grid);
+				move = currentPlayer.makeMoveAsync(board, MOVE_TIME_BUDGET_MILLIS).join();
 			}
 
-			//update grid
+			//update board, which places the symbol of the player to move
+			board.play(move.getRow(), move.getColumn());
+			moveHistory.add(move.getRow()*gridSize + move.getColumn(), board.getSnapshot()); 
+
+			if (!quiet) {
+				board.print();
+			}
+			gameState = getGameState();
+			broadcaster.publish(moveHistory.getCell(moveHistory.getMoveCount()-1), 
+				board.getPlayer(move.getRow(), 
+				move.getColumn()), getUpdateState(gameState)); 
+
+			if (gameState == GameState.GAME_CONTINUES && !quiet) {
+				//let the player think on the other player's time
+				currentPlayer.startPondering(board);
+			}
+
+			//switch players
 			if (currentPlayer == player1) {
-				grid[move.getRow()][move.getColumn()] = PLAYER_1_SYMBOL;
-				currentPlayer = player2; //switch players
+				currentPlayer = player2; 
 			} else {
-				grid[move.getRow()][move.getColumn()] = PLAYER_2_SYMBOL;
-				currentPlayer = player1; //switch players
+				currentPlayer = player1; 
+			}
+		}
+
+		player1.stopPondering(); 
+		player2.stopPondering(); 
+
+		//game records only describe games on the default grid, between players with small ids
+		if (gameHistory != null && gridSize == DEFAULT_GRID_SIZE && 
+			winLength == DEFAULT_WIN_LENGTH) {
+			if (!GameRecord.fitsPlayerId(player1.getPlayerId()) || 
+				!GameRecord.fitsPlayerId(player2.getPlayerId())) {
+				if (!quiet) {
+					System.out.println("Game not recorded: player ids above " + 
+						GameRecord.MAX_PLAYER_ID + " do not fit in game records.");
+				}
+				return gameState; 
+			}
+			gameHistory.append(GameRecord.encode(moveHistory.toArray(), 
+				moveHistory.getMoveCount(), 
+				getRecordResult(gameState), player1.getPlayerId(), player2.getPlayerId()));
+		}
+
+		return gameState; 
+	}
+
+	/* Takes back the last turn of the player to move, which is their last move and the reply to 
+	 * it, so that it is still their move. Prints the board, or a message if there is no turn to 
+	 * take back. 
+	 */ 
+	private void takeBackTurn() {
+
+		if (moveHistory.getMoveCount() < 2) {
+			System.out.println("There are no moves to take back."); 
+			return; 
+		}
+
+		undoMove(); 
+		undoMove(); 
+		board.print(); 
+	}
+
+	/* Replays the last turn taken back by takeBackTurn. Prints the board, or a message if there is 
+	 * no turn to replay. 
+	 */ 
+	private void replayTurn() {
+
+		//turns are always taken back whole, so both moves of the turn can be replayed
+		if (!moveHistory.canRedo()) {
+			System.out.println("There are no moves to replay."); 
+			return; 
+		}
+
+		redoMove(); 
+		redoMove(); 
+		board.print(); 
+	}
+
+	/* Rates every move available to the player to move with one search by the advanced AI, and 
+	 * prints the board with each empty cell marked W, D or L for a move that wins, draws or loses 
+	 * with best play. Prints a message instead if the moves can't be rated within the time budget. 
+	 */ 
+	private void printMoveRatings() {
+
+		SearchContext context = new SearchContext(); 
+		CompletableFuture.delayedExecutor(MOVE_TIME_BUDGET_MILLIS, TimeUnit.MILLISECONDS)
+			.execute(() -> context.cancel()); 
+		AdvancedAIPlayer.Outcome[] moveOutcomes = 
+			new AdvancedAIPlayer().rateMoves(new Board(board), context); 
+		context.cancel(); //the timer has nothing left to stop
+
+		if (moveOutcomes == null) {
+			System.out.println("There was not enough time to rate every move."); 
+			return; 
+		}
+
+		for (int row = 0; row < board.getSize(); row++) {
+			for (int column = 0; column < board.getSize(); column++) {
+
+				AdvancedAIPlayer.Outcome outcome = moveOutcomes[board.getCell(row, column)]; 
+				if (outcome == AdvancedAIPlayer.Outcome.WIN) {
+					System.out.print("W"); 
+				} else if (outcome == AdvancedAIPlayer.Outcome.DRAW) {
+					System.out.print("D"); 
+				} else if (outcome == AdvancedAIPlayer.Outcome.LOSE) {
+					System.out.print("L"); 
+				} else {
+					System.out.print(board.getSymbol(row, column)); 
+				}
+
+				if (column < board.getSize()-1) {
+					System.out.print("|");
+				}
 			}
-			moveCount++;
 
-			printGrid();
-			gameState = getGameState(moveCount);
+			System.out.println();
+
+			if (row < board.getSize()-1) {
+				for (int i = 0; i < 2*board.getSize()-1; i++) {
+					System.out.print("-");
+				}
+				System.out.println();
+			}
 		}
+		System.out.println("W, D and L mark the moves that win, draw and lose with best play."); 
+	}
+
+	/* Prints the result of a finished game and updates the stats of each player */ 
+	private void updatePlayerStats(Player player1, Player player2, GameState gameState) {
 
 		//game over, print result, update player stats
 		if (gameState == GameState.PLAYER_O_WON) {
@@ -93,39 +412,28 @@ public class GameManager {
 		player2.updateDrawRatio(); 
 	}
 
-	/* Clears the game grid and resets to initial state */ 
-	private void resetGrid() {
+	/* Returns the GameRecord result of a finished game */ 
+	private int getRecordResult(GameState gameState) {
 
-		for (int row = 0; row < GRID_SIZE; row++) {
-			for (int column = 0; column < GRID_SIZE; column++) {
-
-				grid[row][column] = EMPTY_SYMBOL;
-			}
+		if (gameState == GameState.PLAYER_O_WON) {
+			return GameRecord.PLAYER_1_WON; 
+		} else if (gameState == GameState.PLAYER_X_WON) {
+			return GameRecord.PLAYER_2_WON; 
 		}
+		return GameRecord.DRAW; 
 	}
 
-	/* Prints the game grid, formatted as a TicTacToe board */ 
-	private void printGrid() {
+	/* Returns the GameUpdate state of a game */ 
+	private int getUpdateState(GameState gameState) {
 
-		for (int row = 0; row < GRID_SIZE; row++) {
-			for (int column = 0; column < GRID_SIZE; column++) {
-
-				System.out.print(grid[row][column]);
-
-				if (column < GRID_SIZE-1) {
-					System.out.print("|");
-				}
-			}
-
-			System.out.println();
-
-			if (row < GRID_SIZE-1) {
-				for (int i = 0; i < 2*GRID_SIZE-1; i++) {
-					System.out.print("-");
-				}
-				System.out.println(); 
-			}
+		if (gameState == GameState.PLAYER_O_WON) {
+			return GameUpdate.PLAYER_O_WON; 
+		} else if (gameState == GameState.PLAYER_X_WON) {
+			return GameUpdate.PLAYER_X_WON; 
+		} else if (gameState == GameState.DRAW) {
+			return GameUpdate.DRAW; 
 		}
+		return GameUpdate.GAME_CONTINUES; 
 	}
 
 	/* Checks if input row and column represents a valid move. Returns boolean true if valid, 
@@ -133,8 +441,7 @@ public class GameManager {
 	 */
 	private boolean isValidMove(Move move) {
 
-		if (move.getRow() > GRID_SIZE-1 || move.getColumn() > GRID_SIZE-1 ||
-			move.getRow() < 0 || move.getColumn() < 0) {
+		if (!board.isInside(move.getRow(), move.getColumn())) {
 			//outside the grid
 			System.out.print("Invalid move. You must place at a cell within "); 
 			printValidDimensions(); 
@@ -142,7 +449,28 @@ public class GameManager {
 			return false;  
 		}
 
-		if (grid[move.getRow()][move.getColumn()] != EMPTY_SYMBOL) { 
+		if (!board.isEmpty(move.getRow(), move.getColumn())) { 
+			//space already occupied
+			System.out.println("Invalid move. The cell has been occupied."); 
+			return false;  
+		} 
+
+		return true; 
+	}
+
+	/* Checks if the input cell is a valid move on the Qubic board. Returns boolean true if valid, 
+	 * false otherwise.
+	 */
+	private boolean isValidQubicMove(QubicBoard qubicBoard, int cell) {
+
+		if (cell < 0 || cell >= QubicBoard.CELL_COUNT) {
+			//outside the cube
+			System.out.println("Invalid move. You must place at a cell within {0,1,2,3} {0,1,2,3} " +
+				"{0,1,2,3}.");
+			return false;  
+		}
+
+		if (!qubicBoard.isEmpty(cell)) { 
 			//space already occupied
 			System.out.println("Invalid move. The cell has been occupied."); 
 			return false;  
@@ -158,16 +486,16 @@ public class GameManager {
 
 			System.out.print("{");
 
-			for (int i = 0; i < GRID_SIZE; i++) {
-				if (i < GRID_SIZE-1) {
+			for (int i = 0; i < board.getSize(); i++) {
+				if (i < board.getSize()-1) {
 					System.out.print(i + ",");
 				} else {
 					System.out.print(i + "} {");
 				}
 			}
 
-			for (int i = 0; i < GRID_SIZE; i++) {
-				if (i < GRID_SIZE-1) {
+			for (int i = 0; i < board.getSize(); i++) {
+				if (i < board.getSize()-1) {
 					System.out.print(i + ",");
 				} else {
 					System.out.print(i + "}");
@@ -178,126 +506,19 @@ public class GameManager {
 	/* Checks for win or draw and returns appropriate game state. If no win or draw, returns the 
 	 * 'game continues' game state. 
 	 */ 
-	private GameState getGameState(int moveCount) {
-		
-		//check each row for win
-		for (int row = 0; row < GRID_SIZE; row++) {
-
-			if (isWinInRow(row) == true) {
-				if (grid[row][0] == PLAYER_1_SYMBOL) {
-					return GameState.PLAYER_O_WON;
-				} else {
-					return GameState.PLAYER_X_WON;
-				} 
-			}
-		}
-
-		//check each column for win
-		for (int column = 0; column < GRID_SIZE; column++) {
-
-			if (isWinInColumn(column) == true) {
-				if (grid[0][column] == PLAYER_1_SYMBOL) {
-					return GameState.PLAYER_O_WON;
-				} else {
-					return GameState.PLAYER_X_WON;					
-				} 
-			}
-		}
+	private GameState getGameState() {
 		
-		//check diagonals for win
-		if (isWinInLeftDiagonal() == true) {
-
-			if (grid[0][0] == PLAYER_1_SYMBOL) {
-				return GameState.PLAYER_O_WON;
-			} else {
-				return GameState.PLAYER_X_WON;
-			} 
-		}
-
-		if (isWinInRightDiagonal() == true) {
-
-			if (grid[0][GRID_SIZE-1] == PLAYER_1_SYMBOL) {
-				return GameState.PLAYER_O_WON;
-			} else {
-				return GameState.PLAYER_X_WON;
-			} 
+		if (board.getWinner() == Board.PLAYER_O) {
+			return GameState.PLAYER_O_WON;
+		} else if (board.getWinner() == Board.PLAYER_X) {
+			return GameState.PLAYER_X_WON;
 		}
 		
 		//no win, check if draw
-		if (moveCount >= MAX_MOVE_COUNT) {
+		if (board.isFull()) {
 			return GameState.DRAW; 
 		} else {
 			return GameState.GAME_CONTINUES;
 		}
 	}
-
-	/* Checks each row and returns true if a win has occured, false otherwise */
-	private boolean isWinInRow(int row) {
-
-		for (int column = 0; column < GRID_SIZE-1; column++) {
-
-			if (grid[row][column] == EMPTY_SYMBOL ||
-				grid[row][column] != grid[row][column+1]) {
-				
-				return false;
-			}
-		}
-
-		return true; 
-	}
-
-	/* Checks each column and returns true if a win has occured, false otherwise */
-	private boolean isWinInColumn(int column) {
-
-		for (int row = 0; row < GRID_SIZE-1; row++) {
-
-			if (grid[row][column] == EMPTY_SYMBOL ||
-				grid[row][column] != grid[row+1][column]) {
-
-				return false;
-			}
-		}
-
-		return true; 
-	}
-
-	/* Checks left diagonal (top left to bottom right) and returns true if a win has occured, 
-	 * false otherwise.
-	 */
-	private boolean isWinInLeftDiagonal() {
-
-		int count = 1; 
-		for (int i = 0; i < GRID_SIZE-1; i++) {
-
-			if (grid[i][i] != EMPTY_SYMBOL && grid[i][i] == grid[i+1][i+1]) {
-				count++; 
-			}
-		}
-
-		if (count == GRID_SIZE) {
-			return true; 
-		} else {
-			return false; 
-		}
-	}
-
-	/* Checks right diagonal (top right to bottom left) and returns true if a win has occured, 
-	 * false otherwise.
-	 */
-	private boolean isWinInRightDiagonal() {
- 
-		int count = 1; 
-		for (int i = 0, j = GRID_SIZE-1; i < GRID_SIZE-1; i++, j--) {
-
-			if (grid[i][j] != EMPTY_SYMBOL && grid[i][j] == grid[i+1][j-1]) {
-				count++; 
-			}
-		}
-
-		if (count == GRID_SIZE) {
-			return true; 
-		} else {
-			return false; 
-		}
-	}
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+/*
+ * Class that packs a complete 3x3 game into a single long. From the lowest bits up, the record
+ * holds the row-major cell index of each move in 4 bits (up to 9 moves, unused slots hold 15),
+ * the result in 2 bits, and the ids of the first and second players in 13 bits each. Games 
+ * involving a player whose id does not fit (see fitsPlayerId) cannot be recorded.
+ */
+
+public class GameRecord {
+
+	public static final int PLAYER_1_WON = 0;
+	public static final int PLAYER_2_WON = 1;
+	public static final int DRAW = 2;
+	public static final int MAX_MOVE_COUNT = 9;
+	public static final int MAX_PLAYER_ID = (1 << 13) - 1;
+
+	private static final int BITS_PER_MOVE = 4;
+	private static final long MOVE_MASK = (1L << BITS_PER_MOVE) - 1;
+	private static final long NO_MOVE = MOVE_MASK;
+	private static final int RESULT_SHIFT = MAX_MOVE_COUNT*BITS_PER_MOVE;
+	private static final long RESULT_MASK = 3L;
+	private static final int PLAYER_1_SHIFT = RESULT_SHIFT + 2;
+	private static final int PLAYER_2_SHIFT = PLAYER_1_SHIFT + 13;
+	private static final long PLAYER_ID_MASK = MAX_PLAYER_ID;
+
+	/* Constructor */
+	private GameRecord() {}
+
+	/* Returns true if the input player id fits in a record */
+	public static boolean fitsPlayerId(int playerId) {
+
+		return playerId >= 0 && playerId <= MAX_PLAYER_ID;
+	}
+
+	/* Packs the input game into a record and returns it. Throws an IllegalArgumentException if 
+	 * either player id does not fit in a record, rather than recording the game against another 
+	 * player. 
+	 */
+	public static long encode(int[] moveCells, int moveCount, int result, int player1Id,
+		int player2Id) {
+
+		if (!fitsPlayerId(player1Id) || !fitsPlayerId(player2Id)) {
+			throw new IllegalArgumentException("Player ids above " + MAX_PLAYER_ID + 
+				" do not fit in game records.");
+		}
+
+		long record = 0L;
+
+		for (int i = 0; i < MAX_MOVE_COUNT; i++) {
+			long cell = NO_MOVE;
+			if (i < moveCount) {
+				cell = moveCells[i];
+			}
+			record |= cell << (i*BITS_PER_MOVE);
+		}
+
+		record |= ((long) result) << RESULT_SHIFT;
+		record |= ((long) player1Id) << PLAYER_1_SHIFT;
+		record |= ((long) player2Id) << PLAYER_2_SHIFT;
+
+		return record;
+	}
+
+	/* Returns the number of moves made in the recorded game */
+	public static int getMoveCount(long record) {
+
+		int moveCount = 0;
+		while (moveCount < MAX_MOVE_COUNT && getMoveCell(record, moveCount) != NO_MOVE) {
+			moveCount++;
+		}
+
+		return moveCount;
+	}
+
+	/* Returns the row-major cell index of the input move number (starting at 0) */
+	public static int getMoveCell(long record, int moveNumber) {
+
+		return (int) ((record >>> (moveNumber*BITS_PER_MOVE)) & MOVE_MASK);
+	}
+
+	public static int getResult(long record) {
+
+		return (int) ((record >>> RESULT_SHIFT) & RESULT_MASK);
+	}
+
+	public static int getPlayer1Id(long record) {
+
+		return (int) ((record >>> PLAYER_1_SHIFT) & PLAYER_ID_MASK);
+	}
+
+	public static int getPlayer2Id(long record) {
+
+		return (int) ((record >>> PLAYER_2_SHIFT) & PLAYER_ID_MASK);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,202 @@
+/*
+ * Class that accumulates statistics over a set of game records: win rates for each first move,
+ * the most common openings (first two moves), the average game length, and each player's
+ * outcomes over the course of the history, split into a fixed number of periods. Statistics of
+ * separate sets of records can be merged, so they can be gathered in parallel.
+ */
+
+import java.lang.Math;
+
+public class GameStatistics {
+
+	public static final int TREND_PERIOD_COUNT = 4;
+
+	private static final int CELL_COUNT = 
+		GameManager.DEFAULT_GRID_SIZE*GameManager.DEFAULT_GRID_SIZE;
+	private static final int PLAYER_ID_COUNT = GameRecord.MAX_PLAYER_ID + 1;
+	private static final int WON = 0;
+	private static final int DRAWN = 1;
+	private static final int LOST = 2;
+	private static final int OUTCOME_COUNT = 3;
+	private static final int PERCENT_MULTIPLIER = 100;
+	private static final int MAX_OPENINGS_TO_PRINT = 5;
+
+	private long gameCount;
+	private long moveCount;
+	private long[] firstMoveGameCounts = new long[CELL_COUNT];
+	private long[] firstMoveWinCounts = new long[CELL_COUNT];
+	private long[] openingCounts = new long[CELL_COUNT*CELL_COUNT];
+	private long[] playerOutcomeCounts; //indexed by player id, then period, then outcome
+
+	/* Constructor */
+	public GameStatistics() {
+
+		this.gameCount = 0;
+		this.moveCount = 0;
+	}
+
+	/* Accessors */
+	public long getGameCount() {
+
+		return this.gameCount;
+	}
+
+	/* Adds a game record to the statistics. The period is the part of the history the record came
+	 * from, between 0 and TREND_PERIOD_COUNT-1.
+	 */
+	public void add(long record, int period) {
+
+		int recordMoveCount = GameRecord.getMoveCount(record);
+		int result = GameRecord.getResult(record);
+
+		gameCount++;
+		moveCount += recordMoveCount;
+
+		if (recordMoveCount > 0) {
+			int firstMove = GameRecord.getMoveCell(record, 0);
+			firstMoveGameCounts[firstMove]++;
+			if (result == GameRecord.PLAYER_1_WON) {
+				firstMoveWinCounts[firstMove]++;
+			}
+
+			if (recordMoveCount > 1) {
+				openingCounts[firstMove*CELL_COUNT + GameRecord.getMoveCell(record, 1)]++;
+			}
+		}
+
+		if (result == GameRecord.PLAYER_1_WON) {
+			addPlayerOutcome(GameRecord.getPlayer1Id(record), period, WON);
+			addPlayerOutcome(GameRecord.getPlayer2Id(record), period, LOST);
+		} else if (result == GameRecord.PLAYER_2_WON) {
+			addPlayerOutcome(GameRecord.getPlayer1Id(record), period, LOST);
+			addPlayerOutcome(GameRecord.getPlayer2Id(record), period, WON);
+		} else {
+			addPlayerOutcome(GameRecord.getPlayer1Id(record), period, DRAWN);
+			addPlayerOutcome(GameRecord.getPlayer2Id(record), period, DRAWN);
+		}
+	}
+
+	/* Adds the statistics of another set of records to the calling statistics */
+	public void merge(GameStatistics other) {
+
+		gameCount += other.gameCount;
+		moveCount += other.moveCount;
+		addAll(firstMoveGameCounts, other.firstMoveGameCounts);
+		addAll(firstMoveWinCounts, other.firstMoveWinCounts);
+		addAll(openingCounts, other.openingCounts);
+
+		if (other.playerOutcomeCounts != null) {
+			if (playerOutcomeCounts == null) {
+				playerOutcomeCounts = other.playerOutcomeCounts;
+			} else {
+				addAll(playerOutcomeCounts, other.playerOutcomeCounts);
+			}
+		}
+	}
+
+	/* Prints the statistics, naming the players known to the player manager */
+	public void print(PlayerManager playerManager) {
+
+		System.out.println("Games: " + gameCount);
+		if (gameCount == 0) {
+			return;
+		}
+
+		System.out.printf("Average game length: %.2f moves%n", (double) moveCount/gameCount);
+
+		System.out.println("First move | GAME | FIRST PLAYER WIN");
+		for (int cell = 0; cell < CELL_COUNT; cell++) {
+			if (firstMoveGameCounts[cell] > 0) {
+				System.out.printf("       %s | %4d | %3d%%%n", formatCell(cell),
+					firstMoveGameCounts[cell],
+					Math.round((double) firstMoveWinCounts[cell]/firstMoveGameCounts[cell]*
+						PERCENT_MULTIPLIER));
+			}
+		}
+
+		System.out.println("Most common openings:");
+		long[] remainingOpenings = openingCounts.clone();
+		for (int i = 0; i < MAX_OPENINGS_TO_PRINT; i++) {
+			int opening = findLargestIndex(remainingOpenings);
+			if (remainingOpenings[opening] == 0) {
+				break;
+			}
+			System.out.println(" " + formatCell(opening/CELL_COUNT) + " then " +
+				formatCell(opening%CELL_COUNT) + ": " + remainingOpenings[opening] + " games");
+			remainingOpenings[opening] = 0;
+		}
+
+		System.out.println("Win rate by period (oldest first) | USERNAME");
+		Player[] players = playerManager.getPlayerArray();
+		for (int i = 0; i < playerManager.getPlayerCount(); i++) {
+			printPlayerTrend(players[i]);
+		}
+	}
+
+	/* Prints the win rate of the player in each period of the history */
+	private void printPlayerTrend(Player player) {
+
+		if (playerOutcomeCounts == null) {
+			return;
+		}
+
+		//games of players whose ids do not fit in a record are never recorded
+		if (!GameRecord.fitsPlayerId(player.getPlayerId())) {
+			for (int period = 0; period < TREND_PERIOD_COUNT; period++) {
+				System.out.print("    - ");
+			}
+			System.out.println("| " + player.getUsername() + " (id too large to record)");
+			return;
+		}
+
+		for (int period = 0; period < TREND_PERIOD_COUNT; period++) {
+			int base = (player.getPlayerId()*TREND_PERIOD_COUNT + period)*OUTCOME_COUNT;
+			long periodGames = playerOutcomeCounts[base + WON] + playerOutcomeCounts[base + DRAWN] +
+				playerOutcomeCounts[base + LOST];
+
+			if (periodGames == 0) {
+				System.out.print("    - ");
+			} else {
+				System.out.printf(" %3d%% ", Math.round(
+					(double) playerOutcomeCounts[base + WON]/periodGames*PERCENT_MULTIPLIER));
+			}
+		}
+
+		System.out.println("| " + player.getUsername());
+	}
+
+	private void addPlayerOutcome(int playerId, int period, int outcome) {
+
+		//only allocated once there is a record, as most sets of statistics are merged away
+		if (playerOutcomeCounts == null) {
+			playerOutcomeCounts = new long[PLAYER_ID_COUNT*TREND_PERIOD_COUNT*OUTCOME_COUNT];
+		}
+
+		playerOutcomeCounts[(playerId*TREND_PERIOD_COUNT + period)*OUTCOME_COUNT + outcome]++;
+	}
+
+	private void addAll(long[] totals, long[] values) {
+
+		for (int i = 0; i < totals.length; i++) {
+			totals[i] += values[i];
+		}
+	}
+
+	private int findLargestIndex(long[] values) {
+
+		int largestIndex = 0;
+		for (int i = 1; i < values.length; i++) {
+			if (values[i] > values[largestIndex]) {
+				largestIndex = i;
+			}
+		}
+
+		return largestIndex;
+	}
+
+	/* Formats a row-major cell index as the "row column" coordinates entered by players */
+	private String formatCell(int cell) {
+
+		return (cell/GameManager.DEFAULT_GRID_SIZE) + " " + (cell%GameManager.DEFAULT_GRID_SIZE);
+	}
+}
\ No newline at end of file
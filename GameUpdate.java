@@ -0,0 +1,77 @@
+/*
+ * Class that packs a single change to a live game, as sent to spectators, into an int. Most 
+ * updates are moves; a takeback update removes a move's symbol again (see GameManager.undoMove), 
+ * and a move taken back and replayed is sent as a new move. From the lowest bits up, the update 
+ * holds the row-major cell index of the move in 9 bits, the player who moved in 1 bit, the state 
+ * of the game after the update in 2 bits, whether the update is a takeback in 1 bit, and the 
+ * update number (starting at 0) in the remaining 19 bits.
+ */
+
+public class GameUpdate {
+
+	public static final int GAME_CONTINUES = 0;
+	public static final int PLAYER_O_WON = 1;
+	public static final int PLAYER_X_WON = 2;
+	public static final int DRAW = 3;
+	public static final int MAX_UPDATE_NUMBER = (1 << 19) - 1;
+
+	private static final int CELL_MASK = (1 << 9) - 1;
+	private static final int PLAYER_SHIFT = 9;
+	private static final int STATE_SHIFT = PLAYER_SHIFT + 1;
+	private static final int STATE_MASK = 3;
+	private static final int TAKEBACK_SHIFT = STATE_SHIFT + 2;
+	private static final int UPDATE_NUMBER_SHIFT = TAKEBACK_SHIFT + 1;
+
+	/* Constructor */
+	private GameUpdate() {}
+
+	/* Packs the input move into an update and returns it */
+	public static int encode(int updateNumber, int cell, int player, int state) {
+
+		return cell | (player << PLAYER_SHIFT) | (state << STATE_SHIFT) | 
+			(updateNumber << UPDATE_NUMBER_SHIFT);
+	}
+
+	/* Packs the taking back of the input move into an update and returns it */
+	public static int encodeTakeback(int updateNumber, int cell, int player) {
+
+		return encode(updateNumber, cell, player, GAME_CONTINUES) | (1 << TAKEBACK_SHIFT);
+	}
+
+	public static int getUpdateNumber(int update) {
+
+		return (update >>> UPDATE_NUMBER_SHIFT) & MAX_UPDATE_NUMBER;
+	}
+
+	/* Returns the row-major cell index of the move */
+	public static int getCell(int update) {
+
+		return update & CELL_MASK;
+	}
+
+	/* Returns the player who moved, Board.PLAYER_O or Board.PLAYER_X */
+	public static int getPlayer(int update) {
+
+		return (update >>> PLAYER_SHIFT) & 1;
+	}
+
+	public static char getSymbol(int update) {
+
+		if (getPlayer(update) == Board.PLAYER_O) {
+			return Board.PLAYER_O_SYMBOL;
+		}
+		return Board.PLAYER_X_SYMBOL;
+	}
+
+	/* Returns the state of the game after the update */
+	public static int getState(int update) {
+
+		return (update >>> STATE_SHIFT) & STATE_MASK;
+	}
+
+	/* Returns true if the update takes the move back, removing its symbol from the cell */
+	public static boolean isTakeback(int update) {
+
+		return ((update >>> TAKEBACK_SHIFT) & 1) != 0;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,144 @@
+/*
+ * Class that keeps the head to head record of every pair of players who have played each other. 
+ * Records are held in a HashMap keyed by the pair of player ids, packed into a long with the lower 
+ * id in the upper 32 bits, so only pairs that have actually played take up space. Each record is 
+ * also packed into a long, holding from the lowest bits up the wins of the player with the lower 
+ * id, the wins of the player with the higher id, and the draws, in 21 bits each. A count that 
+ * reaches the most 21 bits can hold (2097151) stays there, rather than carrying into the count 
+ * above it.
+ *
+ * The index is saved to its own file, as player ids are never reused (the next id to give out is 
+ * saved with the players). Only the process running the games keeps an index: with replication 
+ * that is the leader, as followers leave the files to it, and with sharding it is the process 
+ * holding the ShardedPlayerManager, as the shards give out ids that are unique across them all.
+ */
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+
+public class HeadToHeadIndex {
+
+	public static final int LOWER_ID_WINS = 0;
+	public static final int HIGHER_ID_WINS = 1;
+	public static final int DRAWS = 2;
+
+	private static final String FILE_NAME = "headtohead.dat";
+	private static final int BITS_PER_COUNT = 21;
+	private static final int MAX_COUNT = (1 << BITS_PER_COUNT) - 1;
+	private static final long COUNT_MASK = MAX_COUNT;
+	private static final long NO_RECORD = 0L;
+
+	private HashMap<Long, Long> records = new HashMap<Long, Long>();
+
+	/* Constructor */
+	public HeadToHeadIndex() {}
+
+	/* Accessors */
+
+	/* Returns the number of pairs of players who have played each other */
+	public synchronized int getPairCount() {
+
+		return records.size();
+	}
+
+	/* Returns the number of games between the two players won by the first player */
+	public synchronized int getWinCount(int playerId, int opponentId) {
+
+		return getCount(records.getOrDefault(getKey(playerId, opponentId), NO_RECORD), 
+			playerId < opponentId ? LOWER_ID_WINS : HIGHER_ID_WINS);
+	}
+
+	/* Returns the number of games drawn between the two players */
+	public synchronized int getDrawCount(int playerId, int opponentId) {
+
+		return getCount(records.getOrDefault(getKey(playerId, opponentId), NO_RECORD), DRAWS);
+	}
+
+	/* Returns the number of games played between the two players */
+	public synchronized int getGameCount(int playerId, int opponentId) {
+
+		long record = records.getOrDefault(getKey(playerId, opponentId), NO_RECORD);
+		return getCount(record, LOWER_ID_WINS) + getCount(record, HIGHER_ID_WINS) + 
+			getCount(record, DRAWS);
+	}
+
+	/* Mutators */
+
+	/* Adds a game between the two players to their record, unless the count it adds to is already 
+	 * at MAX_COUNT. The result is a GameRecord result. 
+	 */
+	public synchronized void addGame(int player1Id, int player2Id, int result) {
+
+		//work out which of the record's counts the result adds to
+		int count = DRAWS;
+		if (result == GameRecord.PLAYER_1_WON) {
+			count = player1Id < player2Id ? LOWER_ID_WINS : HIGHER_ID_WINS;
+		} else if (result == GameRecord.PLAYER_2_WON) {
+			count = player2Id < player1Id ? LOWER_ID_WINS : HIGHER_ID_WINS;
+		}
+
+		long key = getKey(player1Id, player2Id);
+		long record = records.getOrDefault(key, NO_RECORD);
+		if (getCount(record, count) < MAX_COUNT) {
+			records.put(key, record + (1L << (count*BITS_PER_COUNT)));
+		}
+	}
+
+	/* Saves the index to file in a binary format */
+	public synchronized void save() {
+
+		try {
+			FileOutputStream fileOut = new FileOutputStream(FILE_NAME);
+			ObjectOutputStream outputStream = new ObjectOutputStream(fileOut);
+
+			outputStream.writeObject(records);
+			outputStream.close();
+			fileOut.close();
+		}
+		catch (IOException e) {
+			System.out.println("Problem writing head to head file.");
+		}
+	}
+
+	/* Returns the index saved to file, or an empty index if none has been saved */
+	@SuppressWarnings("unchecked")
+	public static HeadToHeadIndex load() {
+
+		HeadToHeadIndex index = new HeadToHeadIndex();
+
+		try {
+			FileInputStream fileIn = new FileInputStream(FILE_NAME);
+			ObjectInputStream inputStream = new ObjectInputStream(fileIn);
+
+			index.records = (HashMap<Long, Long>) inputStream.readObject();
+			inputStream.close();
+			fileIn.close();
+		}
+		catch (FileNotFoundException e) {
+			//no games have been played yet
+		}
+		catch (IOException | ClassNotFoundException e) {
+			System.out.println("Problems with head to head file.");
+		}
+
+		return index;
+	}
+
+	/* Returns the key of the pair of players, which is the same whichever order they are in */
+	private static long getKey(int playerId, int opponentId) {
+
+		long lowerId = Math.min(playerId, opponentId);
+		long higherId = Math.max(playerId, opponentId);
+		return (lowerId << Integer.SIZE) | higherId;
+	}
+
+	private static int getCount(long record, int count) {
+
+		return (int) ((record >>> (count*BITS_PER_COUNT)) & COUNT_MASK);
+	}
+}
\ No newline at end of file
@@ -4,6 +4,12 @@
  */
 
 public class HumanPlayer extends Player {
+
+	//the value computed for the first version of the class, so older player files still load
+	private static final long serialVersionUID = -340328437647017620L;
+	private static final String UNDO_INPUT = "undo";
+	private static final String REDO_INPUT = "redo";
+	private static final String HINT_INPUT = "hint";
 	
 	/* Constructors */ 
 	public HumanPlayer() {}
@@ -20,9 +26,27 @@ public class HumanPlayer extends Player {
 			winRatio, drawRatio);
 	}
 
-	/* Gets a move entered by a human player from the command line and returns the move */ 
+	/* Gets a move entered by a human player from the command line and returns the move. Entering
+	 * "undo" or "redo" returns Move.UNDO or Move.REDO to take back or replay the player's last turn,
+	 * and entering "hint" returns Move.HINT to show how good each move available is.
+	 */ 
 	public Move makeMove(char[][] gameBoard) {
 
+		//check for a takeback instead of a move
+		if (!TicTacToe.keyboard.hasNextInt()) {
+			String word = TicTacToe.keyboard.next(); 
+			TicTacToe.keyboard.nextLine(); //consume rest of line
+
+			if (word.equals(UNDO_INPUT)) {
+				return Move.UNDO; 
+			} else if (word.equals(REDO_INPUT)) {
+				return Move.REDO; 
+			} else if (word.equals(HINT_INPUT)) {
+				return Move.HINT; 
+			}
+			return new Move(-1, -1); //not a move, so off the grid
+		}
+
 		//get move from user input
 		Move move = new Move(); 
 		move.setRow(TicTacToe.keyboard.nextInt());
@@ -33,6 +57,21 @@ public class HumanPlayer extends Player {
 		return move; 
 	}
 
+	/* Gets a Qubic move entered by a human player from the command line as a layer, row and 
+	 * column, and returns its cell 
+	 */ 
+	protected int makeQubicMove(QubicBoard board, long timeBudgetMillis) {
+
+		//get move from user input
+		int layer = TicTacToe.keyboard.nextInt(); 
+		int row = TicTacToe.keyboard.nextInt(); 
+		int column = TicTacToe.keyboard.nextInt(); 
+
+		TicTacToe.keyboard.nextLine(); //consume rest of line
+
+		return QubicBoard.getCell(layer, row, column); 
+	}
+
 	/* Makes a copy of the calling human player and returns a reference to the copy */ 
 	public HumanPlayer makeCopy() {
 
@@ -40,6 +79,8 @@ public class HumanPlayer extends Player {
 			this.gamesPlayedCount, this.gamesWonCount, this.gamesDrawnCount, this.winRatio, 
 			this.drawRatio);
 
+		playerCopy.setPlayerId(this.playerId);
+
 		return playerCopy;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+/* 
+ * Class Invariant: all objects have username, family name, and given name strings, games played, 
+ * games won, and games drawn counts, and win and draw ratios. 
+ */
+
+import java.util.concurrent.CompletableFuture;
+
+public class LearningPlayer extends Player {
+
+	//fixed, so saved players still load after the class changes
+	private static final long serialVersionUID = 4040066459769566040L;
+
+	private transient AdvancedAIPlayer fallbackPlayer; //searches boards the table does not cover
+	
+	/* Constructors */ 
+	public LearningPlayer() {}
+
+	public LearningPlayer(String username, String familyName, String givenName) {
+
+		super(username, familyName, givenName);
+	}
+
+	public LearningPlayer(String username, String familyName, String givenName, 
+		int gamesPlayedCount, int gamesWonCount, int gamesDrawnCount, double winRatio, 
+		double drawRatio) {
+
+		super(username, familyName, givenName, gamesPlayedCount, gamesWonCount, gamesDrawnCount,
+			winRatio, drawRatio);
+	}
+
+	/* Returns the move with the highest learnt value for the board. A line across the whole grid 
+	 * is needed to win. 
+	 */ 
+	public Move makeMove(char[][] gameBoard) {
+
+		return makeMove(Board.fromGrid(gameBoard, gameBoard.length)); 
+	}
+
+	/* Returns the move with the highest learnt value on a 3x3 board, otherwise searches for the 
+	 * best move. 
+	 */ 
+	protected Move makeMove(Board board) {
+
+		LearningTable table = LearningTable.getInstance(); 
+		if (table.covers(board)) {
+			return board.toMove(table.getBestCell(board)); 
+		}
+
+		return getFallbackPlayer().makeMove(board); 
+	}
+
+	/* Returns the move from the learnt table straight away, or searches within the time budget 
+	 * if the table does not cover the board. 
+	 */ 
+	protected CompletableFuture<Move> makeMoveAsync(Board board, long timeBudgetMillis) {
+
+		LearningTable table = LearningTable.getInstance(); 
+		if (table.covers(board)) {
+			return CompletableFuture.completedFuture(board.toMove(table.getBestCell(board))); 
+		}
+
+		return getFallbackPlayer().makeMoveAsync(board, timeBudgetMillis); 
+	}
+
+	/* Returns the cell of the best move found for a game of Qubic, which the table does not 
+	 * cover 
+	 */ 
+	protected int makeQubicMove(QubicBoard board, long timeBudgetMillis) {
+
+		return getFallbackPlayer().makeQubicMove(board, timeBudgetMillis); 
+	}
+
+	private AdvancedAIPlayer getFallbackPlayer() {
+
+		if (fallbackPlayer == null) {
+			fallbackPlayer = new AdvancedAIPlayer(); 
+		}
+		return fallbackPlayer; 
+	}
+
+	/* Makes a copy of the calling learning player and returns a reference to the copy */ 
+	public LearningPlayer makeCopy() {
+
+		LearningPlayer playerCopy = new LearningPlayer(this.username, this.familyName, 
+			this.givenName, this.gamesPlayedCount, this.gamesWonCount, this.gamesDrawnCount, 
+			this.winRatio, this.drawRatio);
+
+		playerCopy.setPlayerId(this.playerId);
+
+		return playerCopy;
+	}
+}
\ No newline at end of file
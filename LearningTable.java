@@ -0,0 +1,271 @@
+/*
+ * Class that learns the value of 3x3 positions by playing games against itself, and picks moves
+ * by looking the values up. Each value is the chance of winning (a draw counting as half a win)
+ * for the player who has just moved into the position. Values are learnt by temporal difference:
+ * after each move, the value of the player's previous position is moved a little towards the
+ * value of their new one, and at the end of a game the last positions are moved towards the
+ * result.
+ *
+ * Positions are numbered by their canonical index (see Tablebase), so the 8 symmetries of a
+ * position share one value and there are 3^9 values in all. Training games are split into chunks
+ * that are played in parallel on all cores, all updating the one table without locking: an update
+ * that is occasionally lost to another thread only slows learning slightly.
+ *
+ * The table is stored in a binary file holding a short header and then every value as a float.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+public class LearningTable {
+
+	public static final int SIZE = 3;
+	public static final String FILE_NAME = "learning3x3.dat";
+	public static final int MAGIC_NUMBER = 0x4C524E33; //"LRN3"
+
+	private static final int CELL_COUNT = SIZE*SIZE;
+	private static final int CHUNK_SIZE = 1000; //games played by one task
+	private static final float WIN_VALUE = 1.0f;
+	private static final float LOSS_VALUE = 0.0f;
+	private static final float DRAW_VALUE = 0.5f;
+	private static final float INITIAL_VALUE = DRAW_VALUE;
+	private static final float LEARNING_RATE = 0.1f;
+	private static final double EXPLORATION_RATE = 0.1; //chance of a random move when training
+	private static final int NO_POSITION = -1;
+
+	private static LearningTable instance;
+
+	private float[] values; //indexed by canonical index
+	private long trainedGameCount;
+	private int[][] symmetries = Tablebase.createSymmetries(SIZE);
+	private int[] powersOfThree = Tablebase.createPowersOfThree(CELL_COUNT);
+	private SplittableRandom seedRandom = new SplittableRandom();
+
+	/* Constructor */
+	private LearningTable(float[] values, long trainedGameCount) {
+
+		this.values = values;
+		this.trainedGameCount = trainedGameCount;
+	}
+
+	/* Returns the learning table, reading it from its file the first time it is needed. A new
+	 * table is started if there is no file.
+	 */
+	public static synchronized LearningTable getInstance() {
+
+		if (instance == null) {
+			instance = load();
+		}
+		return instance;
+	}
+
+	/* Accessors */
+	public long getTrainedGameCount() {
+
+		return this.trainedGameCount;
+	}
+
+	/* Returns true if the table covers the board */
+	public boolean covers(Board board) {
+
+		return board.getSize() == SIZE && board.getWinLength() == SIZE;
+	}
+
+	/* Returns the cell of the move into the position with the highest learnt value, or
+	 * Board.NO_CELL if the board is full. The board is unchanged on return.
+	 */
+	public int getBestCell(Board board) {
+
+		int[] digits = new int[CELL_COUNT];
+		for (int cell = 0; cell < CELL_COUNT; cell++) {
+			digits[cell] = Tablebase.getDigit(board.getPlayer(board.getRow(cell),
+				board.getColumn(cell)));
+		}
+
+		int[] moves = new int[CELL_COUNT];
+		int moveCount = board.findEmptyCells(moves);
+		return findGreedyCell(board.getPlayerToMove(), digits, moves, moveCount);
+	}
+
+	/* Plays the input number of games against itself, in parallel, learning from each */
+	public void train(int gameCount) {
+
+		int chunkCount = (gameCount + CHUNK_SIZE - 1)/CHUNK_SIZE;
+		long[] chunkSeeds = new long[chunkCount];
+		for (int chunk = 0; chunk < chunkCount; chunk++) {
+			chunkSeeds[chunk] = seedRandom.nextLong();
+		}
+
+		IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+			int chunkGameCount = Math.min(CHUNK_SIZE, gameCount - chunk*CHUNK_SIZE);
+			trainChunk(chunkGameCount, new SplittableRandom(chunkSeeds[chunk]));
+		});
+
+		trainedGameCount += gameCount;
+	}
+
+	/* Writes the table to its file */
+	public void save() {
+
+		try {
+			DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(FILE_NAME)));
+
+			outputStream.writeInt(MAGIC_NUMBER);
+			outputStream.writeLong(trainedGameCount);
+			outputStream.writeInt(values.length);
+			for (float value : values) {
+				outputStream.writeFloat(value);
+			}
+
+			outputStream.close();
+		}
+		catch (IOException e) {
+			System.out.println("Problem writing to file.");
+		}
+	}
+
+	/* Plays a chunk of training games, reusing one board and set of working arrays */
+	private void trainChunk(int gameCount, SplittableRandom random) {
+
+		Board board = new Board(SIZE, SIZE);
+		int[] digits = new int[CELL_COUNT];
+		int[] moves = new int[CELL_COUNT];
+		int[] playedCells = new int[CELL_COUNT];
+		int[] lastPositions = new int[2]; //indexed by player
+
+		for (int game = 0; game < gameCount; game++) {
+			int playedCount = playTrainingGame(board, digits, moves, playedCells, lastPositions,
+				random);
+
+			//clear the board for the next game
+			for (int i = playedCount - 1; i >= 0; i--) {
+				board.undo(playedCells[i]);
+				digits[playedCells[i]] = 0;
+			}
+		}
+	}
+
+	/* Plays one game, mostly choosing the best valued moves but sometimes exploring a random one,
+	 * and updates the values of the positions reached. Returns the number of moves played, which
+	 * are stored in order in the playedCells array.
+	 */
+	private int playTrainingGame(Board board, int[] digits, int[] moves, int[] playedCells,
+		int[] lastPositions, SplittableRandom random) {
+
+		lastPositions[Board.PLAYER_O] = NO_POSITION;
+		lastPositions[Board.PLAYER_X] = NO_POSITION;
+		int playedCount = 0;
+
+		while (true) {
+			int player = board.getPlayerToMove();
+			int moveCount = board.findEmptyCells(moves);
+
+			int cell;
+			if (random.nextDouble() < EXPLORATION_RATE) {
+				cell = moves[random.nextInt(moveCount)];
+			} else {
+				cell = findGreedyCell(player, digits, moves, moveCount);
+			}
+
+			board.play(cell);
+			digits[cell] = Tablebase.getDigit(player);
+			playedCells[playedCount] = cell;
+			playedCount++;
+
+			int position = Tablebase.getCanonicalIndex(digits, symmetries, powersOfThree);
+			update(lastPositions[player], values[position]);
+			lastPositions[player] = position;
+
+			if (board.hasWinner()) {
+				update(position, WIN_VALUE);
+				update(lastPositions[1 - player], LOSS_VALUE);
+				return playedCount;
+			} else if (board.isFull()) {
+				update(position, DRAW_VALUE);
+				update(lastPositions[1 - player], DRAW_VALUE);
+				return playedCount;
+			}
+		}
+	}
+
+	/* Returns the empty cell whose resulting position has the highest value for the player */
+	private int findGreedyCell(int player, int[] digits, int[] moves, int moveCount) {
+
+		int bestCell = Board.NO_CELL;
+		float bestValue = -1;
+
+		for (int i = 0; i < moveCount; i++) {
+			digits[moves[i]] = Tablebase.getDigit(player);
+			float value = values[Tablebase.getCanonicalIndex(digits, symmetries, powersOfThree)];
+			digits[moves[i]] = 0;
+
+			if (value > bestValue) {
+				bestValue = value;
+				bestCell = moves[i];
+			}
+		}
+
+		return bestCell;
+	}
+
+	/* Moves the value of the position towards the target value */
+	private void update(int position, float target) {
+
+		if (position != NO_POSITION) {
+			values[position] += LEARNING_RATE*(target - values[position]);
+		}
+	}
+
+	/* Reads the table from its file, or starts a new table if there is no valid file */
+	private static LearningTable load() {
+
+		int valueCount = Tablebase.createPowersOfThree(CELL_COUNT)[CELL_COUNT];
+
+		try {
+			DataInputStream inputStream = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(FILE_NAME)));
+
+			int magicNumber = inputStream.readInt();
+			long trainedGameCount = inputStream.readLong();
+			if (magicNumber != MAGIC_NUMBER || inputStream.readInt() != valueCount) {
+				System.out.println("Learning table file " + FILE_NAME + " is not valid.");
+				inputStream.close();
+				return createTable(valueCount);
+			}
+
+			float[] values = new float[valueCount];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = inputStream.readFloat();
+			}
+
+			inputStream.close();
+			return new LearningTable(values, trainedGameCount);
+		}
+		catch (FileNotFoundException e) {
+			//not trained yet
+			return createTable(valueCount);
+		}
+		catch (IOException e) {
+			System.out.println("Problem reading learning table file.");
+			return createTable(valueCount);
+		}
+	}
+
+	private static LearningTable createTable(int valueCount) {
+
+		float[] values = new float[valueCount];
+		for (int i = 0; i < valueCount; i++) {
+			values[i] = INITIAL_VALUE;
+		}
+		return new LearningTable(values, 0);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,347 @@
+/*
+ * Class that tracks every window of winLength cells in a line on a board (horizontal, vertical
+ * or diagonal), counting how many symbols each player has in each window. The counts are updated
+ * incrementally as moves are played and undone, so threats can be found without rescanning the
+ * board: a window holding winLength-1 of a player's symbols and none of the other player's is a
+ * "four", and its one empty cell wins the game.
+ *
+ * The occupied cells are also kept packed one long per row, as in Board, so that scans of the
+ * whole board can be done a row at a time by the LineScanner.
+ *
+ * Cells are numbered in row-major order.
+ */
+
+public class LinePatterns {
+
+	private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+	private static final int PLAYER_COUNT = 2;
+	private static final int NO_CELL = -1;
+
+	private int size;
+	private int winLength;
+	private int cellCount;
+	private int[][] windowCells; //cells in each window
+	private int[][] cellWindows; //windows containing each cell
+	private int[][] windowCounts; //indexed by player then window
+	private int[] cellPlayers; //player in each cell, or Board.NO_PLAYER
+	private long[] windowWeights; //value of an open window by number of symbols in it
+	private long[] occupiedRows; //cells holding either player's symbol
+	private LineScanner scanner = LineScanner.getInstance();
+
+	/* Constructor */
+	public LinePatterns(Board board) {
+
+		this.size = board.getSize();
+		this.winLength = board.getWinLength();
+		this.cellCount = size*size;
+		createWindows();
+
+		this.windowCounts = new int[PLAYER_COUNT][windowCells.length];
+		this.occupiedRows = new long[size];
+		this.cellPlayers = new int[cellCount];
+		for (int cell = 0; cell < cellCount; cell++) {
+			cellPlayers[cell] = Board.NO_PLAYER;
+		}
+
+		//each extra symbol in an open window is worth far more than the last
+		this.windowWeights = new long[winLength + 1];
+		for (int count = 1; count <= winLength; count++) {
+			windowWeights[count] = 1L << (3*count);
+		}
+
+		for (int row = 0; row < size; row++) {
+			for (int column = 0; column < size; column++) {
+				if (!board.isEmpty(row, column)) {
+					play(row*size + column, board.getPlayer(row, column));
+				}
+			}
+		}
+	}
+
+	/* Accessors */
+	public int getSize() {
+
+		return this.size;
+	}
+
+	public int getCellCount() {
+
+		return this.cellCount;
+	}
+
+	public boolean isEmpty(int cell) {
+
+		return cellPlayers[cell] == Board.NO_PLAYER;
+	}
+
+	public int getPlayer(int cell) {
+
+		return cellPlayers[cell];
+	}
+
+	/* Places the player's symbol in the cell and updates the windows containing it */
+	public void play(int cell, int player) {
+
+		cellPlayers[cell] = player;
+		occupiedRows[cell/size] |= 1L << (cell%size);
+		for (int window : cellWindows[cell]) {
+			windowCounts[player][window]++;
+		}
+	}
+
+	/* Removes the symbol from the cell and updates the windows containing it */
+	public void undo(int cell) {
+
+		int player = cellPlayers[cell];
+		cellPlayers[cell] = Board.NO_PLAYER;
+		occupiedRows[cell/size] &= ~(1L << (cell%size));
+		for (int window : cellWindows[cell]) {
+			windowCounts[player][window]--;
+		}
+	}
+
+	/* Returns true if the player has a complete line through the cell */
+	public boolean isWinThrough(int cell, int player) {
+
+		for (int window : cellWindows[cell]) {
+			if (windowCounts[player][window] == winLength) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/* Finds the distinct empty cells that would complete a line for the player, storing them in
+	 * the cells array, and returns how many were found.
+	 */
+	public int findWinningCells(int player, int[] cells) {
+
+		int opponent = 1 - player;
+		int cellsFound = 0;
+
+		for (int window = 0; window < windowCells.length; window++) {
+			if (windowCounts[player][window] == winLength-1 && windowCounts[opponent][window] == 0) {
+				int emptyCell = findEmptyCell(window);
+				if (!contains(cells, cellsFound, emptyCell)) {
+					cells[cellsFound] = emptyCell;
+					cellsFound++;
+				}
+			}
+		}
+
+		return cellsFound;
+	}
+
+	/* Returns true if the player has a window through the cell that is one symbol short of a line
+	 * and not blocked by the other player.
+	 */
+	public boolean hasFourThrough(int cell, int player) {
+
+		int opponent = 1 - player;
+
+		for (int window : cellWindows[cell]) {
+			if (windowCounts[player][window] == winLength-1 && windowCounts[opponent][window] == 0) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/* Finds the distinct empty cells that would complete a line for the player through the input
+	 * cell, storing them in the cells array, and returns how many were found. 
+	 */
+	public int findWinningCellsThrough(int cell, int player, int[] cells) {
+
+		int opponent = 1 - player;
+		int cellsFound = 0;
+
+		for (int window : cellWindows[cell]) {
+			if (windowCounts[player][window] == winLength-1 && windowCounts[opponent][window] == 0) {
+				int emptyCell = findEmptyCell(window);
+				if (!contains(cells, cellsFound, emptyCell)) {
+					cells[cellsFound] = emptyCell;
+					cellsFound++;
+				}
+			}
+		}
+
+		return cellsFound;
+	}
+
+	/* Finds the distinct empty cells where the player would make a four, storing them in the 
+	 * cells array, and returns how many were found.
+	 */
+	public int findFourMakingCells(int player, int[] cells) {
+
+		int opponent = 1 - player;
+		int cellsFound = 0;
+
+		for (int window = 0; window < windowCells.length; window++) {
+			if (windowCounts[player][window] == winLength-2 && windowCounts[opponent][window] == 0) {
+				for (int windowCell : windowCells[window]) {
+					if (isEmpty(windowCell) && !contains(cells, cellsFound, windowCell)) {
+						cells[cellsFound] = windowCell;
+						cellsFound++;
+					}
+				}
+			}
+		}
+
+		return cellsFound;
+	}
+
+	/* Returns the most symbols the player has in any window through the cell that is not blocked
+	 * by the other player.
+	 */
+	public int getLongestOpenCount(int cell, int player) {
+
+		int opponent = 1 - player;
+		int longestCount = 0;
+
+		for (int window : cellWindows[cell]) {
+			if (windowCounts[opponent][window] == 0) {
+				longestCount = Math.max(longestCount, windowCounts[player][window]);
+			}
+		}
+
+		return longestCount;
+	}
+
+	/* Finds the distinct empty cells that share an open window with the input cell, storing them
+	 * in the cells array, and returns how many were found.
+	 */
+	public int findNeighbouringCells(int cell, int player, int[] cells) {
+
+		int opponent = 1 - player;
+		int cellsFound = 0;
+
+		for (int window : cellWindows[cell]) {
+			if (windowCounts[opponent][window] != 0) {
+				continue;
+			}
+			for (int windowCell : windowCells[window]) {
+				if (isEmpty(windowCell) && !contains(cells, cellsFound, windowCell)) {
+					cells[cellsFound] = windowCell;
+					cellsFound++;
+				}
+			}
+		}
+
+		return cellsFound;
+	}
+
+	/* Finds the empty cells within the input distance of a symbol, storing them in the cells array
+	 * in order, and returns how many were found.
+	 */
+	public int findNeighbourhoodCells(int distance, int[] cells) {
+
+		return scanner.findNeighbouringCells(occupiedRows, size, distance, cells);
+	}
+
+	/* Returns a score for the player moving in the cell: the value added to the player's open
+	 * windows through the cell, plus the value taken away from the other player's.
+	 */
+	public long scoreCell(int cell, int player) {
+
+		int opponent = 1 - player;
+		long score = 0;
+
+		for (int window : cellWindows[cell]) {
+			if (windowCounts[opponent][window] == 0) {
+				score += windowWeights[windowCounts[player][window] + 1];
+			}
+			if (windowCounts[player][window] == 0) {
+				score += windowWeights[windowCounts[opponent][window]];
+			}
+		}
+
+		return score;
+	}
+
+	/* Returns the value of the position for the player: the weights of the player's open windows
+	 * less the weights of the other player's.
+	 */
+	public long evaluate(int player) {
+
+		int opponent = 1 - player;
+		long value = 0;
+
+		for (int window = 0; window < windowCells.length; window++) {
+			if (windowCounts[opponent][window] == 0) {
+				value += windowWeights[windowCounts[player][window]];
+			} else if (windowCounts[player][window] == 0) {
+				value -= windowWeights[windowCounts[opponent][window]];
+			}
+		}
+
+		return value;
+	}
+
+	private int findEmptyCell(int window) {
+
+		for (int cell : windowCells[window]) {
+			if (isEmpty(cell)) {
+				return cell;
+			}
+		}
+
+		return NO_CELL;
+	}
+
+	private boolean contains(int[] cells, int cellCount, int cell) {
+
+		for (int i = 0; i < cellCount; i++) {
+			if (cells[i] == cell) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/* Builds the tables of cells in each window and windows containing each cell */
+	private void createWindows() {
+
+		int[][] allWindows = new int[DIRECTIONS.length*cellCount][];
+		int[] cellWindowCounts = new int[cellCount];
+		int windowCount = 0;
+
+		for (int[] direction : DIRECTIONS) {
+			for (int row = 0; row < size; row++) {
+				for (int column = 0; column < size; column++) {
+
+					int endRow = row + (winLength-1)*direction[0];
+					int endColumn = column + (winLength-1)*direction[1];
+					if (endRow >= size || endColumn < 0 || endColumn >= size) {
+						continue;
+					}
+
+					int[] window = new int[winLength];
+					for (int i = 0; i < winLength; i++) {
+						window[i] = (row + i*direction[0])*size + column + i*direction[1];
+						cellWindowCounts[window[i]]++;
+					}
+					allWindows[windowCount] = window;
+					windowCount++;
+				}
+			}
+		}
+
+		windowCells = new int[windowCount][];
+		System.arraycopy(allWindows, 0, windowCells, 0, windowCount);
+
+		cellWindows = new int[cellCount][];
+		for (int cell = 0; cell < cellCount; cell++) {
+			cellWindows[cell] = new int[cellWindowCounts[cell]];
+			cellWindowCounts[cell] = 0;
+		}
+		for (int window = 0; window < windowCount; window++) {
+			for (int cell : windowCells[window]) {
+				cellWindows[cell][cellWindowCounts[cell]] = window;
+				cellWindowCounts[cell]++;
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+/*
+ * Class that scans a whole board for lines and candidate moves. Each player's symbols are given
+ * as one long per row, where bit n of a row is column n (as stored by Board).
+ *
+ * There are two implementations: ScalarLineScanner, which examines one cell at a time, and
+ * BitParallelLineScanner, which examines every column of a row at once with bitwise operations
+ * on the packed rows. The bit-parallel scanner is used unless the program is started with
+ * -DlineScanner=scalar, and it falls back to the scalar scanner for any board too wide for its
+ * shifts.
+ */
+
+public abstract class LineScanner {
+
+	public static final String SCANNER_PROPERTY = "lineScanner";
+	public static final String SCALAR_SCANNER = "scalar";
+	public static final String BIT_PARALLEL_SCANNER = "bitparallel";
+
+	//directions of lines as row and column steps
+	protected static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+	private static final LineScanner instance = createInstance();
+
+	/* Returns the scanner selected when the program started */
+	public static LineScanner getInstance() {
+
+		return instance;
+	}
+
+	/* Returns true if the player has winLength or more symbols in a row anywhere on the board */
+	public abstract boolean hasLine(long[] rows, int size, int winLength);
+
+	/* Finds the empty cells within the input distance (in any direction) of an occupied cell,
+	 * storing their row-major numbers in the cells array in order, and returns how many were
+	 * found.
+	 */
+	public abstract int findNeighbouringCells(long[] occupiedRows, int size, int distance,
+		int[] cells);
+
+	/* Returns the name of the scanner, as given to -DlineScanner */
+	public abstract String getName();
+
+	private static LineScanner createInstance() {
+
+		String name = System.getProperty(SCANNER_PROPERTY, BIT_PARALLEL_SCANNER);
+
+		if (name.equals(SCALAR_SCANNER)) {
+			return new ScalarLineScanner();
+		} else if (!name.equals(BIT_PARALLEL_SCANNER)) {
+			System.out.println("Line scanner must be " + SCALAR_SCANNER + " or " +
+				BIT_PARALLEL_SCANNER + ", using " + BIT_PARALLEL_SCANNER + ".");
+		}
+		return new BitParallelLineScanner();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,143 @@
+/*
+ * Class that stores a growable array of longs in a memory-mapped file. The file is mapped in
+ * fixed size segments as they are first used, so the array can grow well beyond the 2GB limit of
+ * a single mapping. Unwritten elements read as zero.
+ *
+ * The file only grows as elements are written: a segment's mapping starts small and is doubled 
+ * whenever an element past its end is set, up to the full segment size. Reading past the end of 
+ * the file maps nothing, and a mapping is extended if another process has grown the file since.
+ */
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.Arrays;
+
+public class MappedLongArray {
+
+	private static final int SEGMENT_SHIFT = 26; //64MB segments
+	private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+	private static final long OFFSET_MASK = SEGMENT_SIZE - 1;
+	private static final long FIRST_MAPPING_SIZE = 1L << 16; //64KB, doubled as the file grows
+
+	private RandomAccessFile file;
+	private FileChannel channel;
+	private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0]; //replaced on growth
+
+	/* Constructor */
+	public MappedLongArray(String fileName) throws IOException {
+
+		this.file = new RandomAccessFile(fileName, "rw");
+		this.channel = file.getChannel();
+	}
+
+	/* Returns the element at the input index */
+	public long get(long index) {
+
+		long position = index*Long.BYTES;
+		MappedByteBuffer segment = getSegment(position, false);
+		if (segment == null) {
+			//past the end of the file, so never written
+			return 0;
+		}
+		return segment.getLong((int) (position & OFFSET_MASK));
+	}
+
+	/* Sets the element at the input index */
+	public void set(long index, long value) {
+
+		long position = index*Long.BYTES;
+		getSegment(position, true).putLong((int) (position & OFFSET_MASK), value);
+	}
+
+	/* Locks the file against other processes, waiting until they release it, and returns the 
+	 * lock to release when done 
+	 */
+	public FileLock lock() throws IOException {
+
+		return channel.lock();
+	}
+
+	/* Writes any changes through to the file */
+	public void force() {
+
+		for (MappedByteBuffer segment : this.segments) {
+			if (segment != null) {
+				segment.force();
+			}
+		}
+	}
+
+	/* Writes any changes through to the file and closes it */
+	public void close() throws IOException {
+
+		force();
+		channel.close();
+		file.close();
+	}
+
+	/* Returns the segment that holds the input byte position, mapping it or extending its mapping 
+	 * if necessary. If the position is past the end of the file, the file is grown to hold it if 
+	 * growing, or null is returned if not. Segments already mapped far enough are found without 
+	 * locking, so many threads can read at once.
+	 */
+	private MappedByteBuffer getSegment(long position, boolean growing) {
+
+		int segmentIndex = (int) (position >>> SEGMENT_SHIFT);
+		long offset = position & OFFSET_MASK;
+		MappedByteBuffer[] currentSegments = this.segments;
+
+		if (segmentIndex < currentSegments.length && currentSegments[segmentIndex] != null && 
+			offset + Long.BYTES <= currentSegments[segmentIndex].capacity()) {
+			return currentSegments[segmentIndex];
+		}
+
+		return mapSegment(segmentIndex, offset, growing);
+	}
+
+	/* Maps the segment with the input index far enough to hold the input offset, and publishes it
+	 * in a new copy of the segment array. When growing, the mapping is doubled until it holds the 
+	 * offset, which grows the file. Otherwise only the part of the segment in the file is mapped, 
+	 * and null is returned if the offset isn't in it. 
+	 */
+	private synchronized MappedByteBuffer mapSegment(int segmentIndex, long offset, 
+		boolean growing) {
+
+		MappedByteBuffer[] currentSegments = this.segments;
+		if (segmentIndex < currentSegments.length && currentSegments[segmentIndex] != null && 
+			offset + Long.BYTES <= currentSegments[segmentIndex].capacity()) {
+			//mapped by another thread while waiting for the lock
+			return currentSegments[segmentIndex];
+		}
+
+		MappedByteBuffer segment;
+		try {
+			long segmentStart = segmentIndex*SEGMENT_SIZE;
+			long sizeInFile = Math.min(Math.max(channel.size() - segmentStart, 0), SEGMENT_SIZE);
+
+			long mappingSize = sizeInFile;
+			if (growing) {
+				mappingSize = Math.min(FIRST_MAPPING_SIZE, SEGMENT_SIZE);
+				while (mappingSize < offset + Long.BYTES || mappingSize < sizeInFile) {
+					mappingSize *= 2;
+				}
+			} else if (offset + Long.BYTES > sizeInFile) {
+				return null;
+			}
+
+			segment = channel.map(FileChannel.MapMode.READ_WRITE, segmentStart, mappingSize);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Unable to map file segment.", e);
+		}
+
+		MappedByteBuffer[] newSegments = Arrays.copyOf(currentSegments, 
+			Math.max(currentSegments.length, segmentIndex + 1));
+		newSegments[segmentIndex] = segment;
+		this.segments = newSegments;
+
+		return segment;
+	}
+}
\ No newline at end of file
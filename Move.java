@@ -3,6 +3,12 @@
  */ 
 
 public class Move {
+
+	//moves that ask for the last turn to be taken back or replayed, or for the moves available to 
+	//be rated, rather than placing a symbol
+	public static final Move UNDO = new Move(-1, -1);
+	public static final Move REDO = new Move(-1, -1);
+	public static final Move HINT = new Move(-1, -1);
 	
 	private int moveRow;
 	private int moveColumn;
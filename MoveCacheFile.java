@@ -0,0 +1,152 @@
+/*
+ * Class that stores best moves found by AI searches in a file, so that later runs of the program
+ * can reuse them instead of searching again. Each move is stored as a record of the position's
+ * Zobrist hash (see Board) and the move's row-major cell, sorted by hash after a short header. The
+ * file is memory-mapped and binary searched, so only the parts of it that are looked up are held 
+ * in memory. When the file is opened it is checked once from end to end: a file with a bad 
+ * header, records out of order or negative cells is ignored, as its lookups can't be trusted.
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class MoveCacheFile {
+
+	public static final int MAGIC_NUMBER = 0x4D4F5645; //"MOVE"
+
+	private static final int HEADER_SIZE = 2*Integer.BYTES; //magic number and record count
+	private static final int RECORD_SIZE = Long.BYTES + Integer.BYTES;
+	private static final String TEMPORARY_SUFFIX = ".tmp";
+
+	private MappedByteBuffer records; //null if there is no file
+	private int recordCount;
+
+	/* Constructor */
+	private MoveCacheFile(MappedByteBuffer records, int recordCount) {
+
+		this.records = records;
+		this.recordCount = recordCount;
+	}
+
+	/* Maps the file of saved moves. If there is no valid file, returns an empty cache. */
+	public static MoveCacheFile open(String fileName) {
+
+		try {
+			RandomAccessFile file = new RandomAccessFile(fileName, "r");
+			MappedByteBuffer records = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0,
+				file.length());
+			file.close(); //the mapping stays valid once the file is closed
+
+			if (!isValid(records)) {
+				System.out.println("Move cache file " + fileName + " is not valid.");
+				return new MoveCacheFile(null, 0);
+			}
+
+			return new MoveCacheFile(records, records.getInt(Integer.BYTES));
+		}
+		catch (IOException e) {
+			//nothing saved yet
+			return new MoveCacheFile(null, 0);
+		}
+	}
+
+	/* Accessors */
+	public int getRecordCount() {
+
+		return this.recordCount;
+	}
+
+	/* Returns the cell of the saved move for the position with the input hash, or Board.NO_CELL
+	 * if none has been saved.
+	 */
+	public int getCell(long positionHash) {
+
+		int low = 0;
+		int high = recordCount - 1;
+
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			long middleHash = records.getLong(HEADER_SIZE + middle*RECORD_SIZE);
+
+			if (middleHash < positionHash) {
+				low = middle + 1;
+			} else if (middleHash > positionHash) {
+				high = middle - 1;
+			} else {
+				return records.getInt(HEADER_SIZE + middle*RECORD_SIZE + Long.BYTES);
+			}
+		}
+
+		return Board.NO_CELL;
+	}
+
+	/* Returns true if the mapped file has a valid header, exactly the number of records it 
+	 * declares, and records in strictly increasing order of hash with cells that could be on a 
+	 * board 
+	 */
+	private static boolean isValid(MappedByteBuffer records) {
+
+		if (records.capacity() < HEADER_SIZE || records.getInt(0) != MAGIC_NUMBER) {
+			return false;
+		}
+
+		int recordCount = records.getInt(Integer.BYTES);
+		if (recordCount < 0 || records.capacity() != HEADER_SIZE + (long) recordCount*RECORD_SIZE) {
+			return false;
+		}
+
+		for (int i = 0; i < recordCount; i++) {
+			long hash = records.getLong(HEADER_SIZE + i*RECORD_SIZE);
+			if (i > 0 && hash <= records.getLong(HEADER_SIZE + (i - 1)*RECORD_SIZE)) {
+				return false;
+			}
+			if (records.getInt(HEADER_SIZE + i*RECORD_SIZE + Long.BYTES) < 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/* Writes the saved moves together with the input moves to the file. The new file replaces the
+	 * old one only once it is complete, so the mapped old file is never seen half written.
+	 */
+	public void save(String fileName, Map<Long, Integer> moves) {
+
+		TreeMap<Long, Integer> allMoves = new TreeMap<Long, Integer>(moves);
+		for (int i = 0; i < recordCount; i++) {
+			allMoves.putIfAbsent(records.getLong(HEADER_SIZE + i*RECORD_SIZE),
+				records.getInt(HEADER_SIZE + i*RECORD_SIZE + Long.BYTES));
+		}
+
+		try {
+			String temporaryFileName = fileName + TEMPORARY_SUFFIX;
+			DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(temporaryFileName)));
+
+			outputStream.writeInt(MAGIC_NUMBER);
+			outputStream.writeInt(allMoves.size());
+			for (Map.Entry<Long, Integer> move : allMoves.entrySet()) {
+				outputStream.writeLong(move.getKey());
+				outputStream.writeInt(move.getValue());
+			}
+
+			outputStream.close();
+			Files.move(Paths.get(temporaryFileName), Paths.get(fileName),
+				StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (IOException e) {
+			System.out.println("Problem writing to file.");
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+/*
+ * Class that records the moves of a game so they can be taken back and replayed. Moves are stored 
+ * as row-major cells in an array with room for a move in every cell of the grid, along with a 
+ * snapshot of the board (see Board.getSnapshot) after each move, so undoing, redoing, and finding 
+ * the position after any move never copy the board.
+ *
+ * Moves that have been undone stay in the array until a new move is played, which discards them.
+ */
+
+public class MoveHistory {
+
+	private final int[] cells; //cell of each move, in the order played
+	private final long[] snapshots; //snapshot of the board after each move
+	private int moveCount; //number of moves on the board
+	private int redoCount; //number of moves on the board or undone since the last new move
+
+	/* Constructor */
+	public MoveHistory(int cellCount) {
+
+		this.cells = new int[cellCount];
+		this.snapshots = new long[cellCount];
+		this.moveCount = 0;
+		this.redoCount = 0;
+	}
+
+	/* Accessors */
+	public int getMoveCount() {
+
+		return this.moveCount;
+	}
+
+	/* Returns the cell of the move with the input number, which must be less than the move count */
+	public int getCell(int moveNumber) {
+
+		return this.cells[moveNumber];
+	}
+
+	/* Returns the snapshot of the board after the move with the input number, which must be less 
+	 * than the move count 
+	 */
+	public long getSnapshot(int moveNumber) {
+
+		return this.snapshots[moveNumber];
+	}
+
+	public boolean canUndo() {
+
+		return this.moveCount > 0;
+	}
+
+	public boolean canRedo() {
+
+		return this.moveCount < this.redoCount;
+	}
+
+	/* Returns a new array holding the cells of the moves on the board, in the order played */
+	public int[] toArray() {
+
+		int[] moves = new int[moveCount];
+		System.arraycopy(cells, 0, moves, 0, moveCount);
+		return moves;
+	}
+
+	/* Mutators */
+
+	/* Records a move played on the board, discarding any moves that were undone */
+	public void add(int cell, long snapshot) {
+
+		cells[moveCount] = cell;
+		snapshots[moveCount] = snapshot;
+		moveCount++;
+		redoCount = moveCount;
+	}
+
+	/* Takes back the last move and returns its cell, or Board.NO_CELL if there are no moves */
+	public int undo() {
+
+		if (!canUndo()) {
+			return Board.NO_CELL;
+		}
+
+		moveCount--;
+		return cells[moveCount];
+	}
+
+	/* Replays the last move undone and returns its cell, or Board.NO_CELL if there are none */
+	public int redo() {
+
+		if (!canRedo()) {
+			return Board.NO_CELL;
+		}
+
+		moveCount++;
+		return cells[moveCount-1];
+	}
+
+	/* Forgets every move */
+	public void clear() {
+
+		moveCount = 0;
+		redoCount = 0;
+	}
+}
\ No newline at end of file
@@ -4,14 +4,23 @@
  */
 
 import java.io.Serializable; 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 
 public abstract class Player implements Serializable {
 
+	//the value computed for the first version of the class, so older player files still load
+	private static final long serialVersionUID = 2495914775918134650L;
 	private static final double EPSILON = 0.00001; 
 	private static final int EQUAL = 0; 
 	private static final int LESS_THAN = -1; 
 	private static final int GREATER_THAN = 1; 
+	private static final ScheduledThreadPoolExecutor searchTimer = createSearchTimer(); 
 
+	protected int playerId; //unique number identifying the player in game records
 	protected String username;
 	protected String familyName; 
 	protected String givenName; 
@@ -57,6 +66,11 @@ public abstract class Player implements Serializable {
 	}    
 
 	/* Accessors */
+	public int getPlayerId() {
+
+		return this.playerId;
+	}
+
 	public String getUsername() {
 
 		return new String(this.username);
@@ -98,6 +112,11 @@ public abstract class Player implements Serializable {
 	}
 
 	/* Mutators */
+	public void setPlayerId(int playerId) {
+
+		this.playerId = playerId; 
+	}
+
 	public void setUsername(String username) {
 
 		this.username = username; 
@@ -128,6 +147,16 @@ public abstract class Player implements Serializable {
 		this.gamesDrawnCount++; 
 	}
 
+	/* Adds the results of a batch of games, such as a tournament, and recalculates the ratios */ 
+	public void addGameResults(int gamesPlayed, int gamesWon, int gamesDrawn) {
+
+		this.gamesPlayedCount += gamesPlayed; 
+		this.gamesWonCount += gamesWon; 
+		this.gamesDrawnCount += gamesDrawn; 
+		updateWinRatio(); 
+		updateDrawRatio(); 
+	}
+
 	/* Returns a string of player information */ 
 	public String toString() {
 
@@ -226,9 +255,94 @@ public abstract class Player implements Serializable {
 
 	/* Returns the calling player's selected next move */ 
 	protected abstract Move makeMove(char[][] gameBoard);
+
+	/* Returns the calling player's selected next move on the input board. By default the move is
+	 * selected from a grid of the board's symbols. 
+	 */ 
+	protected Move makeMove(Board board) {
+
+		return makeMove(board.toGrid());
+	}
+
+	/* Returns a future for the calling player's selected next move, which should complete within 
+	 * the time budget. By default the move is selected synchronously. 
+	 */ 
+	protected CompletableFuture<Move> makeMoveAsync(Board board, long timeBudgetMillis) {
+
+		return CompletableFuture.completedFuture(makeMove(board));
+	}
+
+	/* Runs the input search for the best move on a copy of the board, on the calling thread, and 
+	 * returns a future completed with its move. The time budget starts when the search does, so 
+	 * the move never depends on how long the caller waited for a thread, and games played in 
+	 * parallel (e.g. by a tournament) each search on their own thread. If the search has not 
+	 * finished within the budget it is cancelled through its context, and the best move it has 
+	 * found so far is used instead, or the first empty cell if it has found none. 
+	 */ 
+	protected static CompletableFuture<Move> makeTimedMove(Board board, long timeBudgetMillis, 
+		BiFunction<Board, SearchContext, Move> search) {
+
+		//search a copy, leaving the game's board as it is
+		Board searchBoard = new Board(board); 
+		SearchContext context = new SearchContext();
+
+		//any legal move will do if time runs out before the search has found one
+		int[] emptyCells = new int[searchBoard.getCellCount()]; 
+		if (searchBoard.findEmptyCells(emptyCells) > 0) {
+			context.setBestCellSoFar(emptyCells[0]); 
+		}
+
+		ScheduledFuture<?> timeout = searchTimer.schedule(() -> context.cancel(), 
+			timeBudgetMillis, TimeUnit.MILLISECONDS); 
+		Move move = search.apply(searchBoard, context); 
+
+		if (!timeout.cancel(false)) {
+			//out of time, so the search was stopped: use what it had found
+			move = searchBoard.toMove(context.getBestCellSoFar()); 
+		}
+
+		return CompletableFuture.completedFuture(move);
+	}
+
+	/* Lets the calling player think about the board while the other player is selecting their 
+	 * move. By default the player does nothing. 
+	 */ 
+	protected void startPondering(Board board) {}
+
+	/* Stops any thinking started by startPondering */ 
+	protected void stopPondering() {}
+
+	/* Returns the cell (see QubicBoard) of the calling player's selected next move in a game of 
+	 * Qubic, which should be chosen within the time budget. By default the first empty cell is 
+	 * selected. 
+	 */ 
+	protected int makeQubicMove(QubicBoard board, long timeBudgetMillis) {
+
+		for (int cell = 0; cell < QubicBoard.CELL_COUNT; cell++) {
+			if (board.isEmpty(cell)) {
+				return cell; 
+			}
+		}
+		return QubicBoard.NO_CELL; 
+	}
 	
 	/* Makes a copy of the calling player and returns a reference to the copy */ 
 	protected abstract Player makeCopy();
+
+	/* Returns the timer that cancels searches that run out of time, on a single daemon thread. 
+	 * Timeouts are removed as soon as they are cancelled, as almost every search finishes in time.
+	 */ 
+	private static ScheduledThreadPoolExecutor createSearchTimer() {
+
+		ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread timerThread = new Thread(runnable); 
+			timerThread.setDaemon(true); 
+			return timerThread; 
+		}); 
+		timer.setRemoveOnCancelPolicy(true); 
+
+		return timer; 
+	}
 }
 
 
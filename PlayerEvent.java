@@ -0,0 +1,63 @@
+/*
+ * Class that describes a change to the players, streamed by a ReplicationLeader to its followers 
+ * in the order the changes were made. Changes carry the resulting state of the players rather 
+ * than the command that made them, so a follower applies them without repeating any checks or 
+ * printing anything. Adds, edits, game results and resets are all sent as the changed players. 
+ * A follower's first event is a snapshot of all the players. Each event also carries the epoch 
+ * of the leader that sent it (see ReplicationFollower).
+ */
+
+import java.io.Serializable;
+
+public class PlayerEvent implements Serializable {
+
+	//fixed, so followers can still read events after the class is recompiled
+	private static final long serialVersionUID = -7068573459714392190L;
+
+	public enum Type {
+		SNAPSHOT, PLAYERS_CHANGED, PLAYERS_REMOVED, ALL_PLAYERS_REMOVED
+	}
+
+	private final long sequenceNumber;
+	private final long epoch; //of the leader that sent the event
+	private final Type type;
+	private final Player[] players; //changed players, or all players for a snapshot
+	private final String[] usernames; //removed players
+
+	/* Constructor */
+	public PlayerEvent(long sequenceNumber, long epoch, Type type, Player[] players, 
+		String[] usernames) {
+
+		this.sequenceNumber = sequenceNumber;
+		this.epoch = epoch;
+		this.type = type;
+		this.players = players;
+		this.usernames = usernames;
+	}
+
+	/* Accessors */
+	public long getSequenceNumber() {
+
+		return this.sequenceNumber;
+	}
+
+	public long getEpoch() {
+
+		return this.epoch;
+	}
+
+	public Type getType() {
+
+		return this.type;
+	}
+
+	public Player[] getPlayers() {
+
+		return this.players;
+	}
+
+	public String[] getUsernames() {
+
+		return this.usernames;
+	}
+}
\ No newline at end of file
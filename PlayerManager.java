@@ -1,8 +1,18 @@
 /* 
  * Class that manages all the players in the Tic Tac Toe game system and executes operations on the 
- * set of players. Players are stored in an array called playerArray. When the display ranking 
- * method is called they are also stored in another array called rankingAray which is sorted 
- * according to player rank. The number of players is kept track of and stored in playerCount.
+ * set of players. Players are stored in an array called playerArray. The number of players is 
+ * kept track of and stored in playerCount.
+ *
+ * The players can be imported in the background, so the program can start taking commands 
+ * straight away. Every operation on the players first waits for the import to finish. 
+ *
+ * Whenever the players change, they are sorted according to player rank into a new immutable 
+ * RankingSnapshot, which replaces the previous one atomically. Readers of the rankings, on any 
+ * thread, just take the current snapshot, without locking or copying. 
+ *
+ * A player manager can also hold one shard of the players (see ShardWorker), in which case it 
+ * saves them to its own file and gives out only every n-th player id, so that ids stay unique 
+ * across the shards. 
  */
 
 import java.util.Arrays;
@@ -12,7 +22,10 @@ import java.io.FileOutputStream;
 import java.io.ObjectInputStream; 
 import java.io.FileInputStream; 
 import java.io.IOException;
+import java.io.EOFException; 
 import java.io.FileNotFoundException; 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class PlayerManager {
 
@@ -21,20 +34,46 @@ public class PlayerManager {
 	private static final int PERCENT_MULTIPLIER = 100;
 	private static final int MAX_RANKS_TO_PRINT = 10; 
 	private static final String EMPTY_STRING = "";
+	private static final String BASIC_AI_TYPE = "basic"; 
+	private static final String ADVANCED_AI_TYPE = "advanced"; 
+	private static final String TABLEBASE_AI_TYPE = "tablebase"; 
+	private static final String THREAT_SPACE_AI_TYPE = "threatspace"; 
+	private static final String LEARNING_AI_TYPE = "learning"; 
+	private static final int FIRST_PLAYER_ID = 1; 
+	private static final int MAX_GAMES_TO_PRINT = 10; 
+	private static final String DEFAULT_FILE_NAME = "players.dat"; 
 
 	private Player[] playerArray = new Player[MAX_PLAYER_COUNT];
-	private Player[] rankingArray;
+	private final AtomicReference<RankingSnapshot> rankingSnapshot = 
+		new AtomicReference<RankingSnapshot>(new RankingSnapshot(0, new Player[0], 0));
 	private int playerCount;
+	private int nextPlayerId; //saved, so ids are never reused and game records stay unambiguous
+	private int playerIdStep; //gap between the ids given out
+	private String fileName; //where the players are saved
+	private volatile CompletableFuture<Void> playerImport = CompletableFuture.completedFuture(null);
 
-	/* Constructor */
+	/* Constructors */
 	public PlayerManager() {
 
+		this(DEFAULT_FILE_NAME, 0, 1); 
+	} 
+
+	/* Creates a player manager that saves its players to the input file and gives out the player 
+	 * ids FIRST_PLAYER_ID + playerIdOffset, then every playerIdStep-th id after it. 
+	 */ 
+	public PlayerManager(String fileName, int playerIdOffset, int playerIdStep) {
+
 		this.playerCount = 0; 
+		this.nextPlayerId = FIRST_PLAYER_ID + playerIdOffset; 
+		this.playerIdStep = playerIdStep; 
+		this.fileName = fileName; 
 	} 
 
 	/* Accessors */
 	public Player getPlayer(String username) {
 
+		waitForPlayers(); 
+
 		int playerIndex = findPlayerIndex(username);
 		if (playerIndex == NOT_FOUND) {
 			return null; 
@@ -45,26 +84,102 @@ public class PlayerManager {
 
 	public Player[] getPlayerArray() {
 
+		waitForPlayers(); 
+
 		return Arrays.copyOf(this.playerArray, this.playerArray.length);
 	}
 
-	public Player[] getRankingArray() {
+	/* Returns the current leaderboard, which is never changed once published */ 
+	public RankingSnapshot getRankingSnapshot() {
+
+		waitForPlayers(); 
 
-		return Arrays.copyOf(this.rankingArray, this.rankingArray.length);
+		return this.rankingSnapshot.get();
 	}
 
 	public int getPlayerCount() {
 
+		waitForPlayers(); 
+
 		int playerCountCopy = playerCount;
 		return playerCountCopy;
 	}
 
+	/* Returns the id the next player added will get */ 
+	public int getNextPlayerId() {
+
+		waitForPlayers(); 
+
+		return this.nextPlayerId;
+	}
+
+	/* Returns copies of all the AI players, in alphabetic order */ 
+	public Player[] getAIPlayers() {
+
+		waitForPlayers(); 
+
+		Player[] aiPlayers = new Player[playerCount]; 
+		int aiPlayerCount = 0; 
+		for (int i = 0; i < playerCount; i++) {
+			if (!(playerArray[i] instanceof HumanPlayer)) {
+				aiPlayers[aiPlayerCount] = playerArray[i].makeCopy(); 
+				aiPlayerCount++; 
+			}
+		}
+
+		return Arrays.copyOf(aiPlayers, aiPlayerCount);
+	}
+
 	/* Mutator */ 
 	public void setPlayer(Player player) {
 
+		waitForPlayers(); 
+
 		int playerIndex = findPlayerIndex(player.getUsername());
 		
 		playerArray[playerIndex] = player; 
+		publishRanking(); 
+	}
+
+	/* Adds the results of a finished tournament to the stats of its players. All the results are 
+	 * added before the new ranking is published, so readers of the rankings see either none of the 
+	 * tournament or all of it. 
+	 */
+	public void addTournamentResults(Tournament tournament, TournamentResults results) {
+
+		Player[] entrants = tournament.getEntrants(); 
+		String[] usernames = new String[entrants.length]; 
+		int[] gamesPlayedCounts = new int[entrants.length]; 
+		int[] gamesWonCounts = new int[entrants.length]; 
+		int[] gamesDrawnCounts = new int[entrants.length]; 
+
+		for (int i = 0; i < entrants.length; i++) {
+			usernames[i] = entrants[i].getUsername(); 
+			gamesPlayedCounts[i] = results.getGamesPlayedCount(i); 
+			gamesWonCounts[i] = results.getGamesWonCount(i); 
+			gamesDrawnCounts[i] = results.getGamesDrawnCount(i); 
+		}
+
+		addGameResults(usernames, gamesPlayedCounts, gamesWonCounts, gamesDrawnCounts); 
+	}
+
+	/* Adds the results of a batch of games to the stats of the players with the input usernames, 
+	 * then publishes the new ranking. 
+	 */
+	public void addGameResults(String[] usernames, int[] gamesPlayedCounts, int[] gamesWonCounts, 
+		int[] gamesDrawnCounts) {
+
+		waitForPlayers(); 
+
+		for (int i = 0; i < usernames.length; i++) {
+			int playerIndex = findPlayerIndex(usernames[i]);
+			if (playerIndex != NOT_FOUND) {
+				playerArray[playerIndex].addGameResults(gamesPlayedCounts[i], gamesWonCounts[i], 
+					gamesDrawnCounts[i]); 
+			}
+		}
+
+		publishRanking(); 
 	}
 
 	/* Creates a new human player with the input username, family name, and given name and then adds  
@@ -73,6 +188,8 @@ public class PlayerManager {
 	 */
 	public void addPlayer(String username, String familyName, String givenName) {
 
+		waitForPlayers(); 
+
 		//check if username already taken
 		if (findPlayerIndex(username) != NOT_FOUND) {
 			System.out.println("The username has been used already.");
@@ -81,6 +198,8 @@ public class PlayerManager {
 
 		//create player
 		HumanPlayer newPlayer = new HumanPlayer(username, familyName, givenName);
+		newPlayer.setPlayerId(nextPlayerId);
+		nextPlayerId += playerIdStep; 
 
 		//work out where to insert player into array to satisfy alphabetic order
 		for (int i = 0; i < playerCount; i++) {
@@ -95,12 +214,23 @@ public class PlayerManager {
 		insertElement(newPlayer, playerCount);
 	}
 
-	/* Creates a new AI player with the input username, family name, and given name and then adds  
-	 * it to the player array (that stores all the players in the game system) while maintaining 
-	 * alphabetic order within array.
+	/* Creates a new basic AI player with the input username, family name, and given name and then 
+	 * adds it to the player array (that stores all the players in the game system) while 
+	 * maintaining alphabetic order within array.
 	 */
 	public void addAIPlayer(String username, String familyName, String givenName) {
 
+		addAIPlayer(username, familyName, givenName, BASIC_AI_TYPE);
+	}
+
+	/* Creates a new AI player of the input type ("basic", "advanced" or "tablebase") with the 
+	 * input username, family name, and given name and then adds it to the player array (that 
+	 * stores all the players in the game system) while maintaining alphabetic order within array.
+	 */
+	public void addAIPlayer(String username, String familyName, String givenName, String aiType) {
+
+		waitForPlayers(); 
+
 		//check if username already taken
 		if (findPlayerIndex(username) != NOT_FOUND) {
 			System.out.println("The username has been used already.");
@@ -108,7 +238,25 @@ public class PlayerManager {
 		}
 
 		//create player
-		AIPlayer newPlayer = new AIPlayer(username, familyName, givenName);
+		Player newPlayer; 
+		if (aiType.equals(BASIC_AI_TYPE)) {
+			newPlayer = new AIPlayer(username, familyName, givenName);
+		} else if (aiType.equals(ADVANCED_AI_TYPE)) {
+			newPlayer = new AdvancedAIPlayer(username, familyName, givenName);
+		} else if (aiType.equals(TABLEBASE_AI_TYPE)) {
+			newPlayer = new TablebasePlayer(username, familyName, givenName);
+		} else if (aiType.equals(THREAT_SPACE_AI_TYPE)) {
+			newPlayer = new ThreatSpacePlayer(username, familyName, givenName);
+		} else if (aiType.equals(LEARNING_AI_TYPE)) {
+			newPlayer = new LearningPlayer(username, familyName, givenName);
+		} else {
+			System.out.println("The AI type must be " + BASIC_AI_TYPE + ", " + ADVANCED_AI_TYPE + 
+				", " + TABLEBASE_AI_TYPE + ", " + THREAT_SPACE_AI_TYPE + " or " + 
+				LEARNING_AI_TYPE + ".");
+			return; 
+		}
+		newPlayer.setPlayerId(nextPlayerId);
+		nextPlayerId += playerIdStep; 
 
 		//work out where to insert player into array to satisfy alphabetic order
 		for (int i = 0; i < playerCount; i++) {
@@ -129,6 +277,8 @@ public class PlayerManager {
 	 */
 	public void removePlayer(String username) {
 
+		waitForPlayers(); 
+
 		//check for remove all players command
 		if (username.equals(EMPTY_STRING)) {
 
@@ -136,8 +286,7 @@ public class PlayerManager {
 
 			//get input
 			if (TicTacToe.keyboard.nextLine().toLowerCase().equals("y")) {
-				//remove all players by reseting player count so all elements may be overwritten
-				playerCount = 0; 
+				removeAllPlayers(); 
 			} 
 			return; 
 		}
@@ -153,11 +302,23 @@ public class PlayerManager {
 		removeElement(playerIndex);	
 	}
 
+	/* Removes all players from the player array, without asking for confirmation */ 
+	public void removeAllPlayers() {
+
+		waitForPlayers(); 
+
+		//remove all players by reseting player count so all elements may be overwritten
+		playerCount = 0; 
+		publishRanking(); 
+	}
+
 	/* Locates player in player array corresponding to the input username and updates player with
 	 * the given family name and given name.
 	 */ 
 	public void editPlayer(String username, String familyName, String givenName) {
 
+		waitForPlayers(); 
+
 		//find player in player array
 		int playerIndex = findPlayerIndex(username);
 
@@ -177,6 +338,8 @@ public class PlayerManager {
 	 */ 
 	public void resetStats(String username) {
 
+		waitForPlayers(); 
+
 		//check for reset all player stats command
 		if (username.equals(EMPTY_STRING)) {
 
@@ -184,10 +347,7 @@ public class PlayerManager {
 			System.out.println("Are you sure you want to reset all player statistics? (y/n)");
 
 			if (TicTacToe.keyboard.nextLine().toLowerCase().equals("y")) {
-
-				for (int i = 0; i < playerCount; i++) {
-					playerArray[i].resetStats();
-				}
+				resetAllStats(); 
 			} 
 			return; 
 		}
@@ -201,6 +361,78 @@ public class PlayerManager {
 
 		//reset parameters
 		playerArray[playerIndex].resetStats(); 
+		publishRanking(); 
+	}
+
+	/* Resets the gameplay statistics of all players, without asking for confirmation */ 
+	public void resetAllStats() {
+
+		waitForPlayers(); 
+
+		for (int i = 0; i < playerCount; i++) {
+			playerArray[i].resetStats();
+		}
+		publishRanking(); 
+	}
+
+	/* Adds each of the input players, or replaces the player with the same username, then 
+	 * publishes the new ranking. Prints nothing, as it is used to copy changes already made by 
+	 * another player manager (see ReplicatedPlayerManager). 
+	 */ 
+	public void putPlayers(Player[] players) {
+
+		waitForPlayers(); 
+
+		for (Player player : players) {
+			int playerIndex = findPlayerIndex(player.getUsername());
+			if (playerIndex != NOT_FOUND) {
+				playerArray[playerIndex] = player; 
+			} else {
+				//work out where to insert player into array to satisfy alphabetic order
+				int insertIndex = 0; 
+				while (insertIndex < playerCount && 
+					playerArray[insertIndex].getUsername().compareTo(player.getUsername()) < 0) {
+					insertIndex++; 
+				}
+				insertElement(player, insertIndex); 
+			}
+
+			//never give out an id that the other player manager has used
+			skipPlayerIdsUpTo(player.getPlayerId()); 
+		}
+
+		publishRanking(); 
+	}
+
+	/* Makes sure no id up to and including the input id is given out from now on, e.g. because 
+	 * another player manager has used it 
+	 */ 
+	public void reservePlayerIds(int lastUsedId) {
+
+		waitForPlayers(); 
+
+		skipPlayerIdsUpTo(lastUsedId); 
+	}
+
+	/* Removes the players with the input usernames, if they exist. Prints nothing, as it is used 
+	 * to copy changes already made by another player manager. 
+	 */ 
+	public void deletePlayers(String[] usernames) {
+
+		waitForPlayers(); 
+
+		for (String username : usernames) {
+			int playerIndex = findPlayerIndex(username);
+			if (playerIndex != NOT_FOUND) {
+				removeElement(playerIndex); 
+			}
+		}
+	}
+
+	/* Returns true if the players can't be changed through this player manager */ 
+	public boolean isReadOnly() {
+
+		return false; 
 	}
 
 	/* Locates player in player array corresponding to the input username and displays the 
@@ -209,6 +441,8 @@ public class PlayerManager {
 	 */
 	public void displayPlayer(String username) {
 
+		waitForPlayers(); 
+
 		//check for display all players command
 		if (username.equals(EMPTY_STRING)) {
 			for (int i = 0; i < playerCount; i++) {
@@ -228,21 +462,76 @@ public class PlayerManager {
 		System.out.println(playerArray[playerIndex].toString()); 
 	}
 
+	/* Prints the most recent games of the player corresponding to the input username, as stored 
+	 * in the game history. 
+	 */ 
+	public void displayGameHistory(String username, GameHistory gameHistory) {
+
+		waitForPlayers(); 
+
+		//find player 
+		int playerIndex = findPlayerIndex(username);
+		if (playerIndex == NOT_FOUND) {
+			System.out.println("The player does not exist.");
+			return; 
+		}
+
+		printGameHistory(playerArray[playerIndex], gameHistory); 
+	}
+
+	/* Prints the most recent games of the input player, as stored in the game history */ 
+	protected void printGameHistory(Player player, GameHistory gameHistory) {
+
+		long[] records = gameHistory.getPlayerRecords(player.getPlayerId(), MAX_GAMES_TO_PRINT);
+
+		for (int i = 0; i < records.length; i++) {
+			String player1Username = findUsername(GameRecord.getPlayer1Id(records[i]));
+			String player2Username = findUsername(GameRecord.getPlayer2Id(records[i]));
+
+			System.out.print(player1Username + " vs " + player2Username + ": ");
+
+			if (GameRecord.getResult(records[i]) == GameRecord.PLAYER_1_WON) {
+				System.out.print(player1Username + " won");
+			} else if (GameRecord.getResult(records[i]) == GameRecord.PLAYER_2_WON) {
+				System.out.print(player2Username + " won");
+			} else {
+				System.out.print("draw");
+			}
+
+			System.out.print(", moves:");
+			for (int move = 0; move < GameRecord.getMoveCount(records[i]); move++) {
+				int cell = GameRecord.getMoveCell(records[i], move);
+				System.out.print(" " + cell/GameManager.DEFAULT_GRID_SIZE + "," + 
+					cell%GameManager.DEFAULT_GRID_SIZE);
+			}
+			System.out.println(); 
+		}
+	}
+
 	/* Prints a leaderboard of the top players in the game system based on ranking. */
 	public void displayRanking() {
+
+		waitForPlayers(); 
+
+		printRanking(rankingSnapshot.get()); 
+	}
+
+	/* Sorts the players by ranking and publishes them as the new ranking snapshot */ 
+	private void publishRanking() {
 		
 		//copy over players from player array that stores all the players in the game system
-		rankingArray = Arrays.copyOf(playerArray, playerCount);
+		Player[] rankingArray = Arrays.copyOf(playerArray, playerCount);
 
 		//sort players by ranking
-		sortRankingArray();
+		sortRankingArray(rankingArray);
 
-		//print 
-		printRankingArray(); 
+		//only this thread changes the players, so the version can't be taken by another snapshot
+		long version = rankingSnapshot.get().getVersion() + 1; 
+		rankingSnapshot.set(new RankingSnapshot(version, rankingArray, playerCount)); 
 	}
 
 	/* Sorts the ranking array in order of descending rank using a selection sort algorithm */
-	private void sortRankingArray() {
+	private void sortRankingArray(Player[] rankingArray) {
 
 		Player topPlayer; //stores top player found so far in unsorted section of array
 		int topPlayerIndex; 
@@ -270,21 +559,23 @@ public class PlayerManager {
 		}
 	}
 
-	/* Prints the ranking array, with additonal formatting, up to a predefined number of players */
-	private void printRankingArray() {
+	/* Prints the ranking snapshot, with additonal formatting, up to a predefined number of 
+	 * players 
+	 */
+	protected void printRanking(RankingSnapshot ranking) {
 
 		System.out.println(" WIN  | DRAW | GAME | USERNAME");
 
-		for (int i = 0; i < playerCount && i < MAX_RANKS_TO_PRINT; i++) {
+		for (int i = 0; i < ranking.getPlayerCount() && i < MAX_RANKS_TO_PRINT; i++) {
 			System.out.printf(" %3d%%", 
-					Math.round(rankingArray[i].getWinRatio()*PERCENT_MULTIPLIER)); 
+					Math.round(ranking.getWinRatio(i)*PERCENT_MULTIPLIER)); 
 			System.out.print(" | ");
 			System.out.printf("%3d%%", 
-				Math.round(rankingArray[i].getDrawRatio()*PERCENT_MULTIPLIER));
+				Math.round(ranking.getDrawRatio(i)*PERCENT_MULTIPLIER));
 			System.out.print(" | ");
-			System.out.printf("%2d  ", rankingArray[i].getGamesPlayedCount());
+			System.out.printf("%2d  ", ranking.getGamesPlayedCount(i));
 			System.out.print(" | ");
-			System.out.println(rankingArray[i].getUsername());
+			System.out.println(ranking.getUsername(i));
 		}
 	}
 
@@ -303,6 +594,30 @@ public class PlayerManager {
 		return NOT_FOUND; 
 	}
 
+	/* Returns the username of the player with the input player id, or "?" if there is no such 
+	 * player (e.g. the player has been removed). 
+	 */ 
+	protected String findUsername(int playerId) {
+
+		for (int i = 0; i < playerCount; i++) {
+			if (playerArray[i].getPlayerId() == playerId) {
+				return playerArray[i].getUsername(); 
+			}
+		}
+
+		return "?"; 
+	}
+
+	/* Moves the next player id past the input id, in steps of the player id step, so that the 
+	 * ids given out stay the ones this player manager owns (see ShardWorker) 
+	 */ 
+	private void skipPlayerIdsUpTo(int usedId) {
+
+		if (nextPlayerId <= usedId) {
+			nextPlayerId += ((usedId - nextPlayerId)/playerIdStep + 1)*playerIdStep; 
+		}
+	}
+
 	/* Inserts player into the player array at the specified index */
 	private void insertElement(Player player, int elementIndex) {
 
@@ -314,6 +629,7 @@ public class PlayerManager {
 		//insert element
 		playerArray[elementIndex] = player; 
 		playerCount++; 
+		publishRanking(); 
 	}
 
 	/* Removes player from the player array at the specified index */ 
@@ -326,16 +642,22 @@ public class PlayerManager {
 
 		playerArray[playerCount-1] = null; 
 		playerCount--; //decrement player count
+		publishRanking(); 
 	}
 
-	/* Saves the player array to file in a binary format */ 
+	/* Saves the player array to file in a binary format, followed by the next player id to give 
+	 * out 
+	 */ 
 	public void exportPlayerArray() {
 
+		waitForPlayers(); 
+
 		try {
-			FileOutputStream fileOut = new FileOutputStream("players.dat");
+			FileOutputStream fileOut = new FileOutputStream(fileName);
 			ObjectOutputStream outputStream = new ObjectOutputStream(fileOut);
 
 			outputStream.writeObject(playerArray);
+			outputStream.writeInt(nextPlayerId); 
 			outputStream.close(); 
 			fileOut.close(); 
 		} 
@@ -345,22 +667,54 @@ public class PlayerManager {
 		}
 	}
 
+	/* Starts importing the saved player array in the background, and returns straight away */ 
+	public void importPlayerArrayInBackground() {
+
+		playerImport = CompletableFuture.runAsync(() -> importPlayerArray()); 
+	}
+
+	/* Waits until any background import of the players has finished */ 
+	private void waitForPlayers() {
+
+		playerImport.join(); 
+	}
+
 	/* Imports a previously saved player array from a file in a binary format */ 
 	public void importPlayerArray() {
 
 		try {
-			FileInputStream fileIn = new FileInputStream("players.dat");
+			FileInputStream fileIn = new FileInputStream(fileName);
 			ObjectInputStream inputStream = new ObjectInputStream(fileIn);
 
 			playerArray = (Player[]) inputStream.readObject(); 
+
+			//the saved next player id is kept even if the players who had the ids before it 
+			//have been removed
+			try {
+				nextPlayerId = Math.max(nextPlayerId, inputStream.readInt()); 
+			}
+			catch (EOFException e) {
+				//saved before the next player id was, so work it out from the players alone
+			}
 			
-			//update player count
+			//update player count and work out the next unused player id
 			for (int i = 0; i < playerArray.length && playerArray[i] != null; i++) {
 				playerCount++;
+				skipPlayerIdsUpTo(playerArray[i].getPlayerId()); 
+			}
+
+			//give an id to any player saved before ids existed
+			for (int i = 0; i < playerCount; i++) {
+				if (playerArray[i].getPlayerId() < FIRST_PLAYER_ID) {
+					playerArray[i].setPlayerId(nextPlayerId);
+					nextPlayerId += playerIdStep; 
+				}
 			}
 
 			inputStream.close(); 
 			fileIn.close(); 
+
+			publishRanking(); 
 		} 
 		catch (FileNotFoundException e) {
 			//assume this is the first instance of TicTacToe so do nothing
@@ -0,0 +1,74 @@
+/*
+ * Class that caches the answers of the BestMoveService by position, holding at most a fixed 
+ * number of answers and discarding the least recently used when full. Positions are keyed by 
+ * their canonical form (see BestMoveService), so the 8 symmetries of a position share one answer. 
+ * All methods are synchronized, as the cache is shared by every request thread.
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class PositionCache {
+
+	public static final int NOT_FOUND = -1;
+
+	private final int capacity;
+	private final LinkedHashMap<Long, Integer> answers;
+	private long hitCount;
+	private long missCount;
+
+	/* Constructor */
+	public PositionCache(int capacity) {
+
+		this.capacity = capacity;
+		this.hitCount = 0;
+		this.missCount = 0;
+
+		//iterate in access order, so the eldest entry is the least recently used
+		this.answers = new LinkedHashMap<Long, Integer>(16, 0.75f, true) {
+			protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+				return size() > PositionCache.this.capacity;
+			}
+		};
+	}
+
+	/* Accessors */
+	public synchronized int getSize() {
+
+		return this.answers.size();
+	}
+
+	public int getCapacity() {
+
+		return this.capacity;
+	}
+
+	public synchronized long getHitCount() {
+
+		return this.hitCount;
+	}
+
+	public synchronized long getMissCount() {
+
+		return this.missCount;
+	}
+
+	/* Returns the answer stored for the position with the input key, or NOT_FOUND if none */
+	public synchronized int get(long positionKey) {
+
+		Integer answer = answers.get(positionKey);
+		if (answer == null) {
+			missCount++;
+			return NOT_FOUND;
+		}
+
+		hitCount++;
+		return answer;
+	}
+
+	/* Mutator */
+	public synchronized void put(long positionKey, int answer) {
+
+		answers.put(positionKey, answer);
+	}
+}
\ No newline at end of file
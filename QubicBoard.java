@@ -0,0 +1,263 @@
+/*
+ * Class that stores a 4x4x4 board for the three dimensional game of Qubic, where a player wins by
+ * placing 4 symbols in a row along any of the 76 lines through the cube (rows, columns and pillars,
+ * the diagonals of every plane, and the 4 diagonals through the centre of the cube). The cube has
+ * exactly 64 cells, so each player's symbols are packed into a single long with one bit per cell,
+ * and each line is a precomputed mask of its 4 cells. A win is detected by only checking the lines
+ * through the cell just played.
+ *
+ * Cells are numbered layer by layer, then row by row, so cell = layer*16 + row*4 + column. Player O
+ * always moves first.
+ */
+
+public class QubicBoard {
+
+	public static final int SIZE = 4;
+	public static final int CELL_COUNT = SIZE*SIZE*SIZE;
+	public static final int LINE_COUNT = 76;
+	public static final int NO_CELL = -1;
+
+	private static final int PLAYER_COUNT = 2;
+	private static final long[] LINES = new long[LINE_COUNT]; //cells of each line, one bit per cell
+	private static final int[][] CELL_LINES = new int[CELL_COUNT][]; //lines through each cell
+
+	static {
+		int lineCount = 0;
+
+		//every direction of a line, only counting one of each pair of opposite directions
+		for (int layerStep = -1; layerStep <= 1; layerStep++) {
+			for (int rowStep = -1; rowStep <= 1; rowStep++) {
+				for (int columnStep = -1; columnStep <= 1; columnStep++) {
+
+					if (!isForwardDirection(layerStep, rowStep, columnStep)) {
+						continue;
+					}
+
+					for (int cell = 0; cell < CELL_COUNT; cell++) {
+						long line = createLine(cell, layerStep, rowStep, columnStep);
+						if (line != 0) {
+							LINES[lineCount] = line;
+							lineCount++;
+						}
+					}
+				}
+			}
+		}
+
+		for (int cell = 0; cell < CELL_COUNT; cell++) {
+			int cellLineCount = 0;
+			int[] cellLines = new int[LINE_COUNT];
+			for (int line = 0; line < LINE_COUNT; line++) {
+				if ((LINES[line] & (1L << cell)) != 0) {
+					cellLines[cellLineCount] = line;
+					cellLineCount++;
+				}
+			}
+			CELL_LINES[cell] = new int[cellLineCount];
+			System.arraycopy(cellLines, 0, CELL_LINES[cell], 0, cellLineCount);
+		}
+	}
+
+	private long[] playerBits = new long[PLAYER_COUNT]; //indexed by player, bit n is cell n
+	private int moveCount;
+	private int winner;
+
+	/* Constructors */
+	public QubicBoard() {
+
+		this.winner = Board.NO_PLAYER;
+	}
+
+	public QubicBoard(QubicBoard other) {
+
+		this.playerBits = other.playerBits.clone();
+		this.moveCount = other.moveCount;
+		this.winner = other.winner;
+	}
+
+	/* Returns the cell at the input coordinates, or NO_CELL if they are outside the cube */
+	public static int getCell(int layer, int row, int column) {
+
+		if (layer < 0 || layer >= SIZE || row < 0 || row >= SIZE || column < 0 || column >= SIZE) {
+			return NO_CELL;
+		}
+		return layer*SIZE*SIZE + row*SIZE + column;
+	}
+
+	/* Returns the mask of the cells in the line with the input number */
+	public static long getLine(int line) {
+
+		return LINES[line];
+	}
+
+	/* Returns the numbers of the lines through the cell. The array is shared, so must not be
+	 * changed.
+	 */
+	public static int[] getCellLines(int cell) {
+
+		return CELL_LINES[cell];
+	}
+
+	/* Accessors */
+	public int getMoveCount() {
+
+		return this.moveCount;
+	}
+
+	public int getWinner() {
+
+		return this.winner;
+	}
+
+	public boolean hasWinner() {
+
+		return this.winner != Board.NO_PLAYER;
+	}
+
+	public boolean isFull() {
+
+		return this.moveCount == CELL_COUNT;
+	}
+
+	/* Returns the player whose turn it is to move */
+	public int getPlayerToMove() {
+
+		return this.moveCount % PLAYER_COUNT;
+	}
+
+	/* Returns the mask of the cells holding the player's symbols */
+	public long getPlayerBits(int player) {
+
+		return this.playerBits[player];
+	}
+
+	/* Returns the mask of the cells holding either player's symbols */
+	public long getOccupiedBits() {
+
+		return this.playerBits[Board.PLAYER_O] | this.playerBits[Board.PLAYER_X];
+	}
+
+	public boolean isEmpty(int cell) {
+
+		return (getOccupiedBits() & (1L << cell)) == 0;
+	}
+
+	/* Returns the player whose symbol is in the cell, or Board.NO_PLAYER if it is empty */
+	public int getPlayer(int cell) {
+
+		if ((playerBits[Board.PLAYER_O] & (1L << cell)) != 0) {
+			return Board.PLAYER_O;
+		} else if ((playerBits[Board.PLAYER_X] & (1L << cell)) != 0) {
+			return Board.PLAYER_X;
+		}
+		return Board.NO_PLAYER;
+	}
+
+	/* Mutators */
+
+	/* Places the symbol of the player to move in the empty cell. Returns true if the move wins */
+	public boolean play(int cell) {
+
+		int player = getPlayerToMove();
+		playerBits[player] |= 1L << cell;
+		moveCount++;
+
+		for (int line : CELL_LINES[cell]) {
+			if ((playerBits[player] & LINES[line]) == LINES[line]) {
+				winner = player;
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/* Removes the symbol from the cell, which must hold the last move played */
+	public void undo(int cell) {
+
+		moveCount--;
+		playerBits[getPlayerToMove()] &= ~(1L << cell);
+		winner = Board.NO_PLAYER;
+	}
+
+	/* Prints the board as its 4 layers side by side */
+	public void print() {
+
+		for (int layer = 0; layer < SIZE; layer++) {
+			System.out.print("Layer " + layer + "  ");
+		}
+		System.out.println();
+
+		for (int row = 0; row < SIZE; row++) {
+			for (int layer = 0; layer < SIZE; layer++) {
+				for (int column = 0; column < SIZE; column++) {
+
+					System.out.print(getSymbol(getCell(layer, row, column)));
+
+					if (column < SIZE-1) {
+						System.out.print("|");
+					}
+				}
+				System.out.print("  ");
+			}
+
+			System.out.println();
+
+			if (row < SIZE-1) {
+				for (int layer = 0; layer < SIZE; layer++) {
+					for (int i = 0; i < 2*SIZE-1; i++) {
+						System.out.print("-");
+					}
+					System.out.print("  ");
+				}
+				System.out.println();
+			}
+		}
+	}
+
+	private char getSymbol(int cell) {
+
+		int player = getPlayer(cell);
+		if (player == Board.NO_PLAYER) {
+			return Board.EMPTY_SYMBOL;
+		}
+		return Board.getSymbol(player);
+	}
+
+	/* Returns true for one direction out of each pair of opposite directions */
+	private static boolean isForwardDirection(int layerStep, int rowStep, int columnStep) {
+
+		if (layerStep != 0) {
+			return layerStep > 0;
+		} else if (rowStep != 0) {
+			return rowStep > 0;
+		}
+		return columnStep > 0;
+	}
+
+	/* Returns the mask of the line of SIZE cells starting at the cell in the input direction, or 0
+	 * if the line would leave the cube or does not start at the cell's edge of the cube.
+	 */
+	private static long createLine(int cell, int layerStep, int rowStep, int columnStep) {
+
+		int layer = cell/(SIZE*SIZE);
+		int row = (cell/SIZE) % SIZE;
+		int column = cell % SIZE;
+
+		//a line must pass all the way through the cube, so starts one step outside it
+		if (getCell(layer - layerStep, row - rowStep, column - columnStep) != NO_CELL) {
+			return 0;
+		}
+
+		long line = 0;
+		for (int i = 0; i < SIZE; i++) {
+			int lineCell = getCell(layer + i*layerStep, row + i*rowStep, column + i*columnStep);
+			if (lineCell == NO_CELL) {
+				return 0;
+			}
+			line |= 1L << lineCell;
+		}
+
+		return line;
+	}
+}
\ No newline at end of file
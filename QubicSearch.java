@@ -0,0 +1,239 @@
+/*
+ * Class that searches for the best move on a Qubic board by alpha-beta search, going one move
+ * deeper each time until the time budget runs out, and playing the best move from the deepest
+ * search completed. Positions are scored from the lines still open to each player, and every line
+ * is a single mask, so a line is scored with a couple of bitwise operations and a bit count.
+ *
+ * Forced moves are handled before the full search: a player who can complete a line does so, and
+ * a player who must block a line has no other choice, which keeps long sequences of threats cheap
+ * to search.
+ */
+
+public class QubicSearch {
+
+	private static final int MAX_DEPTH = 16;
+	private static final int WIN_SCORE = 1000000;
+	private static final int[] LINE_WEIGHTS = {0, 1, 8, 64, 0}; //value of an open line by symbols
+	private static final int NODES_PER_TIME_CHECK = 1024;
+
+	private QubicBoard board;
+	private long deadline; //System.nanoTime() after which the search stops
+	private boolean outOfTime;
+	private long nodeCount;
+	private int[][] moveBuffers = new int[MAX_DEPTH + 1][QubicBoard.CELL_COUNT]; //moves at each ply
+	private int[][] scoreBuffers = new int[MAX_DEPTH + 1][QubicBoard.CELL_COUNT];
+
+	/* Constructor */
+	public QubicSearch(QubicBoard board, long timeBudgetMillis) {
+
+		this.board = new QubicBoard(board);
+		this.deadline = System.nanoTime() + timeBudgetMillis*1000000;
+	}
+
+	/* Returns the best cell for the player to move, or QubicBoard.NO_CELL if the board is full */
+	public int findBestCell() {
+
+		int[] moves = moveBuffers[0];
+		int moveCount = generateMoves(0, moves);
+		if (moveCount == 0) {
+			return QubicBoard.NO_CELL;
+		}
+
+		int bestCell = moves[0];
+		if (moveCount == 1) {
+			return bestCell;
+		}
+
+		for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+			int depthBestCell = moves[0];
+			int alpha = -WIN_SCORE - 1;
+
+			for (int i = 0; i < moveCount; i++) {
+				int score = scoreMove(moves[i], depth, 0, alpha, WIN_SCORE + 1);
+				if (outOfTime) {
+					break;
+				}
+				if (score > alpha) {
+					alpha = score;
+					depthBestCell = moves[i];
+				}
+			}
+
+			if (outOfTime) {
+				break;
+			}
+			bestCell = depthBestCell;
+			if (alpha >= WIN_SCORE - MAX_DEPTH || alpha <= -WIN_SCORE + MAX_DEPTH) {
+				//the result is already decided
+				break;
+			}
+
+			//search the best move first next time
+			moveToFront(moves, moveCount, bestCell);
+		}
+
+		return bestCell;
+	}
+
+	/* Returns the score of the cell for the player to move, searching the replies to the input
+	 * depth.
+	 */
+	private int scoreMove(int cell, int depth, int ply, int alpha, int beta) {
+
+		int score;
+		if (board.play(cell)) {
+			score = WIN_SCORE - ply; //prefer faster wins
+		} else if (board.isFull()) {
+			score = 0;
+		} else {
+			score = -alphaBeta(depth - 1, ply + 1, -beta, -alpha);
+		}
+		board.undo(cell);
+
+		return score;
+	}
+
+	/* Returns the score of the position for the player to move */
+	private int alphaBeta(int depth, int ply, int alpha, int beta) {
+
+		nodeCount++;
+		if (nodeCount % NODES_PER_TIME_CHECK == 0 && System.nanoTime() > deadline) {
+			outOfTime = true;
+		}
+		if (outOfTime) {
+			return 0;
+		}
+
+		if (depth == 0) {
+			return evaluate(board.getPlayerToMove());
+		}
+
+		int[] moves = moveBuffers[ply];
+		int moveCount = generateMoves(ply, moves);
+
+		for (int i = 0; i < moveCount; i++) {
+			int score = scoreMove(moves[i], depth, ply, alpha, beta);
+			if (score >= beta) {
+				return score;
+			}
+			alpha = Math.max(alpha, score);
+		}
+
+		return alpha;
+	}
+
+	/* Stores the moves worth searching for the player to move in the moves array, best first, and
+	 * returns how many there are. A winning move or a forced block is the only move returned.
+	 */
+	private int generateMoves(int ply, int[] moves) {
+
+		int player = board.getPlayerToMove();
+		long own = board.getPlayerBits(player);
+		long other = board.getPlayerBits(1 - player);
+		long empty = ~(own | other);
+
+		int winningCell = findCompletingCell(own, other);
+		if (winningCell != QubicBoard.NO_CELL) {
+			moves[0] = winningCell;
+			return 1;
+		}
+
+		int blockingCell = findCompletingCell(other, own);
+		if (blockingCell != QubicBoard.NO_CELL) {
+			moves[0] = blockingCell;
+			return 1;
+		}
+
+		int[] scores = scoreBuffers[ply];
+		int moveCount = 0;
+		for (long remaining = empty; remaining != 0; remaining &= remaining - 1) {
+			int cell = Long.numberOfTrailingZeros(remaining);
+			moves[moveCount] = cell;
+			scores[moveCount] = scoreCell(cell, own, other);
+			moveCount++;
+		}
+
+		//insertion sort, best score first
+		for (int i = 1; i < moveCount; i++) {
+			int cell = moves[i];
+			int score = scores[i];
+			int j = i - 1;
+			while (j >= 0 && scores[j] < score) {
+				moves[j+1] = moves[j];
+				scores[j+1] = scores[j];
+				j--;
+			}
+			moves[j+1] = cell;
+			scores[j+1] = score;
+		}
+
+		return moveCount;
+	}
+
+	/* Returns the empty cell of a line holding 3 of the first player's symbols and none of the
+	 * other's, or QubicBoard.NO_CELL if there is no such line.
+	 */
+	private int findCompletingCell(long own, long other) {
+
+		for (int line = 0; line < QubicBoard.LINE_COUNT; line++) {
+			long lineMask = QubicBoard.getLine(line);
+			if ((lineMask & other) == 0 && Long.bitCount(lineMask & own) == QubicBoard.SIZE - 1) {
+				return Long.numberOfTrailingZeros(lineMask & ~own);
+			}
+		}
+
+		return QubicBoard.NO_CELL;
+	}
+
+	/* Returns the value of a move in the cell: the value it adds to the player's open lines plus
+	 * the value it takes from the other player's.
+	 */
+	private int scoreCell(int cell, long own, long other) {
+
+		int score = 0;
+
+		for (int line : QubicBoard.getCellLines(cell)) {
+			long lineMask = QubicBoard.getLine(line);
+			if ((lineMask & other) == 0) {
+				score += LINE_WEIGHTS[Long.bitCount(lineMask & own) + 1];
+			}
+			if ((lineMask & own) == 0) {
+				score += LINE_WEIGHTS[Long.bitCount(lineMask & other) + 1];
+			}
+		}
+
+		return score;
+	}
+
+	/* Returns the value of the position for the player: the weights of the player's open lines
+	 * less the weights of the other player's.
+	 */
+	private int evaluate(int player) {
+
+		long own = board.getPlayerBits(player);
+		long other = board.getPlayerBits(1 - player);
+		int value = 0;
+
+		for (int line = 0; line < QubicBoard.LINE_COUNT; line++) {
+			long lineMask = QubicBoard.getLine(line);
+			if ((lineMask & other) == 0) {
+				value += LINE_WEIGHTS[Long.bitCount(lineMask & own)];
+			} else if ((lineMask & own) == 0) {
+				value -= LINE_WEIGHTS[Long.bitCount(lineMask & other)];
+			}
+		}
+
+		return value;
+	}
+
+	private void moveToFront(int[] moves, int moveCount, int cell) {
+
+		for (int i = 0; i < moveCount; i++) {
+			if (moves[i] == cell) {
+				System.arraycopy(moves, 0, moves, 1, i);
+				moves[0] = cell;
+				return;
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,132 @@
+/*
+ * Class that stores the leaderboard at one moment: the ranked players' usernames and stats, best
+ * ranked first. A snapshot never changes once created, so it can be read by any number of threads
+ * at once without locking or copying. PlayerManager publishes a new snapshot, with a higher
+ * version number, each time the players change.
+ *
+ * Snapshots from separate shards of the players (see ShardedPlayerManager) can be merged into a 
+ * single leaderboard. 
+ */
+
+import java.io.Serializable;
+
+public class RankingSnapshot implements Serializable {
+
+	//fixed, so snapshots sent by shard workers can still be read after the class is recompiled
+	private static final long serialVersionUID = 6389808773044146143L;
+
+	private static final double EPSILON = 0.00001; //ratios closer than this are equal, as in Player
+
+	private final long version;
+	private final String[] usernames; //indexed by rank, 0 is the top player
+	private final int[] gamesPlayedCounts;
+	private final double[] winRatios;
+	private final double[] drawRatios;
+
+	/* Constructors */
+	public RankingSnapshot(long version, Player[] rankedPlayers, int playerCount) {
+
+		this.version = version;
+		this.usernames = new String[playerCount];
+		this.gamesPlayedCounts = new int[playerCount];
+		this.winRatios = new double[playerCount];
+		this.drawRatios = new double[playerCount];
+
+		for (int i = 0; i < playerCount; i++) {
+			usernames[i] = rankedPlayers[i].getUsername();
+			gamesPlayedCounts[i] = rankedPlayers[i].getGamesPlayedCount();
+			winRatios[i] = rankedPlayers[i].getWinRatio();
+			drawRatios[i] = rankedPlayers[i].getDrawRatio();
+		}
+	}
+
+	private RankingSnapshot(long version, int playerCount) {
+
+		this.version = version;
+		this.usernames = new String[playerCount];
+		this.gamesPlayedCounts = new int[playerCount];
+		this.winRatios = new double[playerCount];
+		this.drawRatios = new double[playerCount];
+	}
+
+	/* Merges snapshots of separate sets of players into one snapshot of all the players, ranked 
+	 * in the same order as Player.compareRank. 
+	 */
+	public static RankingSnapshot merge(long version, RankingSnapshot[] snapshots) {
+
+		int playerCount = 0;
+		for (RankingSnapshot snapshot : snapshots) {
+			playerCount += snapshot.getPlayerCount();
+		}
+
+		RankingSnapshot merged = new RankingSnapshot(version, playerCount);
+		int[] nextRanks = new int[snapshots.length]; //next unmerged rank of each snapshot
+
+		for (int rank = 0; rank < playerCount; rank++) {
+
+			//take the best of the next players of all the snapshots
+			int best = -1;
+			for (int i = 0; i < snapshots.length; i++) {
+				if (nextRanks[i] < snapshots[i].getPlayerCount() && (best == -1 || 
+					snapshots[i].ranksAbove(nextRanks[i], snapshots[best], nextRanks[best]))) {
+					best = i;
+				}
+			}
+
+			RankingSnapshot source = snapshots[best];
+			int sourceRank = nextRanks[best];
+			merged.usernames[rank] = source.usernames[sourceRank];
+			merged.gamesPlayedCounts[rank] = source.gamesPlayedCounts[sourceRank];
+			merged.winRatios[rank] = source.winRatios[sourceRank];
+			merged.drawRatios[rank] = source.drawRatios[sourceRank];
+			nextRanks[best]++;
+		}
+
+		return merged;
+	}
+
+	/* Accessors */
+	public long getVersion() {
+
+		return this.version;
+	}
+
+	public int getPlayerCount() {
+
+		return this.usernames.length;
+	}
+
+	public String getUsername(int rank) {
+
+		return this.usernames[rank];
+	}
+
+	public int getGamesPlayedCount(int rank) {
+
+		return this.gamesPlayedCounts[rank];
+	}
+
+	public double getWinRatio(int rank) {
+
+		return this.winRatios[rank];
+	}
+
+	public double getDrawRatio(int rank) {
+
+		return this.drawRatios[rank];
+	}
+
+	/* Returns true if the player at the input rank is ranked above the player at the other rank 
+	 * of the other snapshot: by win ratio, then draw ratio, then username alphabetically. 
+	 */
+	private boolean ranksAbove(int rank, RankingSnapshot other, int otherRank) {
+
+		if (Math.abs(winRatios[rank] - other.winRatios[otherRank]) >= EPSILON) {
+			return winRatios[rank] > other.winRatios[otherRank];
+		}
+		if (Math.abs(drawRatios[rank] - other.drawRatios[otherRank]) >= EPSILON) {
+			return drawRatios[rank] > other.drawRatios[otherRank];
+		}
+		return usernames[rank].compareTo(other.usernames[otherRank]) < 0;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,344 @@
+/*
+ * Class that manages players replicated across several processes. One process, the leader, 
+ * changes the players and streams every change to the others, its followers, through a 
+ * ReplicationLeader. Followers apply the changes in order through a ReplicationFollower, and can 
+ * display the players and rankings but not change them. When the leader stops responding, a 
+ * follower takes over as leader (see ReplicationFollower), so the players stay available without 
+ * reloading them from disk.
+ *
+ * Changes are made and published, and snapshots are taken, while holding this object's lock, so 
+ * followers see the changes in the order they were made. Followers also hold the lock while 
+ * applying a change, so displaying the players never sees half a change.
+ */
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class ReplicatedPlayerManager extends PlayerManager {
+
+	private static final String ADDRESS_DELIMITER = ":";
+	private static final long SNAPSHOT_TIMEOUT_MILLIS = 5000;
+	private static final int NO_PORT = 0;
+	private static final String EMPTY_STRING = "";
+
+	private volatile boolean leading;
+	private final boolean startedLeading; //whether the players come from disk, not a leader
+	private int leaderPort; //port to stream changes on while leading, or NO_PORT for none
+	private InetAddress bindAddress; //address the leader port listens on
+	private ReplicationLeader replicationLeader; //null unless leading on a port
+	private CompletableFuture<Void> firstSnapshot = new CompletableFuture<Void>();
+
+	/* Constructor */
+	private ReplicatedPlayerManager(boolean leading, int leaderPort, InetAddress bindAddress) {
+
+		this.leading = leading;
+		this.startedLeading = leading;
+		this.leaderPort = leaderPort;
+		this.bindAddress = bindAddress;
+	}
+
+	/* Returns a leader that streams changes to followers connecting to the input port on the 
+	 * input address, or null if the port can't be used. Followers are accepted once the players 
+	 * have been imported. 
+	 */
+	public static ReplicatedPlayerManager startLeader(int port, InetAddress bindAddress) {
+
+		ReplicatedPlayerManager playerManager = new ReplicatedPlayerManager(true, port, 
+			bindAddress);
+		try {
+			playerManager.replicationLeader = ReplicationLeader.open(playerManager, port, 
+				bindAddress, 0, ReplicationLeader.FIRST_EPOCH);
+		}
+		catch (IOException e) {
+			System.out.println("Problem leading on port " + port + ": " + e.getMessage());
+			return null;
+		}
+
+		return playerManager;
+	}
+
+	/* Returns a follower of the input leader addresses (host:port, in failover order), which will 
+	 * lead on the input port and address if it takes over. Waits briefly for the players from the 
+	 * leader. Returns null if an address is not valid. 
+	 */
+	public static ReplicatedPlayerManager startFollower(String[] leaderAddresses, int leaderPort, 
+		InetAddress bindAddress) {
+
+		for (String address : leaderAddresses) {
+			String[] hostAndPort = address.split(ADDRESS_DELIMITER);
+			if (hostAndPort.length != 2 || !hostAndPort[1].matches("[0-9]+")) {
+				System.out.println("\'" + address + "\' is not a valid host:port address.");
+				return null;
+			}
+		}
+
+		ReplicatedPlayerManager playerManager = new ReplicatedPlayerManager(false, leaderPort, 
+			bindAddress);
+		ReplicationFollower.start(playerManager, leaderAddresses, leaderPort);
+
+		try {
+			playerManager.firstSnapshot.get(SNAPSHOT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+		}
+		catch (Exception e) {
+			System.out.println("No players received from the leader yet.");
+		}
+
+		return playerManager;
+	}
+
+	/* Accessors */
+	public boolean isReadOnly() {
+
+		return !leading;
+	}
+
+	public synchronized Player getPlayer(String username) {
+
+		return super.getPlayer(username);
+	}
+
+	public synchronized Player[] getPlayerArray() {
+
+		return super.getPlayerArray();
+	}
+
+	public synchronized int getPlayerCount() {
+
+		return super.getPlayerCount();
+	}
+
+	public synchronized Player[] getAIPlayers() {
+
+		return super.getAIPlayers();
+	}
+
+	/* Returns copies of all the players, in alphabetic order, for a snapshot */
+	public synchronized Player[] getPlayers() {
+
+		Player[] players = super.getPlayerArray();
+		Player[] playerCopies = new Player[super.getPlayerCount()];
+		for (int i = 0; i < playerCopies.length; i++) {
+			playerCopies[i] = players[i].makeCopy();
+		}
+
+		return playerCopies;
+	}
+
+	/* Mutators */
+	public synchronized void setPlayer(Player player) {
+
+		if (checkLeading()) {
+			super.setPlayer(player);
+			publishChanges(player.getUsername());
+		}
+	}
+
+	public synchronized void addGameResults(String[] usernames, int[] gamesPlayedCounts, 
+		int[] gamesWonCounts, int[] gamesDrawnCounts) {
+
+		if (checkLeading()) {
+			super.addGameResults(usernames, gamesPlayedCounts, gamesWonCounts, gamesDrawnCounts);
+			publishChanges(usernames);
+		}
+	}
+
+	public synchronized void addPlayer(String username, String familyName, String givenName) {
+
+		if (checkLeading()) {
+			super.addPlayer(username, familyName, givenName);
+			publishChanges(username);
+		}
+	}
+
+	public synchronized void addAIPlayer(String username, String familyName, String givenName, 
+		String aiType) {
+
+		if (checkLeading()) {
+			super.addAIPlayer(username, familyName, givenName, aiType);
+			publishChanges(username);
+		}
+	}
+
+	public synchronized void removePlayer(String username) {
+
+		if (checkLeading()) {
+			super.removePlayer(username);
+
+			//removing all players is published by removeAllPlayers
+			if (!username.equals(EMPTY_STRING)) {
+				publish(PlayerEvent.Type.PLAYERS_REMOVED, null, new String[] {username});
+			}
+		}
+	}
+
+	public synchronized void removeAllPlayers() {
+
+		if (checkLeading()) {
+			super.removeAllPlayers();
+			publish(PlayerEvent.Type.ALL_PLAYERS_REMOVED, null, null);
+		}
+	}
+
+	public synchronized void editPlayer(String username, String familyName, String givenName) {
+
+		if (checkLeading()) {
+			super.editPlayer(username, familyName, givenName);
+			publishChanges(username);
+		}
+	}
+
+	public synchronized void resetStats(String username) {
+
+		if (checkLeading()) {
+			super.resetStats(username);
+
+			//resetting all players is published by resetAllStats
+			if (!username.equals(EMPTY_STRING)) {
+				publishChanges(username);
+			}
+		}
+	}
+
+	public synchronized void resetAllStats() {
+
+		if (checkLeading()) {
+			super.resetAllStats();
+			publish(PlayerEvent.Type.PLAYERS_CHANGED, getPlayers(), null);
+		}
+	}
+
+	public synchronized void displayPlayer(String username) {
+
+		super.displayPlayer(username);
+	}
+
+	public synchronized void displayGameHistory(String username, GameHistory gameHistory) {
+
+		super.displayGameHistory(username, gameHistory);
+	}
+
+	/* Only the leader saves the players, as followers' copies may be behind */
+	public synchronized void exportPlayerArray() {
+
+		if (leading) {
+			super.exportPlayerArray();
+		}
+	}
+
+	/* Only the leader loads the players from disk. Followers get them from the leader, even if 
+	 * they have taken over since. The leader only starts accepting followers once the import has 
+	 * finished, as the import is neither made under the lock nor published, so a follower's 
+	 * snapshot must not be taken before it. 
+	 */
+	public void importPlayerArray() {
+
+		if (startedLeading) {
+			super.importPlayerArray();
+			if (replicationLeader != null) {
+				replicationLeader.startAccepting();
+			}
+		}
+	}
+
+	/* Imports on a background thread, through importPlayerArray, so followers are accepted once 
+	 * the background import has finished 
+	 */
+	public void importPlayerArrayInBackground() {
+
+		if (startedLeading) {
+			super.importPlayerArrayInBackground();
+		}
+	}
+
+	/* Applies a change streamed from the leader */
+	public synchronized void applyEvent(PlayerEvent event) {
+
+		switch (event.getType()) {
+			case SNAPSHOT:
+				super.removeAllPlayers();
+				putPlayers(event.getPlayers());
+				firstSnapshot.complete(null);
+				break;
+
+			case PLAYERS_CHANGED:
+				putPlayers(event.getPlayers());
+				break;
+
+			case PLAYERS_REMOVED:
+				deletePlayers(event.getUsernames());
+				break;
+
+			case ALL_PLAYERS_REMOVED:
+				super.removeAllPlayers();
+				break;
+
+			default:
+				//unknown change, ignore
+		}
+	}
+
+	/* Makes this follower the leader, numbering the changes it streams after the last change it 
+	 * received, in the epoch after the last leader's. 
+	 */
+	public synchronized void takeOver(long lastSequenceNumber, long lastEpoch) {
+
+		leading = true;
+		System.out.println("Taking over as leader.");
+
+		if (leaderPort != NO_PORT) {
+			try {
+				replicationLeader = ReplicationLeader.start(this, leaderPort, bindAddress, 
+					lastSequenceNumber, lastEpoch + 1);
+				System.out.println("Leading followers on port " + leaderPort + ".");
+			}
+			catch (IOException e) {
+				System.out.println("Problem leading on port " + leaderPort + ": " + 
+					e.getMessage());
+			}
+		}
+	}
+
+	/* Returns true if this is the leader, otherwise prints a message and returns false */
+	private boolean checkLeading() {
+
+		if (!leading) {
+			System.out.println("Players can only be changed on the leader.");
+		}
+		return leading;
+	}
+
+	/* Publishes the current state of the players with the input usernames. The event holds copies 
+	 * of the players, taken under the lock, as it is sent later on the follower's send thread 
+	 * while the players may be changing again. 
+	 */
+	private void publishChanges(String... usernames) {
+
+		Player[] players = new Player[usernames.length];
+		int playerCount = 0;
+		Player[] playerArray = super.getPlayerArray();
+		int storedPlayerCount = super.getPlayerCount();
+		for (String username : usernames) {
+			for (int i = 0; i < storedPlayerCount; i++) {
+				if (playerArray[i].getUsername().equals(username)) {
+					players[playerCount] = playerArray[i].makeCopy();
+					playerCount++;
+					break;
+				}
+			}
+		}
+
+		if (playerCount > 0) {
+			publish(PlayerEvent.Type.PLAYERS_CHANGED, Arrays.copyOf(players, playerCount), null);
+		}
+	}
+
+	private void publish(PlayerEvent.Type type, Player[] players, String[] usernames) {
+
+		if (replicationLeader != null) {
+			replicationLeader.publish(type, players, usernames);
+		}
+	}
+}
\ No newline at end of file
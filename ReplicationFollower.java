@@ -0,0 +1,225 @@
+/*
+ * Class that keeps a ReplicatedPlayerManager in step with a leader, by applying the PlayerEvents 
+ * the leader streams to it, in order, on a background thread. 
+ *
+ * The follower is given a list of leader addresses in failover order: the current leader first, 
+ * then the replicas that take over from it in turn. When the connection to the leader fails, the 
+ * follower reconnects to it, backing off between attempts, so a leader that is still starting or 
+ * a short network drop doesn't cause a failover. Only once the leader has stopped responding to 
+ * every attempt does the follower move on to the next address. If that address is its own (once 
+ * resolved), or there are none left, the follower takes over as leader itself. As every follower 
+ * walks the same list, they all agree on who leads next.
+ *
+ * Every leader has an epoch, one more than the epoch of the leader it took over from. A follower 
+ * remembers the highest epoch it has seen and stops following any leader with a lower one, so a 
+ * leader that has been replaced can't feed it changes. Events are numbered in order: duplicates 
+ * are ignored, and a gap (a change missed) makes the follower reconnect for a new snapshot.
+ */
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.Socket;
+
+public class ReplicationFollower {
+
+	private static final long CONNECT_TIMEOUT_MILLIS = 5000; //time a new leader has to take over
+	private static final int MAX_CONNECT_ATTEMPTS = 3; //attempts before failing over
+	private static final long FIRST_RETRY_DELAY_MILLIS = 250; //doubled after each failed attempt
+	private static final String ADDRESS_DELIMITER = ":";
+	private static final int NO_PORT = 0;
+
+	//how following a leader ended
+	private static final int NOT_CONNECTED = 0; //no event received
+	private static final int CONNECTION_LOST = 1; //events received, then the connection failed
+	private static final int GAP_FOUND = 2; //an event was missed, so a new snapshot is needed
+	private static final int STALE_LEADER = 3; //the leader's epoch is older than one seen
+
+	private ReplicatedPlayerManager playerManager;
+	private String[] leaderAddresses; //host:port of each leader, in failover order
+	private int ownPort; //port this follower leads on, or NO_PORT if it can't lead others
+	private volatile long lastSequenceNumber;
+	private volatile long epoch; //highest leader epoch seen
+
+	/* Constructor */
+	private ReplicationFollower(ReplicatedPlayerManager playerManager, String[] leaderAddresses, 
+		int ownPort) {
+
+		this.playerManager = playerManager;
+		this.leaderAddresses = leaderAddresses;
+		this.ownPort = ownPort;
+		this.lastSequenceNumber = 0;
+		this.epoch = 0;
+	}
+
+	/* Starts following the first leader address on a background thread. The follower leads on 
+	 * ownPort if it takes over, or ownPort is 0 if it can't lead others. 
+	 */
+	public static ReplicationFollower start(ReplicatedPlayerManager playerManager, 
+		String[] leaderAddresses, int ownPort) {
+
+		ReplicationFollower follower = new ReplicationFollower(playerManager, leaderAddresses, 
+			ownPort);
+
+		Thread followThread = new Thread(() -> follower.follow());
+		followThread.setDaemon(true);
+		followThread.start();
+
+		return follower;
+	}
+
+	/* Accessors */
+	public long getLastSequenceNumber() {
+
+		return this.lastSequenceNumber;
+	}
+
+	public long getEpoch() {
+
+		return this.epoch;
+	}
+
+	/* Follows each leader in turn until it stops responding, then takes over */
+	private void follow() {
+
+		int leaderIndex = 0;
+		while (leaderIndex < leaderAddresses.length && 
+			!isOwnAddress(leaderAddresses[leaderIndex])) {
+
+			followLeader(leaderAddresses[leaderIndex]);
+			leaderIndex++;
+		}
+
+		playerManager.takeOver(lastSequenceNumber, epoch);
+	}
+
+	/* Follows the leader at the input address, reconnecting whenever the connection fails, until 
+	 * it has not responded to MAX_CONNECT_ATTEMPTS attempts in a row or is found to be stale 
+	 */
+	private void followLeader(String leaderAddress) {
+
+		int failedAttemptCount = 0;
+		long retryDelayMillis = FIRST_RETRY_DELAY_MILLIS;
+
+		while (true) {
+			int ending = receiveEvents(leaderAddress);
+
+			if (ending == STALE_LEADER) {
+				System.out.println("Leader at " + leaderAddress + " has been replaced.");
+				return;
+			} else if (ending == GAP_FOUND) {
+				//reconnect straight away, as a new connection starts with a snapshot
+				continue;
+			} else if (ending == CONNECTION_LOST) {
+				//the leader was there, so start counting failed attempts again
+				failedAttemptCount = 0;
+				retryDelayMillis = FIRST_RETRY_DELAY_MILLIS;
+				continue;
+			}
+
+			failedAttemptCount++;
+			if (failedAttemptCount >= MAX_CONNECT_ATTEMPTS) {
+				System.out.println("Leader at " + leaderAddress + " is not responding.");
+				return;
+			}
+
+			try {
+				Thread.sleep(retryDelayMillis);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			retryDelayMillis *= 2;
+		}
+	}
+
+	/* Applies the events sent by the leader at the input address until the connection fails or 
+	 * the events can't be applied, and returns how it ended 
+	 */
+	private int receiveEvents(String leaderAddress) {
+
+		String[] hostAndPort = leaderAddress.split(ADDRESS_DELIMITER);
+		Socket socket;
+		try {
+			socket = ShardClient.openSocket(hostAndPort[0], Integer.parseInt(hostAndPort[1]), 
+				CONNECT_TIMEOUT_MILLIS);
+		}
+		catch (IOException e) {
+			//leader has gone, or hasn't come up yet
+			return NOT_CONNECTED;
+		}
+
+		boolean received = false;
+		try {
+			ObjectInputStream inputStream = new ObjectInputStream(socket.getInputStream());
+
+			while (true) {
+				PlayerEvent event = (PlayerEvent) inputStream.readObject();
+				received = true;
+
+				if (event.getEpoch() < epoch) {
+					return STALE_LEADER;
+				}
+				epoch = event.getEpoch();
+
+				if (event.getType() != PlayerEvent.Type.SNAPSHOT) {
+					if (event.getSequenceNumber() <= lastSequenceNumber) {
+						//already applied
+						continue;
+					} else if (event.getSequenceNumber() > lastSequenceNumber + 1) {
+						System.out.println("Missed a change from the leader, fetching the " + 
+							"players again.");
+						return GAP_FOUND;
+					}
+				}
+
+				playerManager.applyEvent(event);
+				lastSequenceNumber = event.getSequenceNumber();
+			}
+		}
+		catch (IOException e) {
+			//leader has gone
+		}
+		catch (ClassNotFoundException e) {
+			//counted as a failed attempt, so a leader sending unknown events is given up on
+			System.out.println("Unknown event received.");
+			received = false;
+		}
+		finally {
+			try {
+				socket.close();
+			}
+			catch (IOException e) {
+				//already closed
+			}
+		}
+
+		if (received) {
+			return CONNECTION_LOST;
+		}
+		return NOT_CONNECTED;
+	}
+
+	/* Returns true if the input address resolves to this machine and the port this follower 
+	 * would lead on 
+	 */
+	private boolean isOwnAddress(String address) {
+
+		String[] hostAndPort = address.split(ADDRESS_DELIMITER);
+		if (ownPort == NO_PORT || Integer.parseInt(hostAndPort[1]) != ownPort) {
+			return false;
+		}
+
+		try {
+			InetAddress host = InetAddress.getByName(hostAndPort[0]);
+			return host.isLoopbackAddress() || host.isAnyLocalAddress() || 
+				NetworkInterface.getByInetAddress(host) != null;
+		}
+		catch (IOException e) {
+			//unknown host, so not this one
+			return false;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,151 @@
+/*
+ * Class that streams the changes made to a ReplicatedPlayerManager to any number of follower 
+ * processes. A follower connecting to the leader's port is first sent a snapshot of all the 
+ * players, then every PlayerEvent published after it, in order. Each follower has its own queue 
+ * and sending thread, so a slow or failed follower never holds up the leader or the others. 
+ * Every event carries the leader's epoch, which is FIRST_EPOCH for the first leader and one more 
+ * for each leader that takes over after it.
+ */
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+
+public class ReplicationLeader {
+
+	public static final long FIRST_EPOCH = 1;
+
+	private static final int DEFAULT_BACKLOG = 0; //lets the socket choose
+
+	private ServerSocket serverSocket;
+	private ReplicatedPlayerManager playerManager;
+	private CopyOnWriteArrayList<LinkedBlockingQueue<PlayerEvent>> followerQueues = 
+		new CopyOnWriteArrayList<LinkedBlockingQueue<PlayerEvent>>();
+	private long lastSequenceNumber;
+	private final long epoch;
+
+	/* Constructor */
+	private ReplicationLeader(ServerSocket serverSocket, ReplicatedPlayerManager playerManager, 
+		long lastSequenceNumber, long epoch) {
+
+		this.serverSocket = serverSocket;
+		this.playerManager = playerManager;
+		this.lastSequenceNumber = lastSequenceNumber;
+		this.epoch = epoch;
+	}
+
+	/* Starts accepting followers on the input port of the input address, numbering events after 
+	 * the input sequence number and marking them with the input epoch. 
+	 */
+	public static ReplicationLeader start(ReplicatedPlayerManager playerManager, int port, 
+		InetAddress bindAddress, long lastSequenceNumber, long epoch) throws IOException {
+
+		ReplicationLeader leader = open(playerManager, port, bindAddress, lastSequenceNumber, 
+			epoch);
+		leader.startAccepting();
+
+		return leader;
+	}
+
+	/* Opens the input port of the input address for followers, numbering events after the input 
+	 * sequence number and marking them with the input epoch, but doesn't accept them until 
+	 * startAccepting is called. Followers connecting before then wait in the port's backlog. The 
+	 * port gives the players to anyone who connects, so it should only listen on an address that 
+	 * untrusted machines can't reach. 
+	 */
+	public static ReplicationLeader open(ReplicatedPlayerManager playerManager, int port, 
+		InetAddress bindAddress, long lastSequenceNumber, long epoch) throws IOException {
+
+		return new ReplicationLeader(new ServerSocket(port, DEFAULT_BACKLOG, bindAddress), 
+			playerManager, lastSequenceNumber, epoch);
+	}
+
+	/* Starts accepting followers on a background thread */
+	public void startAccepting() {
+
+		Thread acceptThread = new Thread(() -> acceptFollowers());
+		acceptThread.setDaemon(true);
+		acceptThread.start();
+	}
+
+	/* Accessors */
+	public int getFollowerCount() {
+
+		return this.followerQueues.size();
+	}
+
+	/* Queues a change for every follower. Must be called while holding the player manager's 
+	 * lock, straight after making the change, so events are numbered in the order the changes 
+	 * were made. 
+	 */
+	public void publish(PlayerEvent.Type type, Player[] players, String[] usernames) {
+
+		lastSequenceNumber++;
+		PlayerEvent event = new PlayerEvent(lastSequenceNumber, epoch, type, players, 
+			usernames);
+
+		for (LinkedBlockingQueue<PlayerEvent> queue : followerQueues) {
+			queue.add(event);
+		}
+	}
+
+	/* Accepts followers until the leader stops */
+	private void acceptFollowers() {
+
+		while (true) {
+			Socket socket;
+			try {
+				socket = serverSocket.accept();
+			}
+			catch (IOException e) {
+				return;
+			}
+
+			LinkedBlockingQueue<PlayerEvent> queue = new LinkedBlockingQueue<PlayerEvent>();
+
+			//no changes can be made while the snapshot is taken and the follower is added, so the 
+			//follower sees each change exactly once, in the snapshot or after it
+			synchronized (playerManager) {
+				queue.add(new PlayerEvent(lastSequenceNumber, epoch, PlayerEvent.Type.SNAPSHOT, 
+					playerManager.getPlayers(), null));
+				followerQueues.add(queue);
+			}
+
+			Thread sendThread = new Thread(() -> sendEvents(socket, queue));
+			sendThread.setDaemon(true);
+			sendThread.start();
+		}
+	}
+
+	/* Sends the follower's queued events until the follower disconnects */
+	private void sendEvents(Socket socket, LinkedBlockingQueue<PlayerEvent> queue) {
+
+		try {
+			ObjectOutputStream outputStream = new ObjectOutputStream(socket.getOutputStream());
+
+			while (true) {
+				outputStream.writeObject(queue.take());
+				outputStream.reset();
+				outputStream.flush();
+			}
+		}
+		catch (IOException e) {
+			//follower has gone
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		followerQueues.remove(queue);
+		try {
+			socket.close();
+		}
+		catch (IOException e) {
+			//already closed
+		}
+	}
+}
\ No newline at end of file
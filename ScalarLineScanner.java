@@ -0,0 +1,70 @@
+/*
+ * Class that scans a board for lines and candidate moves one cell at a time. Works for a board of
+ * any size, so is also used by BitParallelLineScanner for boards it cannot handle.
+ */
+
+public class ScalarLineScanner extends LineScanner {
+
+	public boolean hasLine(long[] rows, int size, int winLength) {
+
+		for (int[] direction : DIRECTIONS) {
+			for (int row = 0; row < size; row++) {
+				for (int column = 0; column < size; column++) {
+
+					int runLength = 0;
+					while (runLength < winLength && hasSymbol(rows, size,
+						row + runLength*direction[0], column + runLength*direction[1])) {
+						runLength++;
+					}
+					if (runLength == winLength) {
+						return true;
+					}
+				}
+			}
+		}
+
+		return false;
+	}
+
+	public int findNeighbouringCells(long[] occupiedRows, int size, int distance, int[] cells) {
+
+		int cellsFound = 0;
+
+		for (int row = 0; row < size; row++) {
+			for (int column = 0; column < size; column++) {
+				if (!hasSymbol(occupiedRows, size, row, column) &&
+					hasSymbolNearby(occupiedRows, size, distance, row, column)) {
+					cells[cellsFound] = row*size + column;
+					cellsFound++;
+				}
+			}
+		}
+
+		return cellsFound;
+	}
+
+	public String getName() {
+
+		return SCALAR_SCANNER;
+	}
+
+	private boolean hasSymbolNearby(long[] occupiedRows, int size, int distance, int row,
+		int column) {
+
+		for (int r = row - distance; r <= row + distance; r++) {
+			for (int c = column - distance; c <= column + distance; c++) {
+				if (hasSymbol(occupiedRows, size, r, c)) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	private boolean hasSymbol(long[] rows, int size, int row, int column) {
+
+		return row >= 0 && row < size && column >= 0 && column < size &&
+			(rows[row] & (1L << column)) != 0;
+	}
+}
\ No newline at end of file
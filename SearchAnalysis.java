@@ -0,0 +1,109 @@
+/*
+ * Class that analyses a board with the advanced AI's search, to show how the search spends its 
+ * time. The board is searched one move ahead, then two, and so on (iterative deepening) until the 
+ * outcome is certain or the time budget runs out, sharing the outcomes found between depths. For 
+ * each depth it prints the evaluation, the principal variation (the moves both players would make 
+ * with best play), the positions searched and how fast, how often the outcome table already held 
+ * a position, and how long the depth took.
+ */
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class SearchAnalysis {
+
+	public static final long DEFAULT_TIME_BUDGET_MILLIS = 10000;
+
+	private static final int PERCENT_MULTIPLIER = 100;
+
+	private final Board board;
+	private final long timeBudgetMillis;
+
+	/* Constructor */
+	public SearchAnalysis(Board board, long timeBudgetMillis) {
+
+		this.board = new Board(board);
+		this.timeBudgetMillis = timeBudgetMillis;
+	}
+
+	/* Searches the board to greater and greater depths, printing the results of each depth */
+	public void run() {
+
+		AdvancedAIPlayer searcher = new AdvancedAIPlayer();
+		SearchContext context = new SearchContext();
+		int[] variation = new int[board.getCellCount()];
+		int emptyCount = board.getCellCount() - board.getMoveCount();
+
+		CompletableFuture.delayedExecutor(timeBudgetMillis, TimeUnit.MILLISECONDS)
+			.execute(() -> context.cancel());
+		long analysisStartTime = System.nanoTime();
+
+		for (int depth = 1; depth <= emptyCount; depth++) {
+
+			context.resetCounts();
+			context.setDepthLimit(depth);
+			long startTime = System.nanoTime();
+			AdvancedAIPlayer.Outcome outcome = searcher.analyze(board, context);
+			long elapsedNanos = System.nanoTime() - startTime;
+
+			if (outcome == null) {
+				System.out.println("Out of time during depth " + depth + " after " + 
+					(System.nanoTime() - analysisStartTime)/1000000 + " ms.");
+				return;
+			}
+
+			//take the counts before finding the variation, which looks up more outcomes
+			long nodeCount = context.getNodeCount();
+			long lookupCount = context.getLookupCount();
+			long hitCount = context.getHitCount();
+			boolean complete = context.getCutoffCount() == 0;
+			int variationLength = searcher.findPrincipalVariation(board, context, variation);
+
+			System.out.println("Depth " + depth + ": " + getEvaluation(outcome, complete) + 
+				", " + nodeCount + " positions, " + 
+				Math.round(nodeCount/Math.max(elapsedNanos/1e9, 1e-9)) + " per second, " + 
+				(lookupCount == 0 ? 0 : PERCENT_MULTIPLIER*hitCount/lookupCount) + 
+				"% table hits, " + Math.round(elapsedNanos/1e4)/100.0 + " ms");
+			System.out.println("  " + getVariationText(variation, variationLength));
+
+			//a win or loss is certain at any depth
+			if (complete || outcome != AdvancedAIPlayer.Outcome.DRAW) {
+				break;
+			}
+		}
+
+		context.cancel(); //the timer has nothing left to stop
+		System.out.println("Analysed in " + (System.nanoTime() - analysisStartTime)/1000000 + 
+			" ms.");
+	}
+
+	/* Returns the evaluation of the board for the player to move */
+	private String getEvaluation(AdvancedAIPlayer.Outcome outcome, boolean complete) {
+
+		char symbol = Board.getSymbol(board.getPlayerToMove());
+
+		if (outcome == AdvancedAIPlayer.Outcome.WIN) {
+			return symbol + " wins";
+		} else if (outcome == AdvancedAIPlayer.Outcome.LOSE) {
+			return symbol + " loses";
+		} else if (complete) {
+			return "draw";
+		}
+		return "no result within the depth";
+	}
+
+	/* Returns the moves of the variation as row and column pairs, preceded by each symbol */
+	private String getVariationText(int[] variation, int variationLength) {
+
+		String variationText = "";
+		int player = board.getPlayerToMove();
+
+		for (int i = 0; i < variationLength; i++) {
+			variationText += Board.getSymbol(player) + "(" + board.getRow(variation[i]) + "," + 
+				board.getColumn(variation[i]) + ") ";
+			player = player == Board.PLAYER_O ? Board.PLAYER_X : Board.PLAYER_O;
+		}
+
+		return variationText.trim();
+	}
+}
\ No newline at end of file
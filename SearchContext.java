@@ -0,0 +1,177 @@
+/*
+ * Class that holds the state shared between an AI search and the code waiting on it: whether the
+ * search has been cancelled, and the best move found so far (as a row-major cell) so that a usable
+ * move is always available if the search has to be abandoned before it completes. Once a search 
+ * completes, the outcome of its best move is also held.
+ *
+ * It also holds a table of the outcomes of positions already searched, keyed by Zobrist hash, so
+ * that positions reached by different orders of moves are only searched once. Outcomes are from
+ * the point of view of the AI player, so a context should only be used for searches on behalf of
+ * one side. The table may be shared by searches running in parallel. It can be given a capacity, 
+ * after which new outcomes are no longer stored (the search still completes, just more slowly), so 
+ * that a search on behalf of someone else can't use up the memory.
+ *
+ * A search can be limited to a number of moves ahead, in which case positions at the limit are 
+ * counted as cut off and scored as draws. The context also counts the positions searched and the 
+ * lookups in the outcome table, for analysing the search; the counts are only exact when the 
+ * context is used by one search at a time.
+ *
+ * If tracing was on when the context was created (see SearchTrace), a sample of the positions 
+ * searched is recorded into the trace until the search is cancelled.
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+
+public class SearchContext {
+
+	public static final int NO_DEPTH_LIMIT = Integer.MAX_VALUE;
+	public static final int NO_OUTCOME_LIMIT = Integer.MAX_VALUE;
+
+	private volatile boolean cancelled;
+	private volatile int bestCellSoFar;
+	private volatile AdvancedAIPlayer.Outcome bestOutcome; //null until a search completes
+	private int depthLimit; //number of moves ahead to search
+	private long nodeCount; //positions searched
+	private long lookupCount; //lookups in the outcome table
+	private long hitCount; //lookups that found an outcome
+	private long cutoffCount; //positions not searched as they were at the depth limit
+	private final SearchTrace trace; //where positions are recorded, null if not tracing
+	private long tracedCount; //positions offered to the trace
+	private final int outcomeCapacity; //most outcomes the table stores
+	private ConcurrentHashMap<Long, AdvancedAIPlayer.Outcome> outcomeTable = 
+		new ConcurrentHashMap<Long, AdvancedAIPlayer.Outcome>();
+
+	/* Constructors */
+	public SearchContext() {
+
+		this(NO_OUTCOME_LIMIT);
+	}
+
+	public SearchContext(int outcomeCapacity) {
+
+		this.outcomeCapacity = outcomeCapacity;
+		this.cancelled = false;
+		this.bestCellSoFar = Board.NO_CELL;
+		this.depthLimit = NO_DEPTH_LIMIT;
+		this.trace = SearchTrace.getActiveTrace();
+	}
+
+	/* Accessors */
+	public boolean isCancelled() {
+
+		return this.cancelled;
+	}
+
+	/* Returns the cell of the best move found so far, or Board.NO_CELL if none has been found */
+	public int getBestCellSoFar() {
+
+		return this.bestCellSoFar;
+	}
+
+	/* Returns the outcome of the best move of a completed search, or null if none has completed */
+	public AdvancedAIPlayer.Outcome getBestOutcome() {
+
+		return this.bestOutcome;
+	}
+
+	public int getDepthLimit() {
+
+		return this.depthLimit;
+	}
+
+	public long getNodeCount() {
+
+		return this.nodeCount;
+	}
+
+	public long getLookupCount() {
+
+		return this.lookupCount;
+	}
+
+	public long getHitCount() {
+
+		return this.hitCount;
+	}
+
+	public long getCutoffCount() {
+
+		return this.cutoffCount;
+	}
+
+	/* Returns the outcome stored for the position with the input hash, or null if none */
+	public AdvancedAIPlayer.Outcome getOutcome(long positionHash) {
+
+		AdvancedAIPlayer.Outcome outcome = this.outcomeTable.get(positionHash);
+
+		lookupCount++;
+		if (outcome != null) {
+			hitCount++;
+		}
+
+		return outcome;
+	}
+
+	/* Mutators */
+	public void setBestCellSoFar(int bestCellSoFar) {
+
+		this.bestCellSoFar = bestCellSoFar;
+	}
+
+	public void setBestOutcome(AdvancedAIPlayer.Outcome bestOutcome) {
+
+		this.bestOutcome = bestOutcome;
+	}
+
+	public void setDepthLimit(int depthLimit) {
+
+		this.depthLimit = depthLimit;
+	}
+
+	public void countNode() {
+
+		nodeCount++;
+	}
+
+	public void countCutoff() {
+
+		cutoffCount++;
+	}
+
+	/* Records a position reached by the search, with its outcome, if tracing and the position is 
+	 * sampled. Nothing is recorded once the search is cancelled, as the outcomes it returns while 
+	 * unwinding are only placeholders. 
+	 */
+	public void trace(Board board, int depth, AdvancedAIPlayer.Outcome outcome) {
+
+		if (trace != null && !cancelled) {
+			tracedCount++;
+			if (trace.isSampled(tracedCount)) {
+				trace.record(board, depth, outcome);
+			}
+		}
+	}
+
+	/* Sets all the counts back to zero, keeping the outcomes stored */
+	public void resetCounts() {
+
+		nodeCount = 0;
+		lookupCount = 0;
+		hitCount = 0;
+		cutoffCount = 0;
+	}
+
+	/* Stores the outcome of the position with the input hash, unless the table is full */
+	public void putOutcome(long positionHash, AdvancedAIPlayer.Outcome outcome) {
+
+		if (this.outcomeTable.size() < this.outcomeCapacity) {
+			this.outcomeTable.put(positionHash, outcome);
+		}
+	}
+
+	/* Asks the search to stop as soon as possible */
+	public void cancel() {
+
+		this.cancelled = true;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,158 @@
+/*
+ * Class that keeps a trace of the positions visited by AI searches, for finding out what a search 
+ * spent its time on without slowing it down. Tracing is off until started, and then only one in 
+ * every sampleInterval positions is recorded. Records go into a fixed-size ring buffer in memory, 
+ * overwriting the oldest once it is full, and are only printed when the trace is dumped, so the 
+ * search itself never waits on output.
+ *
+ * Each record holds the position (as a snapshot, see Board.getSnapshot, for boards small enough 
+ * to have one), its Zobrist hash, how many moves into the search it was, and its outcome for the 
+ * AI player. Searches started while tracing is on record into the active trace.
+ *
+ * Searches running in parallel record without locking: each claims the next slot of the buffer 
+ * by counting up an atomic record count, and puts a new immutable record, carrying its number, 
+ * into the slot in one atomic write, so a dump only ever sees whole records. It skips slots that 
+ * haven't been written yet or have since been overwritten by a later record.
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class SearchTrace {
+
+	public static final int DEFAULT_SAMPLE_INTERVAL = 64;
+
+	private static final int CAPACITY = 4096; //records, must be a power of two
+	private static final int INDEX_MASK = CAPACITY - 1;
+
+	private static volatile SearchTrace activeTrace; //trace new searches record into, if any
+
+	private final int sampleMask; //a position is sampled when its count has none of these bits
+	private final AtomicReferenceArray<TraceRecord> records = 
+		new AtomicReferenceArray<TraceRecord>(CAPACITY); //null until a slot is first written
+	private final AtomicLong recordCount = new AtomicLong(); //records claimed
+
+	/* A position recorded by a search, which never changes once created */
+	private static final class TraceRecord {
+
+		private final long number; //position in the order records were claimed
+		private final long snapshot;
+		private final long hash;
+		private final int size;
+		private final int depth;
+		private final AdvancedAIPlayer.Outcome outcome;
+
+		/* Constructor */
+		private TraceRecord(long number, Board board, int depth, 
+			AdvancedAIPlayer.Outcome outcome) {
+
+			this.number = number;
+			this.snapshot = board.getSnapshot();
+			this.hash = board.getHash();
+			this.size = board.getSize();
+			this.depth = depth;
+			this.outcome = outcome;
+		}
+	}
+
+	/* Constructor */
+	private SearchTrace(int sampleInterval) {
+
+		this.sampleMask = Integer.highestOneBit(Math.max(sampleInterval, 1)) - 1;
+	}
+
+	/* Starts a new trace that searches started from now on record into, sampling one in every 
+	 * sampleInterval positions (rounded down to a power of two), and returns it 
+	 */
+	public static SearchTrace start(int sampleInterval) {
+
+		activeTrace = new SearchTrace(sampleInterval);
+		return activeTrace;
+	}
+
+	/* Stops searches started from now on from tracing. The trace can still be dumped. */
+	public static void stop() {
+
+		activeTrace = null;
+	}
+
+	/* Accessors */
+
+	/* Returns the trace that new searches record into, or null if tracing is off */
+	public static SearchTrace getActiveTrace() {
+
+		return activeTrace;
+	}
+
+	/* Returns true if the position with the input count (of positions the search has traced) 
+	 * should be recorded 
+	 */
+	public boolean isSampled(long positionCount) {
+
+		return (positionCount & sampleMask) == 0;
+	}
+
+	public long getRecordCount() {
+
+		return this.recordCount.get();
+	}
+
+	/* Mutators */
+
+	/* Records a position reached by a search, replacing the oldest record if the buffer is full */
+	public void record(Board board, int depth, AdvancedAIPlayer.Outcome outcome) {
+
+		long recordNumber = recordCount.getAndIncrement();
+
+		records.set((int) (recordNumber & INDEX_MASK), 
+			new TraceRecord(recordNumber, board, depth, outcome));
+	}
+
+	/* Prints the records held, oldest first, one per line */
+	public void dump() {
+
+		long claimedCount = recordCount.get();
+		long firstRecord = Math.max(0, claimedCount - CAPACITY);
+		long heldCount = 0;
+
+		for (long i = firstRecord; i < claimedCount; i++) {
+			//skip the slot if its record hasn't been written yet or has been overwritten
+			TraceRecord record = records.get((int) (i & INDEX_MASK));
+			if (record == null || record.number != i) {
+				continue;
+			}
+
+			System.out.println("#" + i + " depth " + record.depth + " " + 
+				record.outcome.toString().toLowerCase() + " " + 
+				String.format("%016x", record.hash) + getBoardText(record));
+			heldCount++;
+		}
+
+		System.out.println(heldCount + " of " + claimedCount + 
+			" records held, sampling 1 in " + (sampleMask + 1) + " positions.");
+	}
+
+	/* Returns the board of the record row by row, with '.' for an empty cell, or an empty string 
+	 * if the board is too large to have a snapshot 
+	 */
+	private String getBoardText(TraceRecord record) {
+
+		if (record.size*record.size > BoardEncoding.MAX_CELL_COUNT) {
+			return "";
+		}
+
+		String boardText = " ";
+		char[][] gameBoard = BoardEncoding.decode(record.snapshot, record.size);
+		for (int row = 0; row < gameBoard.length; row++) {
+			for (int column = 0; column < gameBoard.length; column++) {
+				if (gameBoard[row][column] == Board.EMPTY_SYMBOL) {
+					boardText += '.';
+				} else {
+					boardText += gameBoard[row][column];
+				}
+			}
+		}
+
+		return boardText;
+	}
+}
\ No newline at end of file
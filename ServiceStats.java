@@ -0,0 +1,78 @@
+/*
+ * Class that measures the throughput and latency of a service. The time taken by each of the most 
+ * recent requests is kept in a ring buffer, along with when it finished, so percentiles and the 
+ * recent request rate are worked out from a fixed window however long the service runs.
+ */
+
+import java.util.Arrays;
+
+public class ServiceStats {
+
+	private static final int WINDOW_SIZE = 8192; //requests kept for percentiles
+	private static final long THROUGHPUT_WINDOW_NANOS = 10_000_000_000L; //period of the rate
+
+	private final long startTime = System.nanoTime();
+	private final long[] latencies = new long[WINDOW_SIZE];
+	private final long[] finishTimes = new long[WINDOW_SIZE];
+	private long requestCount;
+
+	/* Accessors */
+	public synchronized long getRequestCount() {
+
+		return this.requestCount;
+	}
+
+	/* Returns the number of requests per second over the last few seconds, or since the service 
+	 * started if that was more recent. 
+	 */
+	public synchronized double getRecentThroughput() {
+
+		long now = System.nanoTime();
+		long windowStart = Math.max(startTime, now - THROUGHPUT_WINDOW_NANOS);
+
+		int recentCount = 0;
+		for (int i = 0; i < getWindowCount(); i++) {
+			if (finishTimes[i] >= windowStart) {
+				recentCount++;
+			}
+		}
+
+		return recentCount/Math.max((now - windowStart)/1e9, 1e-3);
+	}
+
+	/* Returns the number of requests per second since the service started */
+	public synchronized double getOverallThroughput() {
+
+		return requestCount/Math.max((System.nanoTime() - startTime)/1e9, 1e-3);
+	}
+
+	/* Returns the latency in nanoseconds below which the input percentage of recent requests 
+	 * finished, or 0 if there have been no requests. 
+	 */
+	public synchronized long getLatencyPercentile(double percent) {
+
+		int windowCount = getWindowCount();
+		if (windowCount == 0) {
+			return 0;
+		}
+
+		long[] sortedLatencies = Arrays.copyOf(latencies, windowCount);
+		Arrays.sort(sortedLatencies);
+		int index = (int) Math.ceil(percent/100*windowCount) - 1;
+		return sortedLatencies[Math.max(0, Math.min(windowCount - 1, index))];
+	}
+
+	/* Mutator */
+	public synchronized void record(long latencyNanos) {
+
+		int slot = (int) (requestCount % WINDOW_SIZE);
+		latencies[slot] = latencyNanos;
+		finishTimes[slot] = System.nanoTime();
+		requestCount++;
+	}
+
+	private int getWindowCount() {
+
+		return (int) Math.min(requestCount, WINDOW_SIZE);
+	}
+}
\ No newline at end of file
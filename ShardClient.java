@@ -0,0 +1,110 @@
+/*
+ * Class that sends ShardRequests to a ShardWorker over a socket and returns the results. Requests 
+ * and responses are written with object streams, which are reset after every message so that a 
+ * player sent again is sent in full, not as a reference to the copy sent before.
+ */
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.ConnectException;
+import java.net.Socket;
+
+public class ShardClient {
+
+	private static final long RETRY_DELAY_MILLIS = 50;
+
+	private String host;
+	private int port;
+	private Socket socket;
+	private ObjectOutputStream outputStream;
+	private ObjectInputStream inputStream;
+
+	/* Constructor */
+	private ShardClient(String host, int port, Socket socket) throws IOException {
+
+		this.host = host;
+		this.port = port;
+		this.socket = socket;
+		this.outputStream = new ObjectOutputStream(socket.getOutputStream());
+		this.outputStream.flush();
+		this.inputStream = new ObjectInputStream(socket.getInputStream());
+	}
+
+	/* Connects to the worker listening on the input host and port, retrying until the worker has 
+	 * started or the timeout has passed. 
+	 */
+	public static ShardClient connect(String host, int port, long timeoutMillis) 
+		throws IOException {
+
+		return new ShardClient(host, port, openSocket(host, port, timeoutMillis));
+	}
+
+	/* Opens a socket to the input host and port, retrying until something is listening there or 
+	 * the timeout has passed. 
+	 */
+	public static Socket openSocket(String host, int port, long timeoutMillis) 
+		throws IOException {
+
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+
+		while (true) {
+			try {
+				return new Socket(host, port);
+			}
+			catch (ConnectException e) {
+				if (System.currentTimeMillis() > deadline) {
+					throw e;
+				}
+			}
+
+			try {
+				Thread.sleep(RETRY_DELAY_MILLIS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while connecting.");
+			}
+		}
+	}
+
+	/* Accessors */
+	public String getAddress() {
+
+		return this.host + ":" + this.port;
+	}
+
+	/* Sends the request, prints anything the worker printed while carrying it out, and returns 
+	 * the result. Returns null if the worker can't be reached. 
+	 */
+	public synchronized Object call(ShardRequest request) {
+
+		try {
+			outputStream.writeObject(request);
+			outputStream.reset();
+			outputStream.flush();
+
+			ShardResponse response = (ShardResponse) inputStream.readObject();
+			System.out.print(response.getOutput());
+			return response.getResult();
+		}
+		catch (IOException e) {
+			System.out.println("Shard " + getAddress() + " is not responding.");
+			return null;
+		}
+		catch (ClassNotFoundException e) {
+			System.out.println("Shard " + getAddress() + " sent an unknown reply.");
+			return null;
+		}
+	}
+
+	public synchronized void close() {
+
+		try {
+			socket.close();
+		}
+		catch (IOException e) {
+			//already closed
+		}
+	}
+}
\ No newline at end of file
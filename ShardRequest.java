@@ -0,0 +1,40 @@
+/*
+ * Class that describes an operation on a shard of the players, sent from a ShardedPlayerManager 
+ * to a ShardWorker. Each operation matches a PlayerManager method, and its arguments are the 
+ * method's arguments.
+ */
+
+import java.io.Serializable;
+
+public class ShardRequest implements Serializable {
+
+	//fixed, so shard workers can still read requests after the class is recompiled
+	private static final long serialVersionUID = -5045548119025487629L;
+
+	public enum Operation {
+		GET_PLAYER, GET_PLAYERS, GET_AI_PLAYERS, GET_RANKING, FIND_USERNAME, SET_PLAYER, 
+		ADD_PLAYER, ADD_AI_PLAYER, REMOVE_PLAYER, REMOVE_ALL_PLAYERS, EDIT_PLAYER, RESET_STATS, 
+		RESET_ALL_STATS, DISPLAY_PLAYER, ADD_GAME_RESULTS, PUT_PLAYERS, RESERVE_PLAYER_IDS, EXPORT
+	}
+
+	private final Operation operation;
+	private final Object[] arguments;
+
+	/* Constructor */
+	public ShardRequest(Operation operation, Object... arguments) {
+
+		this.operation = operation;
+		this.arguments = arguments;
+	}
+
+	/* Accessors */
+	public Operation getOperation() {
+
+		return this.operation;
+	}
+
+	public Object getArgument(int argumentIndex) {
+
+		return this.arguments[argumentIndex];
+	}
+}
\ No newline at end of file
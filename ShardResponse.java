@@ -0,0 +1,34 @@
+/*
+ * Class that holds the reply of a ShardWorker to a ShardRequest: the value returned by the 
+ * PlayerManager method, if any, and anything the method printed, to be printed by the program 
+ * that sent the request.
+ */
+
+import java.io.Serializable;
+
+public class ShardResponse implements Serializable {
+
+	//fixed, so replies from shard workers can still be read after the class is recompiled
+	private static final long serialVersionUID = -5329998503835066057L;
+
+	private final Object result;
+	private final String output;
+
+	/* Constructor */
+	public ShardResponse(Object result, String output) {
+
+		this.result = result;
+		this.output = output;
+	}
+
+	/* Accessors */
+	public Object getResult() {
+
+		return this.result;
+	}
+
+	public String getOutput() {
+
+		return this.output;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+/*
+ * Class that assigns usernames to shards by consistent hashing. Each shard is placed at many 
+ * points (virtual nodes) around a ring of hash values, and a username belongs to the shard at the 
+ * first point at or after the username's hash, wrapping around at the end. The many points spread 
+ * the usernames evenly, and changing the number of shards only moves the usernames next to the 
+ * points that are added or removed.
+ */
+
+import java.util.Map;
+import java.util.TreeMap;
+
+public class ShardRing {
+
+	private static final int VIRTUAL_NODE_COUNT = 64; //points on the ring for each shard
+
+	private TreeMap<Integer, Integer> ring = new TreeMap<Integer, Integer>(); //hash to shard
+	private int shardCount;
+
+	/* Constructor */
+	public ShardRing(int shardCount) {
+
+		this.shardCount = shardCount;
+
+		for (int shard = 0; shard < shardCount; shard++) {
+			for (int node = 0; node < VIRTUAL_NODE_COUNT; node++) {
+				ring.put(hash("shard-" + shard + "-" + node), shard);
+			}
+		}
+	}
+
+	/* Accessors */
+	public int getShardCount() {
+
+		return this.shardCount;
+	}
+
+	/* Returns the shard that the input username belongs to */
+	public int getShard(String username) {
+
+		Map.Entry<Integer, Integer> point = ring.ceilingEntry(hash(username));
+		if (point == null) {
+			//wrap around to the first point
+			point = ring.firstEntry();
+		}
+
+		return point.getValue();
+	}
+
+	/* Returns a well mixed hash of the input key. String.hashCode alone gives nearby values for 
+	 * similar strings, so its bits are mixed with the MurmurHash3 finaliser. 
+	 */
+	private static int hash(String key) {
+
+		int hash = key.hashCode();
+		hash ^= hash >>> 16;
+		hash *= 0x85EBCA6B;
+		hash ^= hash >>> 13;
+		hash *= 0xC2B2AE35;
+		hash ^= hash >>> 16;
+		return hash;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,195 @@
+/*
+ * Program that holds one shard of the players of a ShardedPlayerManager in its own process. The 
+ * shard's players are kept in an ordinary PlayerManager, saved to the shard's own file, and given 
+ * every shardCount-th player id so that ids are unique across the shards. 
+ *
+ * The worker listens on a local port for a single ShardedPlayerManager and carries out its 
+ * requests one at a time. Anything a request prints is captured and sent back to be printed by 
+ * the sender. When the sender disconnects, the worker saves its players and exits. 
+ *
+ * Usage: java ShardWorker port shardIndex shardCount
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+
+public class ShardWorker {
+
+	private static final int NUM_ARGUMENTS = 3;
+	private static final String FILE_NAME_PREFIX = "players-shard";
+	private static final String FILE_NAME_SUFFIX = ".dat";
+
+	private PlayerManager playerManager;
+
+	/* Constructor */
+	public ShardWorker(PlayerManager playerManager) {
+
+		this.playerManager = playerManager;
+	}
+
+	public static void main(String[] args) {
+
+		if (args.length < NUM_ARGUMENTS) {
+			System.out.println("Usage: java ShardWorker port shardIndex shardCount");
+			return;
+		}
+
+		int port = Integer.parseInt(args[0]);
+		int shardIndex = Integer.parseInt(args[1]);
+		int shardCount = Integer.parseInt(args[2]);
+
+		PlayerManager playerManager = new PlayerManager(getFileName(shardIndex), shardIndex, 
+			shardCount);
+		playerManager.importPlayerArray();
+
+		try {
+			ServerSocket serverSocket = new ServerSocket(port, 1, InetAddress.getLoopbackAddress());
+			System.out.println("Shard " + shardIndex + " of " + shardCount + 
+				" listening on port " + port + ".");
+
+			Socket socket = serverSocket.accept();
+			serverSocket.close();
+			new ShardWorker(playerManager).serve(socket);
+		}
+		catch (IOException e) {
+			System.out.println("Problem with shard connection: " + e.getMessage());
+		}
+
+		playerManager.exportPlayerArray();
+	}
+
+	/* Returns the name of the file the input shard saves its players to */
+	public static String getFileName(int shardIndex) {
+
+		return FILE_NAME_PREFIX + shardIndex + FILE_NAME_SUFFIX;
+	}
+
+	/* Carries out requests from the socket until it is closed */
+	public void serve(Socket socket) throws IOException {
+
+		ObjectOutputStream outputStream = new ObjectOutputStream(socket.getOutputStream());
+		outputStream.flush();
+		ObjectInputStream inputStream = new ObjectInputStream(socket.getInputStream());
+
+		while (true) {
+			ShardRequest request;
+			try {
+				request = (ShardRequest) inputStream.readObject();
+			}
+			catch (IOException e) {
+				//sender has gone
+				return;
+			}
+			catch (ClassNotFoundException e) {
+				System.out.println("Unknown request received.");
+				return;
+			}
+
+			//capture what the request prints, to send back with the result
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			PrintStream console = System.out;
+			System.setOut(new PrintStream(output, true));
+			Object result;
+			try {
+				result = execute(request);
+			}
+			finally {
+				System.setOut(console);
+			}
+
+			outputStream.writeObject(new ShardResponse(result, output.toString()));
+			outputStream.reset();
+			outputStream.flush();
+		}
+	}
+
+	/* Carries out a request on the shard's players and returns the result, if any */
+	private Object execute(ShardRequest request) {
+
+		switch (request.getOperation()) {
+			case GET_PLAYER:
+				return playerManager.getPlayer((String) request.getArgument(0));
+
+			case GET_PLAYERS:
+				return Arrays.copyOf(playerManager.getPlayerArray(), 
+					playerManager.getPlayerCount());
+
+			case GET_AI_PLAYERS:
+				return playerManager.getAIPlayers();
+
+			case GET_RANKING:
+				return playerManager.getRankingSnapshot();
+
+			case FIND_USERNAME:
+				return playerManager.findUsername((Integer) request.getArgument(0));
+
+			case SET_PLAYER:
+				playerManager.setPlayer((Player) request.getArgument(0));
+				return null;
+
+			case ADD_PLAYER:
+				playerManager.addPlayer((String) request.getArgument(0), 
+					(String) request.getArgument(1), (String) request.getArgument(2));
+				return null;
+
+			case ADD_AI_PLAYER:
+				playerManager.addAIPlayer((String) request.getArgument(0), 
+					(String) request.getArgument(1), (String) request.getArgument(2), 
+					(String) request.getArgument(3));
+				return null;
+
+			case REMOVE_PLAYER:
+				playerManager.removePlayer((String) request.getArgument(0));
+				return null;
+
+			case REMOVE_ALL_PLAYERS:
+				playerManager.removeAllPlayers();
+				return null;
+
+			case EDIT_PLAYER:
+				playerManager.editPlayer((String) request.getArgument(0), 
+					(String) request.getArgument(1), (String) request.getArgument(2));
+				return null;
+
+			case RESET_STATS:
+				playerManager.resetStats((String) request.getArgument(0));
+				return null;
+
+			case RESET_ALL_STATS:
+				playerManager.resetAllStats();
+				return null;
+
+			case DISPLAY_PLAYER:
+				playerManager.displayPlayer((String) request.getArgument(0));
+				return null;
+
+			case ADD_GAME_RESULTS:
+				playerManager.addGameResults((String[]) request.getArgument(0), 
+					(int[]) request.getArgument(1), (int[]) request.getArgument(2), 
+					(int[]) request.getArgument(3));
+				return null;
+
+			case PUT_PLAYERS:
+				playerManager.putPlayers((Player[]) request.getArgument(0));
+				return null;
+
+			case RESERVE_PLAYER_IDS:
+				playerManager.reservePlayerIds((Integer) request.getArgument(0));
+				return null;
+
+			case EXPORT:
+				playerManager.exportPlayerArray();
+				return null;
+
+			default:
+				return null;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,426 @@
+/*
+ * Class that manages players split across several ShardWorker processes, so that the number of 
+ * players isn't limited to what one process can hold. Each username belongs to one shard, chosen 
+ * by a ShardRing, and operations on a player are sent to the worker holding that player. 
+ * Operations on all the players are sent to every worker, and their answers combined: players 
+ * are merged in alphabetic order, and the workers' ranking snapshots are merged into one ranking.
+ *
+ * Each worker saves its own shard of the players, so there is nothing to import or export here 
+ * beyond asking the workers to save. The number of shards is saved too, and a different number is 
+ * refused, as the players saved by each shard are the ones the ring gave it. The first time the 
+ * players are sharded, the players saved by an unsharded run are moved into the shards, and every 
+ * shard is told the ids that run used, so that no id is given out twice.
+ */
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.util.Arrays;
+
+public class ShardedPlayerManager extends PlayerManager {
+
+	public static final int DEFAULT_BASE_PORT = 7400; //shard i listens on the base port + i
+
+	private static final String LOCAL_HOST = "localhost";
+	private static final long CONNECT_TIMEOUT_MILLIS = 10000;
+	private static final String EMPTY_STRING = "";
+	private static final String LOG_FILE_PREFIX = "shard";
+	private static final String LOG_FILE_SUFFIX = ".log";
+	private static final String SHARD_COUNT_FILE_NAME = "shards.dat";
+	private static final String UNKNOWN_USERNAME = "?";
+
+	private ShardRing shardRing;
+	private ShardClient[] shards;
+	private long rankingVersion; //version of the last merged ranking
+
+	/* Constructor */
+	public ShardedPlayerManager(ShardClient[] shards) {
+
+		this.shardRing = new ShardRing(shards.length);
+		this.shards = shards;
+		this.rankingVersion = 0;
+	}
+
+	/* Starts a worker process for each shard on this machine, listening on consecutive ports from 
+	 * the base port, and connects to them. Each worker's output is written to its own log file. 
+	 * Returns null if the players were saved by a different number of shards, or a worker can't 
+	 * be reached. 
+	 */
+	public static ShardedPlayerManager launch(int shardCount, int basePort) {
+
+		int savedShardCount = findSavedShardCount();
+		if (savedShardCount != 0 && savedShardCount != shardCount) {
+			System.out.println("The players are saved in " + savedShardCount + 
+				" shards, so the number of shards must be " + savedShardCount + ".");
+			return null;
+		}
+
+		String javaCommand = System.getProperty("java.home") + File.separator + "bin" + 
+			File.separator + "java";
+		String classPath = System.getProperty("java.class.path");
+		ShardClient[] shards = new ShardClient[shardCount];
+
+		try {
+			for (int i = 0; i < shardCount; i++) {
+				ProcessBuilder processBuilder = new ProcessBuilder(javaCommand, "-cp", classPath, 
+					"ShardWorker", Integer.toString(basePort + i), Integer.toString(i), 
+					Integer.toString(shardCount));
+				processBuilder.redirectErrorStream(true);
+				processBuilder.redirectOutput(Redirect.appendTo(
+					new File(LOG_FILE_PREFIX + i + LOG_FILE_SUFFIX)));
+				processBuilder.start();
+			}
+
+			for (int i = 0; i < shardCount; i++) {
+				shards[i] = ShardClient.connect(LOCAL_HOST, basePort + i, CONNECT_TIMEOUT_MILLIS);
+			}
+		}
+		catch (IOException e) {
+			System.out.println("Problem starting shards: " + e.getMessage());
+			return null;
+		}
+
+		ShardedPlayerManager playerManager = new ShardedPlayerManager(shards);
+		if (savedShardCount == 0) {
+			playerManager.moveUnshardedPlayers();
+			try {
+				saveShardCount(shardCount);
+			}
+			catch (IOException e) {
+				System.out.println("Problem saving the number of shards: " + e.getMessage());
+				return null;
+			}
+		}
+
+		return playerManager;
+	}
+
+	/* Returns the number of shards the players were saved in, or 0 if they have never been 
+	 * sharded. Runs from before the number was saved are recognised by their shard files. 
+	 */
+	private static int findSavedShardCount() {
+
+		try {
+			DataInputStream inputStream = new DataInputStream(
+				new FileInputStream(SHARD_COUNT_FILE_NAME));
+			try {
+				return inputStream.readInt();
+			}
+			finally {
+				inputStream.close();
+			}
+		}
+		catch (FileNotFoundException e) {
+			int shardFileCount = 0;
+			while (new File(ShardWorker.getFileName(shardFileCount)).exists()) {
+				shardFileCount++;
+			}
+			return shardFileCount;
+		}
+		catch (IOException e) {
+			System.out.println("Problem reading the number of shards: " + e.getMessage());
+			return 0;
+		}
+	}
+
+	private static void saveShardCount(int shardCount) throws IOException {
+
+		DataOutputStream outputStream = new DataOutputStream(
+			new FileOutputStream(SHARD_COUNT_FILE_NAME));
+		try {
+			outputStream.writeInt(shardCount);
+		}
+		finally {
+			outputStream.close();
+		}
+	}
+
+	/* Moves the players saved by an unsharded run, if any, into the shards the ring gives them, 
+	 * keeping their ids, and stops every shard giving out an id that run used. The shards save 
+	 * the players straight away; the unsharded file is left as it was. 
+	 */
+	private void moveUnshardedPlayers() {
+
+		PlayerManager unshardedPlayers = new PlayerManager();
+		unshardedPlayers.importPlayerArray();
+		Player[] players = Arrays.copyOf(unshardedPlayers.getPlayerArray(), 
+			unshardedPlayers.getPlayerCount());
+		if (players.length == 0) {
+			return;
+		}
+
+		for (int shard = 0; shard < shards.length; shard++) {
+			Player[] shardPlayers = new Player[players.length];
+			int shardPlayerCount = 0;
+			for (Player player : players) {
+				if (shardRing.getShard(player.getUsername()) == shard) {
+					shardPlayers[shardPlayerCount] = player;
+					shardPlayerCount++;
+				}
+			}
+
+			shards[shard].call(new ShardRequest(ShardRequest.Operation.PUT_PLAYERS, 
+				(Object) Arrays.copyOf(shardPlayers, shardPlayerCount)));
+			shards[shard].call(new ShardRequest(ShardRequest.Operation.RESERVE_PLAYER_IDS, 
+				unshardedPlayers.getNextPlayerId() - 1));
+		}
+		exportPlayerArray();
+
+		System.out.println("Moved " + players.length + " players into " + shards.length + 
+			" shards.");
+	}
+
+	/* Accessors */
+	public Player getPlayer(String username) {
+
+		return (Player) callOwner(username, ShardRequest.Operation.GET_PLAYER, username);
+	}
+
+	/* Returns all the players, in alphabetic order, in an array just large enough to hold them */
+	public Player[] getPlayerArray() {
+
+		Player[] allPlayers = new Player[0];
+		for (ShardClient shard : shards) {
+			Player[] players = (Player[]) shard.call(
+				new ShardRequest(ShardRequest.Operation.GET_PLAYERS));
+			allPlayers = concatenate(allPlayers, players);
+		}
+
+		sortByUsername(allPlayers);
+		return allPlayers;
+	}
+
+	/* Returns the rankings of all the shards merged into one snapshot */
+	public RankingSnapshot getRankingSnapshot() {
+
+		RankingSnapshot[] snapshots = new RankingSnapshot[shards.length];
+		for (int i = 0; i < shards.length; i++) {
+			snapshots[i] = (RankingSnapshot) shards[i].call(
+				new ShardRequest(ShardRequest.Operation.GET_RANKING));
+			if (snapshots[i] == null) {
+				snapshots[i] = new RankingSnapshot(0, new Player[0], 0);
+			}
+		}
+
+		rankingVersion++;
+		return RankingSnapshot.merge(rankingVersion, snapshots);
+	}
+
+	public int getPlayerCount() {
+
+		return getPlayerArray().length;
+	}
+
+	/* Returns all the AI players, in alphabetic order */
+	public Player[] getAIPlayers() {
+
+		Player[] aiPlayers = new Player[0];
+		for (ShardClient shard : shards) {
+			aiPlayers = concatenate(aiPlayers, (Player[]) shard.call(
+				new ShardRequest(ShardRequest.Operation.GET_AI_PLAYERS)));
+		}
+
+		sortByUsername(aiPlayers);
+		return aiPlayers;
+	}
+
+	/* Mutator */
+	public void setPlayer(Player player) {
+
+		callOwner(player.getUsername(), ShardRequest.Operation.SET_PLAYER, player);
+	}
+
+	/* Sends the results of each shard's players to that shard, where they are added at once */
+	public void addGameResults(String[] usernames, int[] gamesPlayedCounts, int[] gamesWonCounts, 
+		int[] gamesDrawnCounts) {
+
+		for (int shard = 0; shard < shards.length; shard++) {
+
+			//count the players on this shard
+			int shardPlayerCount = 0;
+			for (int i = 0; i < usernames.length; i++) {
+				if (shardRing.getShard(usernames[i]) == shard) {
+					shardPlayerCount++;
+				}
+			}
+			if (shardPlayerCount == 0) {
+				continue;
+			}
+
+			String[] shardUsernames = new String[shardPlayerCount];
+			int[] shardGamesPlayedCounts = new int[shardPlayerCount];
+			int[] shardGamesWonCounts = new int[shardPlayerCount];
+			int[] shardGamesDrawnCounts = new int[shardPlayerCount];
+			int shardPlayer = 0;
+			for (int i = 0; i < usernames.length; i++) {
+				if (shardRing.getShard(usernames[i]) == shard) {
+					shardUsernames[shardPlayer] = usernames[i];
+					shardGamesPlayedCounts[shardPlayer] = gamesPlayedCounts[i];
+					shardGamesWonCounts[shardPlayer] = gamesWonCounts[i];
+					shardGamesDrawnCounts[shardPlayer] = gamesDrawnCounts[i];
+					shardPlayer++;
+				}
+			}
+
+			shards[shard].call(new ShardRequest(ShardRequest.Operation.ADD_GAME_RESULTS, 
+				shardUsernames, shardGamesPlayedCounts, shardGamesWonCounts, 
+				shardGamesDrawnCounts));
+		}
+	}
+
+	public void addPlayer(String username, String familyName, String givenName) {
+
+		callOwner(username, ShardRequest.Operation.ADD_PLAYER, username, familyName, givenName);
+	}
+
+	public void addAIPlayer(String username, String familyName, String givenName, String aiType) {
+
+		callOwner(username, ShardRequest.Operation.ADD_AI_PLAYER, username, familyName, 
+			givenName, aiType);
+	}
+
+	/* Removes the player with the input username from its shard. If no username given, removes 
+	 * all players from every shard. 
+	 */
+	public void removePlayer(String username) {
+
+		if (username.equals(EMPTY_STRING)) {
+			System.out.println("Are you sure you want to remove all players? (y/n)");
+			if (TicTacToe.keyboard.nextLine().toLowerCase().equals("y")) {
+				removeAllPlayers();
+			}
+			return;
+		}
+
+		callOwner(username, ShardRequest.Operation.REMOVE_PLAYER, username);
+	}
+
+	public void removeAllPlayers() {
+
+		callAll(ShardRequest.Operation.REMOVE_ALL_PLAYERS);
+	}
+
+	public void editPlayer(String username, String familyName, String givenName) {
+
+		callOwner(username, ShardRequest.Operation.EDIT_PLAYER, username, familyName, givenName);
+	}
+
+	/* Resets the stats of the player with the input username on its shard. If no username given, 
+	 * resets the stats of all players on every shard. 
+	 */
+	public void resetStats(String username) {
+
+		if (username.equals(EMPTY_STRING)) {
+			System.out.println("Are you sure you want to reset all player statistics? (y/n)");
+			if (TicTacToe.keyboard.nextLine().toLowerCase().equals("y")) {
+				resetAllStats();
+			}
+			return;
+		}
+
+		callOwner(username, ShardRequest.Operation.RESET_STATS, username);
+	}
+
+	public void resetAllStats() {
+
+		callAll(ShardRequest.Operation.RESET_ALL_STATS);
+	}
+
+	/* Displays the player with the input username. If no username given, displays all players in 
+	 * alphabetic order. 
+	 */
+	public void displayPlayer(String username) {
+
+		if (username.equals(EMPTY_STRING)) {
+			for (Player player : getPlayerArray()) {
+				System.out.println(player.toString());
+			}
+			return;
+		}
+
+		callOwner(username, ShardRequest.Operation.DISPLAY_PLAYER, username);
+	}
+
+	public void displayGameHistory(String username, GameHistory gameHistory) {
+
+		Player player = getPlayer(username);
+		if (player == null) {
+			System.out.println("The player does not exist.");
+			return;
+		}
+
+		printGameHistory(player, gameHistory);
+	}
+
+	public void displayRanking() {
+
+		printRanking(getRankingSnapshot());
+	}
+
+	/* Asks every shard to save its players */
+	public void exportPlayerArray() {
+
+		callAll(ShardRequest.Operation.EXPORT);
+	}
+
+	/* Each shard imports its own players when it starts, so there is nothing to import here */
+	public void importPlayerArray() {}
+
+	public void importPlayerArrayInBackground() {}
+
+	/* Returns the username of the player with the input id. The shard that gave out the id (see 
+	 * ShardWorker) is asked first, then the others, as players moved in from an unsharded run keep 
+	 * their old ids, and the ring places players by username rather than by id. 
+	 */
+	protected String findUsername(int playerId) {
+
+		int firstShard = (playerId - 1) % shards.length;
+		for (int i = 0; i < shards.length; i++) {
+			String username = (String) shards[(firstShard + i) % shards.length].call(
+				new ShardRequest(ShardRequest.Operation.FIND_USERNAME, playerId));
+			if (username != null && !username.equals(UNKNOWN_USERNAME)) {
+				return username;
+			}
+		}
+
+		return UNKNOWN_USERNAME;
+	}
+
+	/* Sends a request to the shard holding the input username and returns the result */
+	private Object callOwner(String username, ShardRequest.Operation operation, 
+		Object... arguments) {
+
+		return shards[shardRing.getShard(username)].call(new ShardRequest(operation, arguments));
+	}
+
+	/* Sends a request to every shard */
+	private void callAll(ShardRequest.Operation operation) {
+
+		for (ShardClient shard : shards) {
+			shard.call(new ShardRequest(operation));
+		}
+	}
+
+	private void sortByUsername(Player[] players) {
+
+		Arrays.sort(players, (player1, player2) -> 
+			player1.getUsername().compareTo(player2.getUsername()));
+	}
+
+	/* Returns an array of the players in both arrays. A missing array is treated as empty. */
+	private Player[] concatenate(Player[] players, Player[] morePlayers) {
+
+		if (morePlayers == null) {
+			return players;
+		}
+
+		Player[] allPlayers = Arrays.copyOf(players, players.length + morePlayers.length);
+		System.arraycopy(morePlayers, 0, allPlayers, players.length, morePlayers.length);
+		return allPlayers;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,125 @@
+/*
+ * Class that receives the moves of a live game from a GameBroadcaster. Updates wait in a small 
+ * ring buffer with a single writer (the thread playing the game) and a single reader (the 
+ * spectator), so neither side ever locks. If the buffer fills, the broadcaster drops updates and 
+ * marks the spectator as lagging, and the next read catches up from the game's log instead, 
+ * coalescing all the missed updates into one batch.
+ *
+ * Updates are moves, or takebacks of moves (see GameUpdate.isTakeback), so a spectator rebuilds 
+ * the board by placing the symbol of each move and clearing the cell of each takeback.
+ */
+
+public class Spectator {
+
+	private static final int QUEUE_CAPACITY = 16; //must be a power of two
+	private static final int QUEUE_MASK = QUEUE_CAPACITY - 1;
+
+	private final GameBroadcaster broadcaster;
+	private final int[] queue = new int[QUEUE_CAPACITY];
+	private volatile long writeIndex; //only changed by the broadcaster
+	private volatile long readIndex; //only changed by the spectator
+	private volatile boolean lagging; //whether updates have been dropped since the last read
+	private int receivedCount; //number of updates read so far
+
+	/* Constructor */
+	public Spectator(GameBroadcaster broadcaster) {
+
+		this.broadcaster = broadcaster;
+		this.lagging = true; //catch up on the updates made before subscribing
+		this.receivedCount = 0;
+	}
+
+	/* Accessors */
+	public GameBroadcaster getBroadcaster() {
+
+		return this.broadcaster;
+	}
+
+	/* Returns the number of updates read so far */
+	public int getReceivedCount() {
+
+		return this.receivedCount;
+	}
+
+	/* Returns true if the last update read ended the game */
+	public boolean hasGameEnded() {
+
+		return receivedCount > 0 && GameUpdate.getState(
+			broadcaster.getUpdate(receivedCount - 1)) != GameUpdate.GAME_CONTINUES;
+	}
+
+	/* Copies the updates made since the last read into the input array, in order, without 
+	 * waiting, and returns the number copied. If there are more updates than the array has room 
+	 * for, the rest are copied by the next read. 
+	 */
+	public int read(int[] updates) {
+
+		int updatesRead = 0;
+
+		if (lagging) {
+			//clear the flag first, so drops from now on are noticed by the next read
+			lagging = false;
+			long queuedIndex = writeIndex;
+			int updateCount = broadcaster.getUpdateCount();
+
+			while (receivedCount < updateCount && updatesRead < updates.length) {
+				updates[updatesRead] = broadcaster.getUpdate(receivedCount);
+				updatesRead++;
+				receivedCount++;
+			}
+
+			if (receivedCount < updateCount) {
+				//no room for the rest, catch up on them next time
+				lagging = true;
+				return updatesRead;
+			}
+
+			//the queued updates are all in the log
+			readIndex = queuedIndex;
+		}
+
+		long nextIndex = readIndex;
+		long endIndex = writeIndex;
+		while (nextIndex < endIndex) {
+			int updateNumber = GameUpdate.getUpdateNumber(queue[(int) (nextIndex & QUEUE_MASK)]);
+
+			//updates already caught up on are skipped, and any dropped before this one are 
+			//taken from the log
+			while (receivedCount <= updateNumber && updatesRead < updates.length) {
+				updates[updatesRead] = broadcaster.getUpdate(receivedCount);
+				updatesRead++;
+				receivedCount++;
+			}
+
+			if (receivedCount <= updateNumber) {
+				//no room for this update, leave it queued for the next read
+				break;
+			}
+			nextIndex++;
+		}
+		readIndex = nextIndex;
+
+		return updatesRead;
+	}
+
+	/* Stops receiving moves */
+	public void unsubscribe() {
+
+		broadcaster.unsubscribe(this);
+	}
+
+	/* Adds an update to the queue, or drops it and marks the spectator as lagging if the queue is 
+	 * full. Called only by the broadcaster.
+	 */
+	void offer(int update) {
+
+		long index = writeIndex;
+		if (index - readIndex == QUEUE_CAPACITY) {
+			lagging = true;
+			return;
+		}
+
+		queue[(int) (index & QUEUE_MASK)] = update;
+		writeIndex = index + 1;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,156 @@
+/*
+ * Class that lets people watch the games played by a GameManager over the network, for example 
+ * with "nc localhost 7500". Each connection gets its own Spectator and thread, which sends every 
+ * update as a line of text ("O 1 1" for a move, "takeback O 1 1" for a takeback) and the result 
+ * when the game ends, then follows on to the next game. A slow connection only holds up its own 
+ * thread; its spectator falls behind and catches up from the game's log. It listens on the address 
+ * it is started with, which the program sets to the loopback address unless told otherwise.
+ */
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+public class SpectatorServer {
+
+	public static final int DEFAULT_PORT = 7500;
+
+	private static final long POLL_MILLIS = 50; //wait between reads when there are no updates
+	private static final int READ_BUFFER_SIZE = 64; //updates
+	private static final int DEFAULT_BACKLOG = 0; //lets the socket choose
+
+	private final ServerSocket serverSocket;
+	private final GameManager gameManager;
+
+	/* Constructor */
+	private SpectatorServer(ServerSocket serverSocket, GameManager gameManager) {
+
+		this.serverSocket = serverSocket;
+		this.gameManager = gameManager;
+	}
+
+	/* Starts accepting spectators of the game manager's games on the input port of the input 
+	 * address 
+	 */
+	public static SpectatorServer start(GameManager gameManager, int port, 
+		InetAddress bindAddress) throws IOException {
+
+		SpectatorServer server = new SpectatorServer(
+			new ServerSocket(port, DEFAULT_BACKLOG, bindAddress), gameManager);
+
+		Thread acceptThread = new Thread(() -> server.acceptSpectators());
+		acceptThread.setDaemon(true);
+		acceptThread.start();
+
+		return server;
+	}
+
+	/* Accessors */
+	public int getPort() {
+
+		return this.serverSocket.getLocalPort();
+	}
+
+	/* Accepts spectators until the server stops */
+	private void acceptSpectators() {
+
+		while (true) {
+			Socket socket;
+			try {
+				socket = serverSocket.accept();
+			}
+			catch (IOException e) {
+				return;
+			}
+
+			Thread watchThread = new Thread(() -> watch(socket));
+			watchThread.setDaemon(true);
+			watchThread.start();
+		}
+	}
+
+	/* Sends the updates of each game played to the socket until it is closed */
+	private void watch(Socket socket) {
+
+		GameBroadcaster broadcaster = null;
+		Spectator spectator = null;
+		boolean announced = false; //whether the game being watched has been introduced
+		int[] updates = new int[READ_BUFFER_SIZE];
+
+		try {
+			PrintWriter writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), 
+				StandardCharsets.UTF_8));
+
+			while (!writer.checkError()) {
+				//follow on to the next game once it starts
+				GameBroadcaster latestBroadcaster = gameManager.getBroadcaster();
+				if (latestBroadcaster != broadcaster) {
+					if (spectator != null) {
+						spectator.unsubscribe();
+					}
+					broadcaster = latestBroadcaster;
+					spectator = broadcaster.subscribe();
+					announced = false; 
+				}
+
+				int updateCount = spectator.read(updates);
+				if (updateCount > 0 && !announced) {
+					writer.println("Watching a game on a " + broadcaster.getGridSize() + "x" + 
+						broadcaster.getGridSize() + " grid, " + broadcaster.getWinLength() + 
+						" in a row to win.");
+					announced = true; 
+				}
+				for (int i = 0; i < updateCount; i++) {
+					writer.println(getUpdateText(updates[i], broadcaster.getGridSize()));
+				}
+
+				if (updateCount == 0) {
+					writer.flush();
+					Thread.sleep(POLL_MILLIS);
+				}
+			}
+		}
+		catch (IOException | InterruptedException e) {
+			//spectator gone, stop watching
+		}
+		finally {
+			if (spectator != null) {
+				spectator.unsubscribe();
+			}
+			try {
+				socket.close();
+			}
+			catch (IOException e) {
+				//already closed
+			}
+		}
+	}
+
+	/* Returns a line describing the update: the move or takeback, then the result if it ended 
+	 * the game 
+	 */
+	private String getUpdateText(int update, int gridSize) {
+
+		int cell = GameUpdate.getCell(update);
+		String updateText = GameUpdate.getSymbol(update) + " " + cell/gridSize + " " + 
+			cell%gridSize;
+		if (GameUpdate.isTakeback(update)) {
+			updateText = "takeback " + updateText;
+		}
+
+		int state = GameUpdate.getState(update);
+		if (state == GameUpdate.PLAYER_O_WON) {
+			updateText += System.lineSeparator() + "Game over. O won!";
+		} else if (state == GameUpdate.PLAYER_X_WON) {
+			updateText += System.lineSeparator() + "Game over. X won!";
+		} else if (state == GameUpdate.DRAW) {
+			updateText += System.lineSeparator() + "Game over. It was a draw!";
+		}
+
+		return updateText;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,239 @@
+/*
+ * Class that gives the solved value of every reachable position on a small board (up to 4x4),
+ * read from a tablebase file written by TablebaseGenerator. The file is memory-mapped, so only
+ * the parts of it that are used are ever read from disk.
+ *
+ * Positions are numbered by reading the cells in row-major order as the digits of a base-3 number
+ * (0 for empty, 1 for O, 2 for X), least significant digit first. The board's 8 symmetries
+ * (rotations and reflections) lead to the same value, so only the lowest numbered of the 8
+ * equivalent positions, its canonical index, is solved. Values are from the point of view of the
+ * player to move and are packed four to a byte after a short header.
+ */
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class Tablebase {
+
+	public static final int MAX_SIZE = 4;
+	public static final int UNKNOWN = 0;
+	public static final int WIN = 1;
+	public static final int LOSS = 2;
+	public static final int DRAW = 3;
+	public static final int HEADER_SIZE = 3*Integer.BYTES;
+	public static final int MAGIC_NUMBER = 0x54425433; //"TBT3"
+
+	private static final int SYMMETRY_COUNT = 8;
+	private static final int VALUES_PER_BYTE = 4;
+	private static final int BITS_PER_VALUE = 2;
+	private static final int VALUE_MASK = 3;
+
+	//tablebases opened so far, keyed by file name, shared by all tablebase players
+	private static final ConcurrentHashMap<String, Tablebase> openTablebases =
+		new ConcurrentHashMap<String, Tablebase>();
+
+	private int size;
+	private int winLength;
+	private int[][] symmetries;
+	private int[] powersOfThree;
+	private MappedByteBuffer values;
+
+	/* Constructor */
+	private Tablebase(int size, int winLength, MappedByteBuffer values) {
+
+		this.size = size;
+		this.winLength = winLength;
+		this.symmetries = createSymmetries(size);
+		this.powersOfThree = createPowersOfThree(size*size);
+		this.values = values;
+	}
+
+	/* Returns the tablebase for boards of the input size and win length, opening its file if this
+	 * is the first request for it. Returns null if no tablebase has been generated.
+	 */
+	public static Tablebase getInstance(int size, int winLength) {
+
+		String fileName = getFileName(size, winLength);
+
+		Tablebase tablebase = openTablebases.get(fileName);
+		if (tablebase == null && size <= MAX_SIZE) {
+			tablebase = open(fileName, size, winLength);
+			if (tablebase != null) {
+				openTablebases.putIfAbsent(fileName, tablebase);
+			}
+		}
+
+		return tablebase;
+	}
+
+	/* Returns the name of the tablebase file for boards of the input size and win length */
+	public static String getFileName(int size, int winLength) {
+
+		return "tablebase" + size + "x" + size + "k" + winLength + ".dat";
+	}
+
+	/* Returns the value of the position on the board for the player to move */
+	public int getValue(Board board) {
+
+		return getValue(board, new int[size*size]);
+	}
+
+	/* Returns the value of the position, using the digits array as working space */
+	private int getValue(Board board, int[] digits) {
+
+		for (int row = 0; row < size; row++) {
+			for (int column = 0; column < size; column++) {
+				digits[row*size + column] = getDigit(board.getPlayer(row, column));
+			}
+		}
+
+		return getValue(getCanonicalIndex(digits, symmetries, powersOfThree));
+	}
+
+	/* Returns the cell of the best move on the board for the player to move: a move to a position
+	 * lost for the other player if there is one, otherwise a move to a drawn position, otherwise
+	 * any move. Returns Board.NO_CELL if the board is full.
+	 */
+	public int getBestCell(Board board) {
+
+		int[] moves = new int[size*size];
+		int[] digits = new int[size*size];
+		int moveCount = board.findEmptyCells(moves);
+		int bestCell = Board.NO_CELL;
+		int bestChildValue = UNKNOWN;
+
+		for (int i = 0; i < moveCount; i++) {
+
+			board.play(moves[i]);
+			int childValue = getValue(board, digits);
+			board.undo(moves[i]);
+
+			if (bestCell == Board.NO_CELL ||
+				rankChildValue(childValue) > rankChildValue(bestChildValue)) {
+				bestCell = moves[i];
+				bestChildValue = childValue;
+			}
+		}
+
+		return bestCell;
+	}
+
+	/* Returns true if the tablebase covers the board */
+	public boolean covers(Board board) {
+
+		return board.getSize() == size && board.getWinLength() == winLength;
+	}
+
+	/* Returns the 8 symmetries of a square board of the input size, each as an array giving the
+	 * cell that each cell is moved to.
+	 */
+	public static int[][] createSymmetries(int size) {
+
+		int[][] symmetries = new int[SYMMETRY_COUNT][size*size];
+
+		for (int row = 0; row < size; row++) {
+			for (int column = 0; column < size; column++) {
+
+				int cell = row*size + column;
+				int last = size - 1;
+				symmetries[0][cell] = row*size + column;
+				symmetries[1][cell] = column*size + (last - row);
+				symmetries[2][cell] = (last - row)*size + (last - column);
+				symmetries[3][cell] = (last - column)*size + row;
+				symmetries[4][cell] = row*size + (last - column);
+				symmetries[5][cell] = (last - row)*size + column;
+				symmetries[6][cell] = column*size + row;
+				symmetries[7][cell] = (last - column)*size + (last - row);
+			}
+		}
+
+		return symmetries;
+	}
+
+	public static int[] createPowersOfThree(int count) {
+
+		int[] powersOfThree = new int[count + 1];
+		powersOfThree[0] = 1;
+		for (int i = 1; i <= count; i++) {
+			powersOfThree[i] = powersOfThree[i-1]*3;
+		}
+
+		return powersOfThree;
+	}
+
+	/* Returns the lowest index of the position given by the cell digits under any symmetry */
+	public static int getCanonicalIndex(int[] digits, int[][] symmetries, int[] powersOfThree) {
+
+		int canonicalIndex = Integer.MAX_VALUE;
+
+		for (int i = 0; i < SYMMETRY_COUNT; i++) {
+			int index = 0;
+			for (int cell = 0; cell < digits.length; cell++) {
+				index += digits[cell]*powersOfThree[symmetries[i][cell]];
+			}
+			canonicalIndex = Math.min(canonicalIndex, index);
+		}
+
+		return canonicalIndex;
+	}
+
+	/* Returns the base-3 digit used for a cell holding the input player's symbol */
+	public static int getDigit(int player) {
+
+		if (player == Board.PLAYER_O) {
+			return 1;
+		} else if (player == Board.PLAYER_X) {
+			return 2;
+		}
+		return 0;
+	}
+
+	private int getValue(int index) {
+
+		int packed = values.get(HEADER_SIZE + index/VALUES_PER_BYTE);
+		return (packed >>> ((index % VALUES_PER_BYTE)*BITS_PER_VALUE)) & VALUE_MASK;
+	}
+
+	/* Ranks the value of the position after a move (for the other player) from worst to best
+	 * for the player making the move.
+	 */
+	private int rankChildValue(int childValue) {
+
+		if (childValue == LOSS) {
+			return 3;
+		} else if (childValue == DRAW) {
+			return 2;
+		} else if (childValue == WIN) {
+			return 1;
+		}
+		return 0;
+	}
+
+	/* Maps the tablebase file and checks its header. Returns null if the file does not exist or
+	 * does not hold a tablebase for the expected board.
+	 */
+	private static Tablebase open(String fileName, int size, int winLength) {
+
+		try {
+			RandomAccessFile file = new RandomAccessFile(fileName, "r");
+			MappedByteBuffer values = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0,
+				file.length());
+			file.close(); //the mapping stays valid once the file is closed
+
+			if (values.getInt(0) != MAGIC_NUMBER || values.getInt(Integer.BYTES) != size ||
+				values.getInt(2*Integer.BYTES) != winLength) {
+				System.out.println("Tablebase file " + fileName + " is not valid.");
+				return null;
+			}
+
+			return new Tablebase(size, winLength, values);
+		}
+		catch (IOException e) {
+			//not generated yet
+			return null;
+		}
+	}
+}
\ No newline at end of file
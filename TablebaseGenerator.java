@@ -0,0 +1,315 @@
+/*
+ * Program that solves every reachable position on a small board by retrograde analysis and writes
+ * the results to a tablebase file (see Tablebase for the format). Run with the board size and win
+ * length, e.g. "java TablebaseGenerator 4 4", which writes tablebase4x4k4.dat.
+ *
+ * Positions are first classified by number of symbols on the board, keeping only canonical
+ * positions (see Tablebase) that can occur in a game. Full boards and won positions are solved
+ * directly, and then each level is solved from the level after it, working back to the empty
+ * board. Every pass is split into chunks of positions that are processed in parallel on all
+ * cores. A 4x4 board needs around 100MB of memory.
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+public class TablebaseGenerator {
+
+	private static final int DEFAULT_SIZE = 4;
+	private static final int CHUNK_SIZE = 1 << 16; //positions processed by one task
+	private static final byte NOT_REACHABLE = -1;
+	private static final int NO_LINE = 0;
+
+	private int size;
+	private int winLength;
+	private int cellCount;
+	private int positionCount;
+	private int[][] symmetries;
+	private int[] powersOfThree;
+	private int[][] lines; //cells of every line of winLength cells
+	private byte[] levels; //number of symbols in each canonical reachable position
+	private byte[] values;
+
+	/* Constructor */
+	public TablebaseGenerator(int size, int winLength) {
+
+		this.size = size;
+		this.winLength = winLength;
+		this.cellCount = size*size;
+		this.symmetries = Tablebase.createSymmetries(size);
+		this.powersOfThree = Tablebase.createPowersOfThree(cellCount);
+		this.positionCount = powersOfThree[cellCount];
+		this.lines = createLines();
+	}
+
+	public static void main(String[] args) {
+
+		int size = DEFAULT_SIZE;
+		int winLength = DEFAULT_SIZE;
+
+		if (args.length > 0) {
+			size = Integer.parseInt(args[0]);
+			winLength = size;
+		}
+		if (args.length > 1) {
+			winLength = Integer.parseInt(args[1]);
+		}
+
+		if (size < Board.MIN_SIZE || size > Tablebase.MAX_SIZE || winLength < Board.MIN_SIZE ||
+			winLength > size) {
+			System.out.println("Board size must be from " + Board.MIN_SIZE + " to " +
+				Tablebase.MAX_SIZE + ", and win length from " + Board.MIN_SIZE +
+				" to the board size.");
+			return;
+		}
+
+		long startTime = System.nanoTime();
+
+		TablebaseGenerator generator = new TablebaseGenerator(size, winLength);
+		generator.classifyPositions();
+		generator.solvePositions();
+
+		try {
+			generator.write(Tablebase.getFileName(size, winLength));
+		}
+		catch (IOException e) {
+			System.out.println("Problem writing to file.");
+			return;
+		}
+
+		System.out.println("Solved " + size + "x" + size + " board in " +
+			(System.nanoTime() - startTime)/1000000 + " ms. Empty board is a " +
+			describeValue(generator.values[0]) + " for the first player.");
+	}
+
+	/* Works out the level of every canonical position that can occur in a game */
+	private void classifyPositions() {
+
+		levels = new byte[positionCount];
+		values = new byte[positionCount];
+
+		forEachChunk(chunkStart -> {
+			int[] digits = new int[cellCount];
+			decode(chunkStart, digits);
+
+			for (int index = chunkStart; index < chunkEnd(chunkStart); index++) {
+				levels[index] = classify(index, digits);
+				increment(digits);
+			}
+		});
+	}
+
+	/* Solves the positions level by level, from full boards back to the empty board */
+	private void solvePositions() {
+
+		for (int level = cellCount; level >= 0; level--) {
+			final byte currentLevel = (byte) level;
+
+			forEachChunk(chunkStart -> {
+				int[] digits = new int[cellCount];
+				decode(chunkStart, digits);
+
+				for (int index = chunkStart; index < chunkEnd(chunkStart); index++) {
+					if (levels[index] == currentLevel) {
+						values[index] = (byte) solve(digits, currentLevel);
+					}
+					increment(digits);
+				}
+			});
+		}
+	}
+
+	/* Returns the level of the position, or NOT_REACHABLE if it is not canonical or cannot occur
+	 * in a game.
+	 */
+	private byte classify(int index, int[] digits) {
+
+		int symbolOCount = 0;
+		int symbolXCount = 0;
+		for (int cell = 0; cell < cellCount; cell++) {
+			if (digits[cell] == 1) {
+				symbolOCount++;
+			} else if (digits[cell] == 2) {
+				symbolXCount++;
+			}
+		}
+
+		//O moves first, so has the same number of symbols as X or one more
+		if (symbolOCount != symbolXCount && symbolOCount != symbolXCount + 1) {
+			return NOT_REACHABLE;
+		}
+
+		if (Tablebase.getCanonicalIndex(digits, symmetries, powersOfThree) != index) {
+			return NOT_REACHABLE;
+		}
+
+		//only the player who moved last can have a line
+		int lastMoverDigit = 2;
+		if (symbolOCount > symbolXCount) {
+			lastMoverDigit = 1;
+		}
+		int lineDigit = findLine(digits);
+		if (lineDigit != NO_LINE && lineDigit != lastMoverDigit) {
+			return NOT_REACHABLE;
+		}
+
+		return (byte) (symbolOCount + symbolXCount);
+	}
+
+	/* Returns the value of the position for the player to move, given that every position with
+	 * one more symbol has been solved.
+	 */
+	private int solve(int[] digits, int level) {
+
+		if (findLine(digits) != NO_LINE) {
+			//the other player has just won
+			return Tablebase.LOSS;
+		}
+		if (level == cellCount) {
+			return Tablebase.DRAW;
+		}
+
+		int moverDigit = 1 + (level % 2);
+		boolean canDraw = false;
+		int[] childDigits = digits.clone();
+
+		for (int cell = 0; cell < cellCount; cell++) {
+			if (digits[cell] != 0) {
+				continue;
+			}
+
+			childDigits[cell] = moverDigit;
+			int childValue = values[Tablebase.getCanonicalIndex(childDigits, symmetries,
+				powersOfThree)];
+			childDigits[cell] = 0;
+
+			if (childValue == Tablebase.LOSS) {
+				return Tablebase.WIN;
+			} else if (childValue == Tablebase.DRAW) {
+				canDraw = true;
+			}
+		}
+
+		if (canDraw) {
+			return Tablebase.DRAW;
+		}
+		return Tablebase.LOSS;
+	}
+
+	/* Returns the digit of a player with a line on the board, or NO_LINE if neither player has */
+	private int findLine(int[] digits) {
+
+		for (int[] line : lines) {
+			int digit = digits[line[0]];
+			int i = 1;
+			while (digit != 0 && i < line.length && digits[line[i]] == digit) {
+				i++;
+			}
+			if (digit != 0 && i == line.length) {
+				return digit;
+			}
+		}
+
+		return NO_LINE;
+	}
+
+	/* Returns the cells of every horizontal, vertical and diagonal line of winLength cells */
+	private int[][] createLines() {
+
+		int[][] rowSteps = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+		int[][] allLines = new int[rowSteps.length*cellCount][];
+		int lineCount = 0;
+
+		for (int[] step : rowSteps) {
+			for (int row = 0; row < size; row++) {
+				for (int column = 0; column < size; column++) {
+
+					int endRow = row + (winLength-1)*step[0];
+					int endColumn = column + (winLength-1)*step[1];
+					if (endRow < 0 || endRow >= size || endColumn < 0 || endColumn >= size) {
+						continue;
+					}
+
+					int[] line = new int[winLength];
+					for (int i = 0; i < winLength; i++) {
+						line[i] = (row + i*step[0])*size + column + i*step[1];
+					}
+					allLines[lineCount] = line;
+					lineCount++;
+				}
+			}
+		}
+
+		int[][] lines = new int[lineCount][];
+		System.arraycopy(allLines, 0, lines, 0, lineCount);
+		return lines;
+	}
+
+	/* Writes the solved values, packed four to a byte, after the tablebase header */
+	private void write(String fileName) throws IOException {
+
+		DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(
+			new FileOutputStream(fileName)));
+
+		outputStream.writeInt(Tablebase.MAGIC_NUMBER);
+		outputStream.writeInt(size);
+		outputStream.writeInt(winLength);
+
+		for (int index = 0; index < positionCount; index += 4) {
+			int packed = 0;
+			for (int i = 0; i < 4 && index + i < positionCount; i++) {
+				packed |= values[index + i] << (2*i);
+			}
+			outputStream.writeByte(packed);
+		}
+
+		outputStream.close();
+	}
+
+	/* Runs the input task for the start of every chunk of positions, in parallel */
+	private void forEachChunk(IntConsumer task) {
+
+		int chunkCount = (positionCount + CHUNK_SIZE - 1)/CHUNK_SIZE;
+		IntStream.range(0, chunkCount).parallel().forEach(chunk -> task.accept(chunk*CHUNK_SIZE));
+	}
+
+	private int chunkEnd(int chunkStart) {
+
+		return Math.min(chunkStart + CHUNK_SIZE, positionCount);
+	}
+
+	/* Sets the digits to those of the position with the input index */
+	private void decode(int index, int[] digits) {
+
+		for (int cell = 0; cell < cellCount; cell++) {
+			digits[cell] = index % 3;
+			index /= 3;
+		}
+	}
+
+	/* Moves the digits on to those of the next position */
+	private void increment(int[] digits) {
+
+		for (int cell = 0; cell < cellCount; cell++) {
+			if (digits[cell] < 2) {
+				digits[cell]++;
+				return;
+			}
+			digits[cell] = 0;
+		}
+	}
+
+	private static String describeValue(int value) {
+
+		if (value == Tablebase.WIN) {
+			return "win";
+		} else if (value == Tablebase.LOSS) {
+			return "loss";
+		}
+		return "draw";
+	}
+}
\ No newline at end of file
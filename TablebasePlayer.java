@@ -0,0 +1,91 @@
+/* 
+ * Class Invariant: all objects have username, family name, and given name strings, games played, 
+ * games won, and games drawn counts, and win and draw ratios. 
+ */
+
+import java.util.concurrent.CompletableFuture;
+
+public class TablebasePlayer extends Player {
+
+	//fixed, so saved players still load after the class changes
+	private static final long serialVersionUID = 2363823476336941481L;
+
+	private transient AdvancedAIPlayer fallbackPlayer; //searches boards with no tablebase
+	
+	/* Constructors */ 
+	public TablebasePlayer() {}
+
+	public TablebasePlayer(String username, String familyName, String givenName) {
+
+		super(username, familyName, givenName);
+	}
+
+	public TablebasePlayer(String username, String familyName, String givenName, 
+		int gamesPlayedCount, int gamesWonCount, int gamesDrawnCount, double winRatio, 
+		double drawRatio) {
+
+		super(username, familyName, givenName, gamesPlayedCount, gamesWonCount, gamesDrawnCount,
+			winRatio, drawRatio);
+	}
+
+	/* Returns the perfect move for the board from the tablebase. A line across the whole grid is 
+	 * needed to win. 
+	 */ 
+	public Move makeMove(char[][] gameBoard) {
+
+		return makeMove(Board.fromGrid(gameBoard, gameBoard.length)); 
+	}
+
+	/* Returns the perfect move for the board from the tablebase if one has been generated for 
+	 * boards of its size, otherwise searches for the best move. 
+	 */ 
+	protected Move makeMove(Board board) {
+
+		Tablebase tablebase = Tablebase.getInstance(board.getSize(), board.getWinLength()); 
+		if (tablebase != null) {
+			return board.toMove(tablebase.getBestCell(new Board(board))); 
+		}
+
+		return getFallbackPlayer().makeMove(board); 
+	}
+
+	/* Returns the move from the tablebase straight away, or searches within the time budget if 
+	 * there is no tablebase for the board. 
+	 */ 
+	protected CompletableFuture<Move> makeMoveAsync(Board board, long timeBudgetMillis) {
+
+		Tablebase tablebase = Tablebase.getInstance(board.getSize(), board.getWinLength()); 
+		if (tablebase != null) {
+			return CompletableFuture.completedFuture(
+				board.toMove(tablebase.getBestCell(new Board(board)))); 
+		}
+
+		return getFallbackPlayer().makeMoveAsync(board, timeBudgetMillis); 
+	}
+
+	/* Returns the cell of the best move found for a game of Qubic, which has no tablebase */ 
+	protected int makeQubicMove(QubicBoard board, long timeBudgetMillis) {
+
+		return getFallbackPlayer().makeQubicMove(board, timeBudgetMillis); 
+	}
+
+	private AdvancedAIPlayer getFallbackPlayer() {
+
+		if (fallbackPlayer == null) {
+			fallbackPlayer = new AdvancedAIPlayer(); 
+		}
+		return fallbackPlayer; 
+	}
+
+	/* Makes a copy of the calling tablebase player and returns a reference to the copy */ 
+	public TablebasePlayer makeCopy() {
+
+		TablebasePlayer playerCopy = new TablebasePlayer(this.username, this.familyName, 
+			this.givenName, this.gamesPlayedCount, this.gamesWonCount, this.gamesDrawnCount, 
+			this.winRatio, this.drawRatio);
+
+		playerCopy.setPlayerId(this.playerId);
+
+		return playerCopy;
+	}
+}
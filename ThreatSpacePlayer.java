@@ -0,0 +1,74 @@
+/* 
+ * Class Invariant: all objects have username, family name, and given name strings, games played, 
+ * games won, and games drawn counts, and win and draw ratios. 
+ */
+
+import java.util.concurrent.CompletableFuture;
+
+public class ThreatSpacePlayer extends Player {
+	
+	//fixed, so saved players still load after the class changes
+	private static final long serialVersionUID = 3168199610755220095L;
+
+	/* Constructors */ 
+	public ThreatSpacePlayer() {}
+
+	public ThreatSpacePlayer(String username, String familyName, String givenName) {
+
+		super(username, familyName, givenName);
+	}
+
+	public ThreatSpacePlayer(String username, String familyName, String givenName, 
+		int gamesPlayedCount, int gamesWonCount, int gamesDrawnCount, double winRatio, 
+		double drawRatio) {
+
+		super(username, familyName, givenName, gamesPlayedCount, gamesWonCount, gamesDrawnCount,
+			winRatio, drawRatio);
+	}
+
+	/* Returns the best move found by threat-space search. A line across the whole grid is needed
+	 * to win. 
+	 */ 
+	public Move makeMove(char[][] gameBoard) {
+
+		return makeMove(Board.fromGrid(gameBoard, gameBoard.length)); 
+	}
+
+	/* Returns the best move found by threat-space search, searching until it completes */ 
+	protected Move makeMove(Board board) {
+
+		return findBestMove(board, new SearchContext()); 
+	}
+
+	/* Runs a threat-space search and returns a future for its move. If it has not finished when 
+	 * the time budget runs out it is cancelled, and the best move it has found so far is used. 
+	 */ 
+	protected CompletableFuture<Move> makeMoveAsync(Board board, long timeBudgetMillis) {
+
+		return makeTimedMove(board, timeBudgetMillis, this::findBestMove); 
+	}
+
+	private Move findBestMove(Board board, SearchContext context) {
+
+		//the search copies the board into its own line patterns, so the board is not changed
+		return board.toMove(new ThreatSpaceSearch(board, context).findBestCell()); 
+	}
+
+	/* Returns the cell of the best move found for a game of Qubic within the time budget */ 
+	protected int makeQubicMove(QubicBoard board, long timeBudgetMillis) {
+
+		return new QubicSearch(board, timeBudgetMillis).findBestCell(); 
+	}
+
+	/* Makes a copy of the calling threat-space player and returns a reference to the copy */ 
+	public ThreatSpacePlayer makeCopy() {
+
+		ThreatSpacePlayer playerCopy = new ThreatSpacePlayer(this.username, this.familyName, 
+			this.givenName, this.gamesPlayedCount, this.gamesWonCount, this.gamesDrawnCount, 
+			this.winRatio, this.drawRatio);
+
+		playerCopy.setPlayerId(this.playerId);
+
+		return playerCopy;
+	}
+}
\ No newline at end of file
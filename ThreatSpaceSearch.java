@@ -0,0 +1,409 @@
+/*
+ * Class that searches for the best move on large k-in-a-row boards. It first looks for a forced
+ * win by threat-space search: sequences of threats (fours, which must be blocked at once, and
+ * threes, which become unstoppable if not answered) that leave the defender no escape. Only
+ * threatening moves are tried for the attacker and only the replies that defend against the
+ * threat for the defender, so forcing lines are found far more cheaply than by a full-width
+ * search. Threats by continuous fours are tried first, then threats including threes, each with
+ * an increasing number of attacking moves. If no forced win is found, a shallow alpha-beta search
+ * over the most promising cells picks the move.
+ *
+ * Threats are found from LinePatterns, which is updated incrementally as moves are tried. Cells
+ * are numbered in row-major order.
+ */
+
+public class ThreatSpaceSearch {
+
+	private static final int MAX_FOUR_DEPTH = 10; //attacking moves in a sequence of fours
+	private static final int MAX_THREE_DEPTH = 4; //attacking moves in a sequence including threes
+	private static final int MAX_PLY = 2*MAX_FOUR_DEPTH + 2;
+	private static final int FALLBACK_DEPTH = 2;
+	private static final int MAX_FALLBACK_CANDIDATES = 12;
+	private static final int NEIGHBOURHOOD = 2; //distance from a symbol of cells worth trying
+	private static final long WIN_SCORE = Long.MAX_VALUE/2;
+
+	private LinePatterns patterns;
+	private SearchContext context;
+	private int size;
+	private int winLength;
+	private int attacker; //player the search is finding a move for
+	private int defender;
+	private int[][] cellBuffers; //cells found at each ply, reused rather than allocated per node
+	private long[][] scoreBuffers;
+	private int[] neighbourBuffer;
+	private int[] winningCellBuffer;
+	private int winningCell; //first move of the forced win found, if any
+
+	/* Constructor */
+	public ThreatSpaceSearch(Board board, SearchContext context) {
+
+		this.patterns = new LinePatterns(board);
+		this.context = context;
+		this.size = board.getSize();
+		this.winLength = board.getWinLength();
+		this.attacker = board.getPlayerToMove();
+		this.defender = 1 - attacker;
+
+		int cellCount = board.getCellCount();
+		this.cellBuffers = new int[MAX_PLY + 1][cellCount];
+		this.scoreBuffers = new long[FALLBACK_DEPTH + 1][cellCount];
+		this.neighbourBuffer = new int[cellCount];
+		this.winningCellBuffer = new int[cellCount];
+	}
+
+	/* Returns the best cell for the player to move, publishing a good move to the search context
+	 * as soon as one is known. Returns Board.NO_CELL if the board is full.
+	 */
+	public int findBestCell() {
+
+		int[] cells = cellBuffers[0];
+
+		//win at once, or stop the other player winning at once
+		if (patterns.findWinningCells(attacker, cells) > 0 ||
+			patterns.findWinningCells(defender, cells) > 0) {
+			return cells[0];
+		}
+
+		int candidateCount = findCandidateCells(cells);
+		if (candidateCount == 0) {
+			return Board.NO_CELL;
+		}
+		publishBestSoFar(findBestScoringCell(cells, candidateCount));
+
+		//look for a forced win, by fours alone and then including threes
+		for (int depth = 1; depth <= MAX_FOUR_DEPTH && !context.isCancelled(); depth++) {
+			if (attack(depth, 0, false)) {
+				return winningCell;
+			}
+		}
+		for (int depth = 1; depth <= MAX_THREE_DEPTH && !context.isCancelled(); depth++) {
+			if (attack(depth, 0, true)) {
+				return winningCell;
+			}
+		}
+
+		int bestCell = searchFallback();
+		publishBestSoFar(bestCell);
+		return bestCell;
+	}
+
+	/* Returns true if the attacker, to move, can force a win within the input number of attacking
+	 * moves. Records the first move of the win when called at the root.
+	 */
+	private boolean attack(int depth, int ply, boolean allowThrees) {
+
+		if (context.isCancelled()) {
+			return false;
+		}
+
+		int[] cells = cellBuffers[ply];
+
+		if (patterns.findWinningCells(attacker, cells) > 0) {
+			recordWinningCell(cells[0], ply);
+			return true;
+		}
+
+		int defenderWinCount = patterns.findWinningCells(defender, cells);
+		if (defenderWinCount > 1 || depth == 0) {
+			return false;
+		}
+
+		int candidateCount = 1; //a four by the defender must be blocked
+		if (defenderWinCount == 0) {
+			candidateCount = findThreatCandidates(cells, allowThrees);
+		}
+
+		for (int i = 0; i < candidateCount; i++) {
+			int cell = cells[i];
+			boolean isWin = false;
+
+			patterns.play(cell, attacker);
+			if (patterns.hasFourThrough(cell, attacker) || (allowThrees && makesThree(cell))) {
+				isWin = defend(depth - 1, ply + 1, allowThrees, cell);
+			}
+			patterns.undo(cell);
+
+			if (isWin) {
+				recordWinningCell(cell, ply);
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/* Returns true if every defence against the threat made by the attacker's last move still
+	 * loses for the defender.
+	 */
+	private boolean defend(int depth, int ply, boolean allowThrees, int threatCell) {
+
+		if (context.isCancelled()) {
+			return false;
+		}
+
+		int[] cells = cellBuffers[ply];
+
+		if (patterns.findWinningCells(defender, cells) > 0) {
+			//the defender wins before the threat matters
+			return false;
+		}
+
+		int attackerWinCount = patterns.findWinningCells(attacker, cells);
+		if (attackerWinCount > 1) {
+			//more than one way to complete a line, which cannot all be blocked
+			return true;
+		}
+
+		int defenceCount = attackerWinCount; //a four must be blocked at its winning cell
+		if (attackerWinCount == 0) {
+			defenceCount = findThreeDefences(threatCell, cells);
+		}
+
+		for (int i = 0; i < defenceCount; i++) {
+			int cell = cells[i];
+
+			patterns.play(cell, defender);
+			boolean isWin = attack(depth, ply + 1, allowThrees);
+			patterns.undo(cell);
+
+			if (!isWin) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/* Returns true if the attacker's symbol in the cell makes a three: a threat to make, in one
+	 * more move, two winning cells at once.
+	 */
+	private boolean makesThree(int cell) {
+
+		int neighbourCount = patterns.findNeighbouringCells(cell, attacker, neighbourBuffer);
+
+		for (int i = 0; i < neighbourCount; i++) {
+			int neighbour = neighbourBuffer[i];
+
+			patterns.play(neighbour, attacker);
+			int winningCellCount = patterns.findWinningCellsThrough(neighbour, attacker,
+				winningCellBuffer);
+			patterns.undo(neighbour);
+
+			if (winningCellCount > 1) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/* Finds the defender's replies to a three made in the input cell: the cells that would turn
+	 * it into a double threat, the winning cells of those double threats, and any cell where the
+	 * defender can make a four of their own. Stores the cells and returns how many were found.
+	 */
+	private int findThreeDefences(int threatCell, int[] cells) {
+
+		int defenceCount = 0;
+		int neighbourCount = patterns.findNeighbouringCells(threatCell, attacker, neighbourBuffer);
+
+		for (int i = 0; i < neighbourCount; i++) {
+			int neighbour = neighbourBuffer[i];
+
+			patterns.play(neighbour, attacker);
+			int winningCellCount = patterns.findWinningCellsThrough(neighbour, attacker,
+				winningCellBuffer);
+			patterns.undo(neighbour);
+
+			if (winningCellCount > 1) {
+				defenceCount = addCell(cells, defenceCount, neighbour);
+				for (int j = 0; j < winningCellCount; j++) {
+					defenceCount = addCell(cells, defenceCount, winningCellBuffer[j]);
+				}
+			}
+		}
+
+		int counterCount = patterns.findFourMakingCells(defender, neighbourBuffer);
+		for (int i = 0; i < counterCount; i++) {
+			defenceCount = addCell(cells, defenceCount, neighbourBuffer[i]);
+		}
+
+		return defenceCount;
+	}
+
+	/* Finds the cells where the attacker could make a threat, storing them in the cells array,
+	 * and returns how many were found.
+	 */
+	private int findThreatCandidates(int[] cells, boolean allowThrees) {
+
+		int minimumCount = winLength - 2; //symbols already in a window for a move to make a four
+		if (allowThrees) {
+			minimumCount = winLength - 3;
+		}
+
+		int candidateCount = 0;
+		for (int cell = 0; cell < patterns.getCellCount(); cell++) {
+			if (patterns.isEmpty(cell) && minimumCount > 0 &&
+				patterns.getLongestOpenCount(cell, attacker) >= minimumCount) {
+				cells[candidateCount] = cell;
+				candidateCount++;
+			}
+		}
+
+		return candidateCount;
+	}
+
+	/* Picks the best move by a shallow alpha-beta search over the most promising cells */
+	private int searchFallback() {
+
+		int[] cells = cellBuffers[0];
+		int candidateCount = findBestCandidates(cells, scoreBuffers[0], attacker);
+		int bestCell = cells[0];
+		long alpha = -WIN_SCORE - 1;
+
+		for (int i = 0; i < candidateCount && !context.isCancelled(); i++) {
+			long value = scoreMove(cells[i], attacker, FALLBACK_DEPTH, alpha, WIN_SCORE + 1);
+			if (value > alpha) {
+				alpha = value;
+				bestCell = cells[i];
+			}
+		}
+
+		return bestCell;
+	}
+
+	/* Returns the value for the player of moving in the cell, searching the replies to the input
+	 * depth.
+	 */
+	private long scoreMove(int cell, int player, int depth, long alpha, long beta) {
+
+		patterns.play(cell, player);
+
+		long value;
+		if (patterns.isWinThrough(cell, player)) {
+			value = WIN_SCORE;
+		} else {
+			value = -alphaBeta(1 - player, depth - 1, -beta, -alpha);
+		}
+
+		patterns.undo(cell);
+		return value;
+	}
+
+	/* Returns the value of the position for the player to move, searched to the input depth */
+	private long alphaBeta(int player, int depth, long alpha, long beta) {
+
+		if (depth == 0 || context.isCancelled()) {
+			return patterns.evaluate(player);
+		}
+
+		int[] cells = cellBuffers[FALLBACK_DEPTH - depth + 1];
+		int candidateCount = findBestCandidates(cells, scoreBuffers[FALLBACK_DEPTH - depth + 1],
+			player);
+		if (candidateCount == 0) {
+			return 0;
+		}
+
+		for (int i = 0; i < candidateCount; i++) {
+			long value = scoreMove(cells[i], player, depth, alpha, beta);
+			if (value >= beta) {
+				return value;
+			}
+			alpha = Math.max(alpha, value);
+		}
+
+		return alpha;
+	}
+
+	/* Finds the highest scoring candidate cells for the player, storing them in the cells array
+	 * in order of descending score, and returns how many were kept.
+	 */
+	private int findBestCandidates(int[] cells, long[] scores, int player) {
+
+		int candidateCount = findCandidateCells(cells);
+
+		for (int i = 0; i < candidateCount; i++) {
+			scores[i] = patterns.scoreCell(cells[i], player);
+		}
+
+		//partial selection sort, only the best few are needed
+		int keptCount = Math.min(candidateCount, MAX_FALLBACK_CANDIDATES);
+		for (int i = 0; i < keptCount; i++) {
+			int bestIndex = i;
+			for (int j = i + 1; j < candidateCount; j++) {
+				if (scores[j] > scores[bestIndex]) {
+					bestIndex = j;
+				}
+			}
+			swap(cells, scores, i, bestIndex);
+		}
+
+		return keptCount;
+	}
+
+	private int findBestScoringCell(int[] cells, int candidateCount) {
+
+		int bestCell = cells[0];
+		long bestScore = -1;
+
+		for (int i = 0; i < candidateCount; i++) {
+			long score = patterns.scoreCell(cells[i], attacker);
+			if (score > bestScore) {
+				bestScore = score;
+				bestCell = cells[i];
+			}
+		}
+
+		return bestCell;
+	}
+
+	/* Finds the empty cells near a symbol (or the centre of an empty board), storing them in the
+	 * cells array, and returns how many were found.
+	 */
+	private int findCandidateCells(int[] cells) {
+
+		int candidateCount = patterns.findNeighbourhoodCells(NEIGHBOURHOOD, cells);
+
+		int centre = (size/2)*size + size/2;
+		if (candidateCount == 0 && patterns.isEmpty(centre)) {
+			cells[0] = centre;
+			candidateCount = 1;
+		}
+
+		return candidateCount;
+	}
+
+	private void recordWinningCell(int cell, int ply) {
+
+		if (ply == 0) {
+			winningCell = cell;
+		}
+	}
+
+	private void publishBestSoFar(int cell) {
+
+		context.setBestCellSoFar(cell);
+	}
+
+	private int addCell(int[] cells, int cellCount, int cell) {
+
+		for (int i = 0; i < cellCount; i++) {
+			if (cells[i] == cell) {
+				return cellCount;
+			}
+		}
+
+		cells[cellCount] = cell;
+		return cellCount + 1;
+	}
+
+	private void swap(int[] cells, long[] scores, int i, int j) {
+
+		int cell = cells[i];
+		cells[i] = cells[j];
+		cells[j] = cell;
+
+		long score = scores[i];
+		scores[i] = scores[j];
+		scores[j] = score;
+	}
+}
\ No newline at end of file
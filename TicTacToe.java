@@ -5,6 +5,9 @@
  * @since 2016-05-20
  */ 
 
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 import java.util.Scanner;
 
 public class TicTacToe {
@@ -14,48 +17,157 @@ public class TicTacToe {
 	private static final int USERNAME_TOKEN = 0;
 	private static final int FAMILY_NAME_TOKEN = 1;
 	private static final int GIVEN_NAME_TOKEN = 2;
+	private static final int AI_TYPE_TOKEN = 3;
 	private static final int PLAYER_1_TOKEN = 0; 
 	private static final int PLAYER_2_TOKEN = 1;
+	private static final int GRID_SIZE_TOKEN = 2; 
+	private static final int WIN_LENGTH_TOKEN = 3; 
 	private static final int NUM_ADD_PLAYER_ARGUMENTS = 3;  
 	private static final int NUM_ADD_AI_PLAYER_ARGUMENTS = 3;  
 	private static final int NUM_EDIT_PLAYER_ARGUMENTS = 3; 
 	private static final int NUM_PLAY_GAME_ARGUMENTS = 2; 
+	private static final int NUM_GAME_HISTORY_ARGUMENTS = 1; 
+	private static final int NUM_TRAIN_AI_ARGUMENTS = 1; 
+	private static final int GAME_COUNT_TOKEN = 0; 
+	private static final int GAMES_PER_PAIRING_TOKEN = 0; 
+	private static final int TOURNAMENT_GRID_SIZE_TOKEN = 1; 
+	private static final int TOURNAMENT_WIN_LENGTH_TOKEN = 2; 
+	private static final int DEFAULT_GAMES_PER_PAIRING = 2; 
+	private static final int PORT_TOKEN = 0; 
+	private static final int NUM_HEAD_TO_HEAD_ARGUMENTS = 2; 
+	private static final int BOARD_TOKEN = 0; 
+	private static final int ANALYSIS_WIN_LENGTH_TOKEN = 1; 
+	private static final int ANALYSIS_SECONDS_TOKEN = 2; 
+	private static final int TRACE_ACTION_TOKEN = 0; 
+	private static final int SAMPLE_INTERVAL_TOKEN = 1; 
+	private static final String TRACE_ON_ACTION = "on"; 
+	private static final String TRACE_OFF_ACTION = "off"; 
+	private static final String TRACE_DUMP_ACTION = "dump"; 
 	private static final String COMMAND_ARGUMENT_DELIMITER = ",";
+	private static final String FAST_START_OPTION = "--fast";
+	private static final String SHARDS_OPTION = "--shards";
+	private static final String LEADER_OPTION = "--leader";
+	private static final String FOLLOWER_OPTION = "--follower";
+	private static final String BIND_OPTION = "--bind";
 
 	private enum Command {
-		EXIT("exit"),
-		ADD_PLAYER("addplayer"), 
-		ADD_AI_PLAYER("addaiplayer"),
-		REMOVE_PLAYER("removeplayer"), 
-		EDIT_PLAYER("editplayer"),  
-		RESET_STATS("resetstats"), 
-		DISPLAY_PLAYER("displayplayer"),
-		RANKINGS("rankings"),
-		PLAY_GAME("playgame");
+		EXIT("exit", false),
+		ADD_PLAYER("addplayer", true), 
+		ADD_AI_PLAYER("addaiplayer", true),
+		REMOVE_PLAYER("removeplayer", true), 
+		EDIT_PLAYER("editplayer", true),  
+		RESET_STATS("resetstats", true), 
+		DISPLAY_PLAYER("displayplayer", false),
+		RANKINGS("rankings", false),
+		PLAY_GAME("playgame", true),
+		PLAY_QUBIC("playqubic", true),
+		GAME_HISTORY("gamehistory", false),
+		ANALYTICS("analytics", false),
+		TRAIN_AI("trainai", false),
+		TOURNAMENT("tournament", true),
+		SERVE("serve", false),
+		HEAD_TO_HEAD("headtohead", false),
+		ANALYZE("analyze", false),
+		TRACE("trace", false),
+		SPECTATE("spectate", false);
 
 		private final String input; 
+		private final boolean changesPlayers; //whether the command is refused by followers
 
-		Command(String input) {
+		Command(String input, boolean changesPlayers) {
 			this.input = input; 
+			this.changesPlayers = changesPlayers; 
 		}
 	}
 
+	private GameHistory gameHistory; //null for followers, who leave it to the leader
+	private HeadToHeadIndex headToHead; //null for followers, who leave it to the leader
+	private boolean fastStart; //whether to import players in the background
+	private int shardCount; //number of shard processes to hold the players, 0 for none
+	private int leaderPort; //port to stream player changes to followers on, 0 for none
+	private String[] leaderAddresses; //leaders to follow in failover order, null if not following
+	private InetAddress bindAddress = InetAddress.getLoopbackAddress(); //where servers listen
+	private BestMoveService bestMoveService; //null until the serve command is used
+	private SearchTrace searchTrace; //last trace started, null until the trace command is used
+	private SpectatorServer spectatorServer; //null until the spectate command is used
+
 	public static void main(String[] args) {
 
 		TicTacToe gameSystem = new TicTacToe(); 
+
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals(FAST_START_OPTION)) {
+				gameSystem.fastStart = true; 
+			} else if (args[i].equals(SHARDS_OPTION) && i + 1 < args.length) {
+				try {
+					gameSystem.shardCount = Integer.parseInt(args[i+1]); 
+				}
+				catch (NumberFormatException e) {
+					System.out.println("Number of shards must be a number.");
+				}
+				i++; 
+			} else if (args[i].equals(LEADER_OPTION) && i + 1 < args.length) {
+				try {
+					gameSystem.leaderPort = Integer.parseInt(args[i+1]); 
+				}
+				catch (NumberFormatException e) {
+					System.out.println("Leader port must be a number.");
+				}
+				i++; 
+			} else if (args[i].equals(FOLLOWER_OPTION) && i + 1 < args.length) {
+				gameSystem.leaderAddresses = args[i+1].split(COMMAND_ARGUMENT_DELIMITER); 
+				i++; 
+			} else if (args[i].equals(BIND_OPTION) && i + 1 < args.length) {
+				try {
+					gameSystem.bindAddress = InetAddress.getByName(args[i+1]); 
+				}
+				catch (UnknownHostException e) {
+					System.out.println("\'" + args[i+1] + "\' is not a known address.");
+				}
+				i++; 
+			} else {
+				System.out.println("\'" + args[i] + "\' is not a valid option.");
+			}
+		}
+
 		gameSystem.run();
 	}
 
 	/* Manages the running of a game system of TicTacToe */ 
 	private void run() {
 
-		PlayerManager playerManager = new PlayerManager(); 
-		GameManager gameManager = new GameManager(); 
+		//keep players in this process, split across shard processes, or replicated
+		PlayerManager playerManager; 
+		if (shardCount > 0) {
+			playerManager = ShardedPlayerManager.launch(shardCount, 
+				ShardedPlayerManager.DEFAULT_BASE_PORT); 
+		} else if (leaderAddresses != null) {
+			playerManager = ReplicatedPlayerManager.startFollower(leaderAddresses, leaderPort, 
+				bindAddress); 
+		} else if (leaderPort > 0) {
+			playerManager = ReplicatedPlayerManager.startLeader(leaderPort, bindAddress); 
+		} else {
+			playerManager = new PlayerManager(); 
+		}
+		if (playerManager == null) {
+			exitProgram(); 
+		}
+		//followers share the leader's directory, so only the leader opens the game stores
+		if (leaderAddresses == null) {
+			gameHistory = new GameHistory(); 
+			headToHead = HeadToHeadIndex.load(); 
+		}
+		GameManager gameManager = new GameManager(gameHistory, headToHead); 
 
 		System.out.println("Welcome to Tic Tac Toe!");
 		System.out.println(); 
 
-		playerManager.importPlayerArray(); //import player data from file
+		//import player data from file, in the background if starting fast
+		if (fastStart) {
+			playerManager.importPlayerArrayInBackground(); 
+		} else {
+			playerManager.importPlayerArray(); 
+		}
 		
 		while(true) { 
 			//keep prompting user for command
@@ -100,6 +212,26 @@ public class TicTacToe {
 			return Command.RANKINGS;
 		} else if (userInput.equals(Command.PLAY_GAME.input)) {
 			return Command.PLAY_GAME;
+		} else if (userInput.equals(Command.PLAY_QUBIC.input)) {
+			return Command.PLAY_QUBIC;
+		} else if (userInput.equals(Command.GAME_HISTORY.input)) {
+			return Command.GAME_HISTORY;
+		} else if (userInput.equals(Command.ANALYTICS.input)) {
+			return Command.ANALYTICS;
+		} else if (userInput.equals(Command.TRAIN_AI.input)) {
+			return Command.TRAIN_AI;
+		} else if (userInput.equals(Command.TOURNAMENT.input)) {
+			return Command.TOURNAMENT;
+		} else if (userInput.equals(Command.SERVE.input)) {
+			return Command.SERVE;
+		} else if (userInput.equals(Command.HEAD_TO_HEAD.input)) {
+			return Command.HEAD_TO_HEAD;
+		} else if (userInput.equals(Command.ANALYZE.input)) {
+			return Command.ANALYZE;
+		} else if (userInput.equals(Command.TRACE.input)) {
+			return Command.TRACE;
+		} else if (userInput.equals(Command.SPECTATE.input)) {
+			return Command.SPECTATE;
 		} else {
 			throw new InvalidCommandException(
 				"\'" + userInput + "\' is not a valid command.");
@@ -117,9 +249,21 @@ public class TicTacToe {
 			return; 
 		}
 
+		//followers can only display the players
+		if (command.changesPlayers && playerManager.isReadOnly()) {
+			keyboard.nextLine(); //consume rest of line
+			System.out.println("Players can only be changed on the leader.");
+			return; 
+		}
+
 		switch (command) {
 			case EXIT: 
 				playerManager.exportPlayerArray(); //save player data to file
+				if (gameHistory != null) {
+					gameHistory.close(); 
+					headToHead.save(); 
+				}
+				AdvancedAIPlayer.saveMoveCache(); 
 				exitProgram();
 				break; 
 
@@ -146,9 +290,17 @@ public class TicTacToe {
 						"Incorrect number of arguments supplied to command."); 
 				}
 
-				playerManager.addAIPlayer(commandArguments[USERNAME_TOKEN],
-					commandArguments[FAMILY_NAME_TOKEN], 
-					commandArguments[GIVEN_NAME_TOKEN]);
+				if (commandArguments.length > AI_TYPE_TOKEN) {
+					//optional type of AI
+					playerManager.addAIPlayer(commandArguments[USERNAME_TOKEN],
+						commandArguments[FAMILY_NAME_TOKEN], 
+						commandArguments[GIVEN_NAME_TOKEN], 
+						commandArguments[AI_TYPE_TOKEN].trim());
+				} else {
+					playerManager.addAIPlayer(commandArguments[USERNAME_TOKEN],
+						commandArguments[FAMILY_NAME_TOKEN], 
+						commandArguments[GIVEN_NAME_TOKEN]);
+				}
 				break; 
 
 			case REMOVE_PLAYER:
@@ -208,18 +360,392 @@ public class TicTacToe {
 					return; 
 				}
 
-				gameManager.playGame(player1, player2);
+				//optional grid size and win length, by default a line across the grid wins
+				int gridSize = GameManager.DEFAULT_GRID_SIZE; 
+				int winLength = GameManager.DEFAULT_WIN_LENGTH; 
+				try {
+					if (commandArguments.length > GRID_SIZE_TOKEN) {
+						gridSize = Integer.parseInt(commandArguments[GRID_SIZE_TOKEN].trim());
+						winLength = gridSize; 
+					}
+					if (commandArguments.length > WIN_LENGTH_TOKEN) {
+						winLength = Integer.parseInt(commandArguments[WIN_LENGTH_TOKEN].trim());
+					}
+				}
+				catch (NumberFormatException e) {
+					System.out.println("Grid size and win length must be numbers.");
+					return; 
+				}
+
+				if (!isValidGrid(gridSize, winLength)) {
+					return; 
+				}
+
+				gameManager.playGame(player1, player2, gridSize, winLength);
 
 				//update playerManager
 				playerManager.setPlayer(player1);
 				playerManager.setPlayer(player2);
 				break; 
 
+			case PLAY_QUBIC:
+				commandArguments = readInCommandArguments(); 
+				
+				//check for erroneus input
+				if (commandArguments.length < NUM_PLAY_GAME_ARGUMENTS) {
+					throw new NumberOfCommandArgumentsException(
+						"Incorrect number of arguments supplied to command."); 
+				}
+
+				//get copies of both players involved in game from playerManager 
+				Player qubicPlayer1 = playerManager.getPlayer(
+					commandArguments[PLAYER_1_TOKEN]);
+				Player qubicPlayer2 = playerManager.getPlayer(
+					commandArguments[PLAYER_2_TOKEN]);
+
+				//check both players exist
+				if (qubicPlayer1 == null || qubicPlayer2 == null) {
+					System.out.println("Player does not exist.");
+					return; 
+				}
+
+				gameManager.playQubicGame(qubicPlayer1, qubicPlayer2);
+
+				//update playerManager
+				playerManager.setPlayer(qubicPlayer1);
+				playerManager.setPlayer(qubicPlayer2);
+				break; 
+
+			case GAME_HISTORY:
+				commandArguments = readInCommandArguments(); 
+
+				//check for erroneus input
+				if (commandArguments.length < NUM_GAME_HISTORY_ARGUMENTS) {
+					throw new NumberOfCommandArgumentsException(
+						"Incorrect number of arguments supplied to command."); 
+				}
+
+				if (gameHistory == null) {
+					System.out.println("Games are only recorded by the leader.");
+					return; 
+				}
+
+				playerManager.displayGameHistory(commandArguments[USERNAME_TOKEN], gameHistory);
+				break; 
+
+			case ANALYTICS:
+				keyboard.nextLine(); //consume rest of line
+
+				if (gameHistory == null) {
+					System.out.println("Games are only recorded by the leader.");
+					return; 
+				}
+
+				long startTime = System.nanoTime(); 
+				GameStatistics statistics = gameHistory.analyze(); 
+				long elapsedMillis = (System.nanoTime() - startTime)/1000000; 
+
+				statistics.print(playerManager); 
+				System.out.println("Analysed " + statistics.getGameCount() + " games in " + 
+					elapsedMillis + " ms.");
+				break; 
+
+			case TRAIN_AI:
+				commandArguments = readInCommandArguments(); 
+
+				//check for erroneus input
+				if (commandArguments.length < NUM_TRAIN_AI_ARGUMENTS) {
+					throw new NumberOfCommandArgumentsException(
+						"Incorrect number of arguments supplied to command."); 
+				}
+
+				int gameCount; 
+				try {
+					gameCount = Integer.parseInt(commandArguments[GAME_COUNT_TOKEN].trim());
+				}
+				catch (NumberFormatException e) {
+					System.out.println("Number of games must be a number.");
+					return; 
+				}
+
+				if (gameCount <= 0) {
+					System.out.println("Number of games must be positive.");
+					return; 
+				}
+
+				//self-play games for learning players, timed to size training runs
+				LearningTable learningTable = LearningTable.getInstance(); 
+				long trainingStartTime = System.nanoTime(); 
+				learningTable.train(gameCount); 
+				long trainingNanos = System.nanoTime() - trainingStartTime; 
+				learningTable.save(); 
+
+				System.out.println("Trained " + gameCount + " games in " + trainingNanos/1000000 + 
+					" ms (" + Math.round(gameCount/(trainingNanos/1e9)) + " games per second). " + 
+					learningTable.getTrainedGameCount() + " games trained in total.");
+				break; 
+
+			case TOURNAMENT:
+				commandArguments = readInCommandArguments(); 
+
+				//optional games per pairing, grid size and win length
+				int gamesPerPairing = DEFAULT_GAMES_PER_PAIRING; 
+				int tournamentGridSize = GameManager.DEFAULT_GRID_SIZE; 
+				int tournamentWinLength = GameManager.DEFAULT_WIN_LENGTH; 
+				try {
+					if (!commandArguments[GAMES_PER_PAIRING_TOKEN].isEmpty()) {
+						gamesPerPairing = Integer.parseInt(
+							commandArguments[GAMES_PER_PAIRING_TOKEN].trim());
+					}
+					if (commandArguments.length > TOURNAMENT_GRID_SIZE_TOKEN) {
+						tournamentGridSize = Integer.parseInt(
+							commandArguments[TOURNAMENT_GRID_SIZE_TOKEN].trim());
+						tournamentWinLength = tournamentGridSize; 
+					}
+					if (commandArguments.length > TOURNAMENT_WIN_LENGTH_TOKEN) {
+						tournamentWinLength = Integer.parseInt(
+							commandArguments[TOURNAMENT_WIN_LENGTH_TOKEN].trim());
+					}
+				}
+				catch (NumberFormatException e) {
+					System.out.println("Games per pairing, grid size and win length must be " + 
+						"numbers.");
+					return; 
+				}
+
+				if (gamesPerPairing <= 0) {
+					System.out.println("Number of games must be positive.");
+					return; 
+				}
+
+				if (!isValidGrid(tournamentGridSize, tournamentWinLength)) {
+					return; 
+				}
+
+				Player[] entrants = playerManager.getAIPlayers(); 
+				if (entrants.length < 2) {
+					System.out.println("A tournament needs at least two AI players.");
+					return; 
+				}
+
+				//the games are played quietly, so warn of any that cannot be recorded now
+				for (int i = 0; i < entrants.length; i++) {
+					if (!GameRecord.fitsPlayerId(entrants[i].getPlayerId())) {
+						System.out.println("Games of " + entrants[i].getUsername() + 
+							" will not be recorded: player ids above " + 
+							GameRecord.MAX_PLAYER_ID + " do not fit in game records.");
+					}
+				}
+
+				//play every game, then add all the results to the players at once
+				Tournament tournament = new Tournament(entrants, gamesPerPairing, 
+					tournamentGridSize, tournamentWinLength, gameHistory, headToHead); 
+				long tournamentStartTime = System.nanoTime(); 
+				TournamentResults results = tournament.run(); 
+				long tournamentNanos = System.nanoTime() - tournamentStartTime; 
+				playerManager.addTournamentResults(tournament, results); 
+
+				System.out.println("Played " + results.getGameCount() + " games between " + 
+					entrants.length + " players in " + tournamentNanos/1000000 + " ms (" + 
+					Math.round(results.getGameCount()/(tournamentNanos/1e9)) + 
+					" games per second).");
+				playerManager.displayRanking(); 
+				break; 
+
+			case SERVE:
+				commandArguments = readInCommandArguments(); 
+
+				if (bestMoveService != null) {
+					System.out.println("Already serving best moves on port " + 
+						bestMoveService.getPort() + ".");
+					return; 
+				}
+
+				//optional port
+				int port = BestMoveService.DEFAULT_PORT; 
+				try {
+					if (!commandArguments[PORT_TOKEN].isEmpty()) {
+						port = Integer.parseInt(commandArguments[PORT_TOKEN].trim());
+					}
+				}
+				catch (NumberFormatException e) {
+					System.out.println("Port must be a number.");
+					return; 
+				}
+
+				try {
+					bestMoveService = BestMoveService.start(port, bindAddress); 
+					System.out.println("Serving best moves on port " + port + ".");
+				}
+				catch (IOException | IllegalArgumentException e) {
+					System.out.println("Could not serve on port " + port + ": " + 
+						e.getMessage());
+				}
+				break; 
+
+			case HEAD_TO_HEAD:
+				commandArguments = readInCommandArguments(); 
+
+				//check for erroneus input
+				if (commandArguments.length < NUM_HEAD_TO_HEAD_ARGUMENTS) {
+					throw new NumberOfCommandArgumentsException(
+						"Incorrect number of arguments supplied to command."); 
+				}
+
+				if (headToHead == null) {
+					System.out.println("Head to head records are only kept by the leader.");
+					return; 
+				}
+
+				Player player = playerManager.getPlayer(commandArguments[PLAYER_1_TOKEN]); 
+				Player opponent = playerManager.getPlayer(commandArguments[PLAYER_2_TOKEN]); 
+				if (player == null || opponent == null) {
+					System.out.println("Player does not exist.");
+					return; 
+				}
+
+				int playerId = player.getPlayerId(); 
+				int opponentId = opponent.getPlayerId(); 
+				System.out.println(player.getGivenName() + " vs " + opponent.getGivenName() + 
+					": " + headToHead.getGameCount(playerId, opponentId) + " games, " + 
+					player.getGivenName() + " won " + headToHead.getWinCount(playerId, opponentId) + 
+					", " + opponent.getGivenName() + " won " + 
+					headToHead.getWinCount(opponentId, playerId) + ", " + 
+					headToHead.getDrawCount(playerId, opponentId) + " drawn");
+				break; 
+
+			case ANALYZE:
+				commandArguments = readInCommandArguments(); 
+
+				//board given row by row, then optional win length and seconds to search for
+				char[][] analysisGrid = Board.parseGrid(commandArguments[BOARD_TOKEN].trim()); 
+				if (analysisGrid == null) {
+					System.out.println("Board must be square, given row by row with X, O, " + 
+						"and . or - for an empty cell.");
+					return; 
+				}
+				int analysisWinLength = analysisGrid.length; 
+				long analysisMillis = SearchAnalysis.DEFAULT_TIME_BUDGET_MILLIS; 
+				try {
+					if (commandArguments.length > ANALYSIS_WIN_LENGTH_TOKEN) {
+						analysisWinLength = Integer.parseInt(
+							commandArguments[ANALYSIS_WIN_LENGTH_TOKEN].trim());
+					}
+					if (commandArguments.length > ANALYSIS_SECONDS_TOKEN) {
+						analysisMillis = 1000*Long.parseLong(
+							commandArguments[ANALYSIS_SECONDS_TOKEN].trim());
+					}
+				}
+				catch (NumberFormatException e) {
+					System.out.println("Win length and seconds must be numbers.");
+					return; 
+				}
+
+				if (!isValidGrid(analysisGrid.length, analysisWinLength)) {
+					return; 
+				}
+
+				Board analysisBoard = Board.fromGrid(analysisGrid, analysisWinLength); 
+				if (!analysisBoard.hasValidMoveCounts()) {
+					System.out.println("O moves first, so O must have as many moves as X or " + 
+						"one more.");
+					return; 
+				}
+				if (analysisBoard.hasWinner() || analysisBoard.isFull()) {
+					System.out.println("The game is over.");
+					return; 
+				}
+
+				new SearchAnalysis(analysisBoard, analysisMillis).run(); 
+				break; 
+
+			case TRACE:
+				commandArguments = readInCommandArguments(); 
+				String traceAction = commandArguments[TRACE_ACTION_TOKEN].trim(); 
+
+				if (traceAction.equals(TRACE_ON_ACTION)) {
+					//optional sample interval
+					int sampleInterval = SearchTrace.DEFAULT_SAMPLE_INTERVAL; 
+					try {
+						if (commandArguments.length > SAMPLE_INTERVAL_TOKEN) {
+							sampleInterval = Integer.parseInt(
+								commandArguments[SAMPLE_INTERVAL_TOKEN].trim());
+						}
+					}
+					catch (NumberFormatException e) {
+						System.out.println("Sample interval must be a number.");
+						return; 
+					}
+
+					searchTrace = SearchTrace.start(sampleInterval); 
+					System.out.println("Tracing AI searches.");
+				} else if (traceAction.equals(TRACE_OFF_ACTION)) {
+					SearchTrace.stop(); 
+					System.out.println("Stopped tracing AI searches.");
+				} else if (traceAction.equals(TRACE_DUMP_ACTION)) {
+					if (searchTrace == null) {
+						System.out.println("No searches have been traced.");
+						return; 
+					}
+					searchTrace.dump(); 
+				} else {
+					System.out.println("Trace must be followed by on, off or dump.");
+				}
+				break; 
+
+			case SPECTATE:
+				commandArguments = readInCommandArguments(); 
+
+				if (spectatorServer != null) {
+					System.out.println("Already letting spectators watch on port " + 
+						spectatorServer.getPort() + ".");
+					return; 
+				}
+
+				//optional port
+				int spectatorPort = SpectatorServer.DEFAULT_PORT; 
+				try {
+					if (!commandArguments[PORT_TOKEN].isEmpty()) {
+						spectatorPort = Integer.parseInt(commandArguments[PORT_TOKEN].trim());
+					}
+				}
+				catch (NumberFormatException e) {
+					System.out.println("Port must be a number.");
+					return; 
+				}
+
+				try {
+					spectatorServer = SpectatorServer.start(gameManager, spectatorPort, bindAddress); 
+					System.out.println("Spectators can watch games on port " + spectatorPort + 
+						".");
+				}
+				catch (IOException | IllegalArgumentException e) {
+					System.out.println("Could not let spectators watch on port " + 
+						spectatorPort + ": " + e.getMessage());
+				}
+				break; 
+
 			default: 
 				//none of the expected commands, do nothing
 		}
 	}
 
+	/* Checks the grid size and win length of a game, printing a message if they are not valid. 
+	 * Returns boolean true if valid, false otherwise. 
+	 */ 
+	private boolean isValidGrid(int gridSize, int winLength) {
+
+		if (gridSize < Board.MIN_SIZE || gridSize > Board.MAX_SIZE || 
+			winLength < Board.MIN_SIZE || winLength > gridSize) {
+			System.out.println("Grid size must be from " + Board.MIN_SIZE + " to " + 
+				Board.MAX_SIZE + ", and win length from " + Board.MIN_SIZE + 
+				" to the grid size.");
+			return false; 
+		}
+
+		return true; 
+	}
+
 	/* Reads in user input and returns a tokenized string array */ 
 	private String[] readInCommandArguments() {
 		
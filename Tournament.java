@@ -0,0 +1,89 @@
+/*
+ * Class that runs a round-robin tournament between a set of players. Each pair of players plays 
+ * a given number of games, taking turns to move first. The games are played in parallel on a 
+ * work-stealing pool with a thread for each core, each game between fresh copies of its players 
+ * and without printing. Each game's searches run on the thread playing the game, with the time 
+ * budget starting when the search does, so the results don't depend on how busy the machine's 
+ * other pools are. The players' stats are not changed by the games: the results are counted 
+ * separately, to be added to the stats all at once when the tournament is over.
+ */
+
+import java.util.concurrent.ForkJoinPool;
+
+public class Tournament {
+
+	private Player[] entrants;
+	private int gridSize;
+	private int winLength;
+	private GameHistory gameHistory; //where the games are recorded, if anywhere
+	private HeadToHeadIndex headToHead; //where results between pairs are kept, if anywhere
+	private int[] firstEntrants; //indexed by scheduled game, the entrant who moves first
+	private int[] secondEntrants;
+
+	/* Constructor */
+	public Tournament(Player[] entrants, int gamesPerPairing, int gridSize, int winLength, 
+		GameHistory gameHistory, HeadToHeadIndex headToHead) {
+
+		this.entrants = entrants;
+		this.gridSize = gridSize;
+		this.winLength = winLength;
+		this.gameHistory = gameHistory;
+		this.headToHead = headToHead;
+
+		//schedule every game of every pairing, alternating which entrant moves first
+		int pairingCount = entrants.length*(entrants.length - 1)/2;
+		this.firstEntrants = new int[pairingCount*gamesPerPairing];
+		this.secondEntrants = new int[pairingCount*gamesPerPairing];
+
+		int game = 0;
+		for (int i = 0; i < entrants.length; i++) {
+			for (int j = i + 1; j < entrants.length; j++) {
+				for (int k = 0; k < gamesPerPairing; k++) {
+					firstEntrants[game] = (k % 2 == 0) ? i : j;
+					secondEntrants[game] = (k % 2 == 0) ? j : i;
+					game++;
+				}
+			}
+		}
+	}
+
+	/* Accessors */
+	public Player[] getEntrants() {
+
+		return this.entrants;
+	}
+
+	public int getGameCount() {
+
+		return this.firstEntrants.length;
+	}
+
+	/* Plays all the scheduled games and returns their results */
+	public TournamentResults run() {
+
+		if (getGameCount() == 0) {
+			return new TournamentResults(entrants.length);
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		try {
+			return pool.invoke(new TournamentTask(this, 0, getGameCount()));
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	/* Plays the scheduled game with the input number and adds its result to the results */
+	public void playScheduledGame(int game, TournamentResults results) {
+
+		//fresh copies, so that no player is shared by games played at the same time
+		Player player1 = entrants[firstEntrants[game]].makeCopy();
+		Player player2 = entrants[secondEntrants[game]].makeCopy();
+
+		GameManager gameManager = new GameManager(gameHistory, headToHead, true);
+		int result = gameManager.playTournamentGame(player1, player2, gridSize, winLength);
+
+		results.add(firstEntrants[game], secondEntrants[game], result);
+	}
+}
\ No newline at end of file
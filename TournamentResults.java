@@ -0,0 +1,73 @@
+/*
+ * Class that counts the games played, won, and drawn by each entrant over some of the games of a 
+ * Tournament. Entrants are numbered by their index in the tournament. Results of separate sets of 
+ * games can be merged, so they can be counted in parallel.
+ */
+
+public class TournamentResults {
+
+	private int gameCount;
+	private int[] gamesPlayedCounts; //indexed by entrant
+	private int[] gamesWonCounts;
+	private int[] gamesDrawnCounts;
+
+	/* Constructor */
+	public TournamentResults(int entrantCount) {
+
+		this.gameCount = 0;
+		this.gamesPlayedCounts = new int[entrantCount];
+		this.gamesWonCounts = new int[entrantCount];
+		this.gamesDrawnCounts = new int[entrantCount];
+	}
+
+	/* Accessors */
+	public int getGameCount() {
+
+		return this.gameCount;
+	}
+
+	public int getGamesPlayedCount(int entrant) {
+
+		return this.gamesPlayedCounts[entrant];
+	}
+
+	public int getGamesWonCount(int entrant) {
+
+		return this.gamesWonCounts[entrant];
+	}
+
+	public int getGamesDrawnCount(int entrant) {
+
+		return this.gamesDrawnCounts[entrant];
+	}
+
+	/* Adds the GameRecord result of a game between the two input entrants, where entrant1 moved 
+	 * first.
+	 */
+	public void add(int entrant1, int entrant2, int result) {
+
+		gameCount++;
+		gamesPlayedCounts[entrant1]++;
+		gamesPlayedCounts[entrant2]++;
+
+		if (result == GameRecord.PLAYER_1_WON) {
+			gamesWonCounts[entrant1]++;
+		} else if (result == GameRecord.PLAYER_2_WON) {
+			gamesWonCounts[entrant2]++;
+		} else {
+			gamesDrawnCounts[entrant1]++;
+			gamesDrawnCounts[entrant2]++;
+		}
+	}
+
+	/* Adds the counts of other results, for the same entrants, to these results */
+	public void merge(TournamentResults other) {
+
+		gameCount += other.gameCount;
+		for (int i = 0; i < gamesPlayedCounts.length; i++) {
+			gamesPlayedCounts[i] += other.gamesPlayedCounts[i];
+			gamesWonCounts[i] += other.gamesWonCounts[i];
+			gamesDrawnCounts[i] += other.gamesDrawnCounts[i];
+		}
+	}
+}
\ No newline at end of file
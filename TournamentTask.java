@@ -0,0 +1,47 @@
+/*
+ * Class that plays a range of the scheduled games of a Tournament using fork/join parallelism. 
+ * Ranges of more than one game are split in half and played in parallel, so idle threads can 
+ * steal the games left over by threads that are busy with long ones, and the results of the two 
+ * halves are merged.
+ */
+
+import java.util.concurrent.RecursiveTask;
+
+//never serialized, as it only runs in this process (and its Tournament isn't serializable)
+@SuppressWarnings("serial")
+public class TournamentTask extends RecursiveTask<TournamentResults> {
+
+	private Tournament tournament;
+	private int firstGame;
+	private int endGame; //one past the last game in the range
+
+	/* Constructor */
+	public TournamentTask(Tournament tournament, int firstGame, int endGame) {
+
+		this.tournament = tournament;
+		this.firstGame = firstGame;
+		this.endGame = endGame;
+	}
+
+	/* Plays the range of games, splitting it if it holds more than one game */
+	protected TournamentResults compute() {
+
+		if (endGame - firstGame > 1) {
+			int middleGame = firstGame + (endGame - firstGame)/2;
+
+			TournamentTask firstHalf = new TournamentTask(tournament, firstGame, middleGame);
+			TournamentTask secondHalf = new TournamentTask(tournament, middleGame, endGame);
+
+			firstHalf.fork();
+			TournamentResults results = secondHalf.compute();
+			results.merge(firstHalf.join());
+			return results;
+		}
+
+		TournamentResults results = new TournamentResults(tournament.getEntrants().length);
+		for (int game = firstGame; game < endGame; game++) {
+			tournament.playScheduledGame(game, results);
+		}
+		return results;
+	}
+}
\ No newline at end of file